@@ -0,0 +1,56 @@
+package game.map;
+
+import entities.blocks.BlockMaster;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link ServerMap#checkFallingBlocks()} on a map where a share of the diggable blocks
+ * has been removed, so stones actually have to fall. The map is regenerated before every
+ * invocation, which is why this has its own state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FallingBlocksBenchmark {
+
+  @Param({"s", "m", "l"})
+  private String mapSize;
+
+  @Param({"0.05", "0.2"})
+  private float digRatio;
+
+  private ServerMap map;
+  private Random random = new Random(42);
+
+  /** Create a fresh map and dig random holes into it. */
+  @Setup(Level.Invocation)
+  public void digRandomBlocks() {
+    map = new ServerMap(mapSize, random.nextInt(100000));
+    map.generateRows(map.height - 1);
+    for (int y = 0; y < map.height; y++) {
+      for (int x = 0; x < map.width; x++) {
+        BlockMaster.BlockTypes type = map.blocks[x][y].getType();
+        if ((type == BlockMaster.BlockTypes.DIRT || type == BlockMaster.BlockTypes.GOLD)
+            && random.nextFloat() < digRatio) {
+          map.blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.AIR, x, y);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public ServerMap checkFallingBlocks() {
+    map.checkFallingBlocks();
+    return map;
+  }
+}
@@ -0,0 +1,61 @@
+package game.map;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Map generation time of the big map sizes with a serial and a parallel noise map. The complete
+ * generation has to stay well below the time a player waits for a lobby to be created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapGenerationBenchmark {
+
+  @Param({"l", "xl", "xxl"})
+  private String mapSize;
+
+  @Param({"1", "4"})
+  private int threads;
+
+  private ServerMap map;
+
+  @Setup
+  public void setup() {
+    GameMap.setGenerationThreads(threads);
+    map = new ServerMap(mapSize, 123456);
+    map.generateRows(map.height - 1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    GameMap.setGenerationThreads(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Benchmark
+  public float[][] noiseMap() {
+    return map.generateNoiseMap();
+  }
+
+  /** Noise, thresholding and the falling block fixpoint, like a lobby creation without pool. */
+  @Benchmark
+  public ServerMap generate() {
+    return new ServerMap(mapSize, 123456);
+  }
+
+  /** All chunks of the map, like a lobby where the players reached the bottom. */
+  @Benchmark
+  public ServerMap generateAllChunks() {
+    ServerMap fullMap = new ServerMap(mapSize, 123456);
+    fullMap.generateRows(fullMap.height - 1);
+    return fullMap;
+  }
+}
@@ -0,0 +1,77 @@
+package game.map;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import net.ServerLogicStub;
+import net.lobbyhandling.Lobby;
+import net.playerhandling.ServerPlayer;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks for the server side map: generation, block damage and the serialisation for the map
+ * broadcast. Runs without sockets, the static server registries are stubbed by {@link
+ * ServerLogicStub}.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServerMapBenchmark {
+
+  @Param({"s", "m", "l", "xl", "xxl"})
+  private String mapSize;
+
+  private ServerMap map;
+  private ServerPlayer player;
+  private int damageX;
+
+  /** Set up a lobby with one player. */
+  @Setup(Level.Trial)
+  public void setupLobby() {
+    ServerLogicStub.init();
+    Lobby lobby = ServerLogicStub.addLobby("BenchLobby", mapSize);
+    player = ServerLogicStub.addPlayer(1, lobby);
+    map = lobby.getMap();
+    map.generateRows(map.height - 1);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ServerLogicStub.shutdown();
+  }
+
+  /** Noise, thresholding and the initial falling block fixpoint. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public ServerMap generate() {
+    return new ServerMap(mapSize, 123456);
+  }
+
+  /**
+   * Server path of a dig packet after the validation: damage, falling block check and recording
+   * the change. Deals no damage so the map stays the same for every invocation. The validation is
+   * measured in ServerPlayerBenchmark.
+   */
+  @Benchmark
+  public ServerMap damageBlock() {
+    damageX = damageX % (map.width - 2) + 1;
+    map.applyBlockDamage(
+        player.getClientId(),
+        Collections.singletonList(new Vector3f(damageX, map.height / 2, 0)));
+    return map;
+  }
+
+  @Benchmark
+  public String toPacketString() {
+    return map.toPacketString();
+  }
+}
@@ -0,0 +1,61 @@
+package net;
+
+import net.lobbyhandling.Lobby;
+import net.playerhandling.ServerPlayer;
+import org.joml.Vector2f;
+import org.joml.Vector2i;
+import org.joml.Vector3f;
+
+/**
+ * Sets up the static {@link ServerLogic} registries for benchmarks without opening any sockets.
+ * Packets that are sent to clients are silently dropped since there are no client threads.
+ */
+public class ServerLogicStub {
+
+  /** Reset all server registries to an empty state. */
+  public static void init() {
+    ServerLogic.initRegistries();
+  }
+
+  /**
+   * Create a lobby and register it on the server.
+   *
+   * @param lobbyName unique name of the lobby
+   * @param mapSize map size of the lobby ("s", "m" or "l")
+   * @return the registered lobby
+   */
+  public static Lobby addLobby(String lobbyName, String mapSize) {
+    Lobby lobby = new Lobby(lobbyName, 1, mapSize);
+    ServerLogic.getLobbyList().addLobby(lobby);
+    return lobby;
+  }
+
+  /**
+   * Log in a player and put them into a lobby. The player is placed in the middle of the map.
+   *
+   * @param clientId client id of the player
+   * @param lobby lobby to join
+   * @return the logged in player
+   */
+  public static ServerPlayer addPlayer(int clientId, Lobby lobby) {
+    ServerPlayer player = new ServerPlayer("BenchPlayer" + clientId, clientId);
+    ServerLogic.getPlayerList().addPlayer(player);
+    lobby.addPlayer(player);
+    player.setCurLobbyId(lobby.getLobbyId());
+    Vector3f center =
+        lobby
+            .getMap()
+            .gridToWorld(
+                new Vector2i(lobby.getMap().getWidth() / 2, lobby.getMap().getHeight() / 2));
+    player.setPos2d(new Vector2f(center.x, center.y));
+    return player;
+  }
+
+  /** Stop all lobby threads and clear the registries. */
+  public static void shutdown() {
+    for (Lobby lobby : ServerLogic.getLobbyList().getLobbies().values()) {
+      lobby.setStatus("finished");
+    }
+    init();
+  }
+}
@@ -0,0 +1,41 @@
+package net.lobbyhandling;
+
+import entities.items.ItemMaster;
+import entities.items.ServerItem;
+import java.util.concurrent.TimeUnit;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the dynamite lookup that is done for every dig packet. The items are owned by other
+ * players, so the lookup for the benchmarked player never finds a match (worst case).
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServerItemStateBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  private int items;
+
+  private ServerItemState itemState;
+
+  /** Fill the item state with a mix of item types owned by six other players. */
+  @Setup
+  public void setup() {
+    itemState = new ServerItemState();
+    ItemMaster.ItemTypes[] types = ItemMaster.ItemTypes.values();
+    for (int i = 0; i < items; i++) {
+      itemState.addItem(new ServerItem(2 + i % 6, types[i % types.length], new Vector3f(i, i, 0)));
+    }
+  }
+
+  @Benchmark
+  public boolean hasDynamiteOwnedBy() {
+    return itemState.hasDynamiteOwnedBy(1);
+  }
+}
@@ -0,0 +1,54 @@
+package net.lobbyhandling;
+
+import java.util.concurrent.TimeUnit;
+import net.ServerLogic;
+import net.ServerLogicStub;
+import net.playerhandling.ServerPlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks the lobby overview that is built and sent to all idle clients whenever a lobby
+ * changes. Only every tenth lobby is open, the others are finished, which is what the list looks
+ * like on a busy server since finished lobbies are not removed.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServerLobbyListBenchmark {
+
+  @Param({"100", "1000", "3000"})
+  private int lobbies;
+
+  private ServerLobbyList lobbyList;
+
+  /** Register the lobbies on the server. Open lobbies get a player so they are not cleaned up. */
+  @Setup(Level.Trial)
+  public void setup() {
+    ServerLogicStub.init();
+    for (int i = 0; i < lobbies; i++) {
+      Lobby lobby = ServerLogicStub.addLobby("Lobby" + i, "s");
+      if (i % 10 == 0) {
+        lobby.addPlayer(new ServerPlayer("BenchPlayer" + i, i + 1));
+      } else {
+        lobby.setStatus("finished");
+      }
+    }
+    lobbyList = ServerLogic.getLobbyList();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ServerLogicStub.shutdown();
+  }
+
+  @Benchmark
+  public String getTopTen() {
+    return lobbyList.getTopTen();
+  }
+}
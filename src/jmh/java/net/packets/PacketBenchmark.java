@@ -0,0 +1,114 @@
+package net.packets;
+
+import java.util.concurrent.TimeUnit;
+import net.packets.block.PacketBlockDamage;
+import net.packets.chat.PacketChatMessageToServer;
+import net.packets.playerprop.PacketPos;
+import net.packets.playerprop.PacketVelocity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Microbenchmarks for the packet layer. Covers the packet code lookup, the construction and
+ * validation of the packets that are sent most frequently during a round and the serialisation of
+ * a packet to the string that goes over the socket.
+ *
+ * <p>Run with <code>gradlew jmh</code>. The gc profiler is enabled in the build script, so every
+ * result also reports the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PacketBenchmark {
+
+  private String firstCode;
+  private String lastCode;
+  private String unknownCode;
+
+  private String posData;
+  private String velocityData;
+  private String blockDamageData;
+  private String chatData;
+
+  private Packet posPacket;
+
+  /** Prepare the raw message data as the server would receive it from a client. */
+  @Setup
+  public void setup() {
+    Packet.PacketTypes[] types = Packet.PacketTypes.values();
+    firstCode = types[0].getPacketCode();
+    lastCode = types[types.length - 1].getPacketCode();
+    unknownCode = "XXXXX";
+
+    posData = "123.456║-78.9║90.0";
+    velocityData = "12.5║-3.25║20.0║0.0";
+    blockDamageData = "14║27║0.2";
+    chatData = "Where is all the gold?║12:34";
+
+    posPacket = new PacketPos(1, posData);
+  }
+
+  @Benchmark
+  public Packet.PacketTypes lookupFirstPacket() {
+    return Packet.lookupPacket(firstCode);
+  }
+
+  @Benchmark
+  public Packet.PacketTypes lookupLastPacket() {
+    return Packet.lookupPacket(lastCode);
+  }
+
+  @Benchmark
+  public Packet.PacketTypes lookupInvalidPacket() {
+    return Packet.lookupPacket(unknownCode);
+  }
+
+  /** Client side construction, no validation. */
+  @Benchmark
+  public Packet createPos() {
+    return new PacketPos(123.456f, -78.9f, 90f);
+  }
+
+  /** Server side construction, validates in the constructor. */
+  @Benchmark
+  public Packet receivePos() {
+    return new PacketPos(1, posData);
+  }
+
+  @Benchmark
+  public Packet createVelocity() {
+    return new PacketVelocity(12.5f, -3.25f, 20f, 0f);
+  }
+
+  @Benchmark
+  public Packet receiveVelocity() {
+    return new PacketVelocity(1, velocityData);
+  }
+
+  @Benchmark
+  public Packet createBlockDamage() {
+    return new PacketBlockDamage(14, 27, 0.2f);
+  }
+
+  @Benchmark
+  public Packet receiveBlockDamage() {
+    return new PacketBlockDamage(1, blockDamageData);
+  }
+
+  @Benchmark
+  public Packet createChatMessage() {
+    return new PacketChatMessageToServer("Where is all the gold?");
+  }
+
+  @Benchmark
+  public Packet receiveChatMessage() {
+    return new PacketChatMessageToServer(1, chatData);
+  }
+
+  @Benchmark
+  public String packetToString() {
+    return posPacket.toString();
+  }
+}
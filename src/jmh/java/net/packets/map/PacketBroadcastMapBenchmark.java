@@ -0,0 +1,43 @@
+package net.packets.map;
+
+import game.map.ServerMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the full map broadcast for every map size. Encoding is done by the server whenever a
+ * lobby starts or is transferred, decoding by every client that receives the map.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PacketBroadcastMapBenchmark {
+
+  @Param({"s", "m", "l"})
+  private String mapSize;
+
+  private ServerMap serverMap;
+  private String mapData;
+
+  /** Generate the map once per size, generation itself is not part of the measurement. */
+  @Setup
+  public void setup() {
+    serverMap = new ServerMap(mapSize, 123456);
+    serverMap.generateRows(serverMap.getHeight() - 1);
+    mapData = new PacketBroadcastMap(serverMap).getData();
+  }
+
+  @Benchmark
+  public String encode() {
+    return new PacketBroadcastMap(serverMap).toString();
+  }
+
+  @Benchmark
+  public PacketBroadcastMap decode() {
+    return new PacketBroadcastMap(mapData);
+  }
+}
@@ -0,0 +1,53 @@
+package net.playerhandling;
+
+import java.util.concurrent.TimeUnit;
+import net.ServerLogicStub;
+import net.lobbyhandling.Lobby;
+import org.joml.Vector2i;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks the anti-cheat validation that runs for every position and dig packet. The dig
+ * packets of the benchmark come faster than the dig interval, so most of them are rejected after
+ * the damage checks, like the packets of a flooding client.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServerPlayerBenchmark {
+
+  private ServerPlayer player;
+  private Vector2i blockPos;
+
+  /** Log in a player that stands in the middle of the map. */
+  @Setup(Level.Trial)
+  public void setup() {
+    ServerLogicStub.init();
+    Lobby lobby = ServerLogicStub.addLobby("BenchLobby", "m");
+    player = ServerLogicStub.addPlayer(1, lobby);
+    // Position twice, so the previous and current position are the same
+    player.setPos2d(player.getPos2d());
+    blockPos = lobby.getMap().worldToGrid(new Vector3f(player.getPos2d(), 0));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ServerLogicStub.shutdown();
+  }
+
+  @Benchmark
+  public boolean validatePos2d() {
+    return player.validatePos2d(1f);
+  }
+
+  @Benchmark
+  public boolean validateBlockDamage() {
+    return player.validateBlockDamage(blockPos.x, blockPos.y, 0.2f);
+  }
+}
@@ -11,6 +11,8 @@ public class RawModel {
 
   private int vaoId;
   private int vertexCount;
+  // Buffer with the per instance data of the model, 0 until the model is rendered the first time
+  private int instanceVbo;
 
   private float[] boundingCoords = new float[] {};
 
@@ -37,6 +39,14 @@ public class RawModel {
     return vertexCount;
   }
 
+  public int getInstanceVbo() {
+    return instanceVbo;
+  }
+
+  public void setInstanceVbo(int instanceVbo) {
+    this.instanceVbo = instanceVbo;
+  }
+
   public float[] getBoundingCoords() {
     return boundingCoords;
   }
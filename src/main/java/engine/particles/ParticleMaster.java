@@ -12,23 +12,47 @@ import engine.particles.systems.Snow;
 import engine.particles.systems.Sparkle;
 import engine.render.Loader;
 import entities.Camera;
+import game.Game;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.joml.Matrix4f;
+import org.joml.Vector3f;
 
 /**
- * Manages a Hash Map of particle lists, sorted by Texture (one list for each type of particle).
- * Will remove expired particles from the list, sort the active ones by camera distance and call the
- * renderer with the lists.
+ * Manages a Hash Map of particle pools, sorted by Texture (one pool for each type of particle).
+ * Will remove expired particles from the pools, sort the active ones by camera distance and call
+ * the renderer with the pools.
+ *
+ * <p>The pools are updated by worker threads while the game thread prepares the rest of the frame.
+ * {@link #renderParticles(Camera)} waits for the workers. Particles that are emitted in the
+ * meantime are collected separately and added to their pool after the workers are done.
  *
  * <p>Initializes particle systems (load textures)
  */
 public class ParticleMaster {
-  private static Map<ParticleTexture, List<Particle>> particles = new HashMap<>();
+  // Large pools are split into ranges of this many particles, one task per range
+  private static final int PARTICLES_PER_TASK = 2048;
+
+  private static Map<ParticleTexture, ParticlePool> particles = new HashMap<>();
+  // Particles emitted while the pools are updated
+  private static Map<ParticleTexture, ParticlePool> staged = new HashMap<>();
   private static ParticleRenderer renderer;
+  private static final ExecutorService workers =
+      Executors.newFixedThreadPool(
+          Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+          r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Particle Update");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final List<CompletableFuture<Void>> updates = new ArrayList<>();
+  private static final List<CompletableFuture<Void>> ranges = new ArrayList<>();
 
   /**
    * Initialize the renderer and load all the particle effect systems with textures.
@@ -54,51 +78,108 @@ public class ParticleMaster {
   }
 
   /**
-   * Update all the lists of particles (one list per type of particle) and remove expired ones. Sort
-   * particles within list by distance from the camera so the near particles are rendered on top of
-   * the far ones.
+   * Start to update all the pools of particles (one pool per type of particle) and remove expired
+   * ones. Sort particles within a pool by distance from the camera so the near particles are
+   * rendered on top of the far ones.
+   *
+   * <p>The pools are updated in the background, call {@link #renderParticles(Camera)} to wait for
+   * them.
    *
    * @param camera the camera the particles are facing
    */
   public static void update(Camera camera) {
-    Iterator<Map.Entry<ParticleTexture, List<Particle>>> mapIterator =
-        particles.entrySet().iterator();
-    while (mapIterator.hasNext()) {
-      List<Particle> list = mapIterator.next().getValue();
-      Iterator<Particle> iterator = list.iterator();
-      while (iterator.hasNext()) {
-        Particle p = iterator.next();
-        boolean stillAlive = p.update(camera);
-        if (!stillAlive) {
-          iterator.remove();
-          if (list.isEmpty()) {
-            mapIterator.remove();
-          }
+    // The last frame might not have rendered the particles
+    finishUpdate();
+    float dt = (float) Game.dt();
+    Vector3f cameraPosition = camera.getPosition();
+    float cameraX = cameraPosition.x;
+    float cameraY = cameraPosition.y;
+    float cameraZ = cameraPosition.z;
+    for (ParticlePool pool : particles.values()) {
+      int count = pool.size();
+      if (count == 0) {
+        continue;
+      }
+      ranges.clear();
+      for (int from = 0; from < count; from += PARTICLES_PER_TASK) {
+        int start = from;
+        int end = Math.min(count, from + PARTICLES_PER_TASK);
+        ranges.add(
+            CompletableFuture.runAsync(
+                () -> pool.simulate(start, end, dt, cameraX, cameraY, cameraZ), workers));
+      }
+      // Removing and sorting needs the whole pool, it runs after the last range
+      updates.add(
+          CompletableFuture.allOf(ranges.toArray(new CompletableFuture[0]))
+              .thenRun(pool::finishUpdate));
+    }
+  }
+
+  /** Wait for the workers and add the particles that were emitted in the meantime. */
+  private static void finishUpdate() {
+    if (updates.isEmpty()) {
+      return;
+    }
+    // Waits for all, even if one of them failed, so no worker uses a pool after this
+    CompletableFuture<Void> all =
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture[0]));
+    updates.clear();
+    try {
+      all.join();
+    } finally {
+      for (ParticlePool pool : staged.values()) {
+        if (pool.size() > 0) {
+          particles.computeIfAbsent(pool.getTexture(), ParticlePool::new).addAll(pool);
         }
       }
-      InsertionSort.sortHighToLow(list);
     }
   }
 
   public static void renderParticles(Camera camera) {
-    renderer.render(particles, camera);
+    finishUpdate();
+    renderer.render(particles.values(), camera);
   }
 
   public static void cleanUp() {
+    finishUpdate();
+    workers.shutdown();
     renderer.cleanUp();
   }
 
   /**
-   * Add particle to list of its type or create a list if it is the first of its type.
-   *
-   * @param particle particle to add to a list
+   * Add a particle to the pool of its texture or create a pool if it is the first of its type.
+   * While the pools are updated, the particle is added after the update. Only called by the
+   * particle systems on the game thread, see {@link ParticlePool#add} for the parameters.
    */
-  static void addParticle(Particle particle) {
-    List<Particle> list = particles.computeIfAbsent(particle.getTexture(), k -> new ArrayList<>());
-    list.add(particle);
+  static void addParticle(
+      ParticleTexture texture,
+      Vector3f position,
+      Vector3f velocity,
+      float gravityEffect,
+      float lifeLength,
+      float rotation,
+      float scale) {
+    Map<ParticleTexture, ParticlePool> pools = updates.isEmpty() ? particles : staged;
+    pools
+        .computeIfAbsent(texture, ParticlePool::new)
+        .add(
+            position.x,
+            position.y,
+            position.z,
+            velocity.x,
+            velocity.y,
+            velocity.z,
+            gravityEffect,
+            lifeLength,
+            rotation,
+            scale);
   }
 
+  /** Remove all particles. The pools are kept for the next game. */
   public static void reset() {
-    particles.clear();
+    finishUpdate();
+    for (ParticlePool pool : particles.values()) {
+      pool.clear();
+    }
   }
 }
@@ -0,0 +1,354 @@
+package engine.particles;
+
+import entities.Player;
+import java.util.Arrays;
+
+/**
+ * All particles of one {@link ParticleTexture}. The state of the particles is stored in primitive
+ * arrays (one array per property, the particle is the index), so updating them is a tight loop and
+ * emitting or removing particles doesn't create objects. The arrays only grow, they are kept for
+ * the next particles when old particles expire.
+ *
+ * <p>Every particle is a quad that is always facing the camera and displaying a blending texture
+ * from a texture atlas or just a fixed texture. The blending goes through keyframes and is over the
+ * lifeLength of the particle.
+ */
+class ParticlePool {
+
+  private static final int INITIAL_CAPACITY = 256;
+  // Depth is quantized to 16 bits and sorted in two passes of 8 bits
+  private static final int KEY_RANGE = 1 << 16;
+  private static final int RADIX = 1 << 8;
+
+  private final ParticleTexture texture;
+  private int count;
+  private int capacity;
+
+  // Simulation, x/y/z of a particle are next to each other
+  private float[] positions;
+  private float[] velocities;
+  private float[] gravityEffects;
+  private float[] lifeLengths;
+  private float[] elapsedTimes;
+  // cos(rotation) * scale and sin(rotation) * scale, the rotation never changes
+  private float[] rotations;
+  private float[] scales;
+
+  // Results of the update for the renderer
+  private float[] distances;
+  // Offset of the two atlas stages the particle blends between, x1/y1/x2/y2
+  private float[] texOffsets;
+  private float[] blends;
+
+  // Indices of the particles, ordered from far to near, see sort()
+  private int[] order;
+  // Number of particles in order, particles after that were emitted since the last sort
+  private int ordered;
+  // Quantized depth of every particle and the order after the first pass of the sort
+  private int[] keys;
+  private int[] firstPass;
+  private final int[] bucketStarts = new int[RADIX];
+
+  ParticlePool(ParticleTexture texture) {
+    this.texture = texture;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Add a particle. Only called by the particle master.
+   *
+   * @param x initial x position in the world
+   * @param y initial y position in the world
+   * @param z initial z position in the world
+   * @param velocityX distance travelled in x direction per second
+   * @param velocityY distance travelled in y direction per second
+   * @param velocityZ distance travelled in z direction per second
+   * @param gravityEffect effect of the gravity constant. 0 means no gravity, negative numbers
+   *     mean negative gravity
+   * @param lifeLength duration before the particle is removed in seconds
+   * @param rotation rotation, perpendicular to the camera ray. In degrees from 0 to 360
+   * @param scale size of the particle
+   */
+  void add(
+      float x,
+      float y,
+      float z,
+      float velocityX,
+      float velocityY,
+      float velocityZ,
+      float gravityEffect,
+      float lifeLength,
+      float rotation,
+      float scale) {
+    if (count == capacity) {
+      allocate(capacity * 2);
+    }
+    int i = count;
+    positions[i * 3] = x;
+    positions[i * 3 + 1] = y;
+    positions[i * 3 + 2] = z;
+    velocities[i * 3] = velocityX;
+    velocities[i * 3 + 1] = velocityY;
+    velocities[i * 3 + 2] = velocityZ;
+    gravityEffects[i] = gravityEffect;
+    lifeLengths[i] = lifeLength;
+    elapsedTimes[i] = 0;
+    double radians = Math.toRadians(rotation);
+    rotations[i * 2] = (float) Math.cos(radians) * scale;
+    rotations[i * 2 + 1] = (float) Math.sin(radians) * scale;
+    scales[i] = scale;
+    // Not rendered before the first update
+    distances[i] = 0;
+    blends[i] = 0;
+    Arrays.fill(texOffsets, i * 4, i * 4 + 4, 0);
+    count++;
+  }
+
+  /**
+   * Move the particles along their direction, apply gravity and update the distance to the camera
+   * and the atlas stages. Then remove the expired particles and sort the rest.
+   *
+   * @param dt time since the last frame in seconds
+   * @param cameraX x position of the camera
+   * @param cameraY y position of the camera
+   * @param cameraZ z position of the camera
+   */
+  void update(float dt, float cameraX, float cameraY, float cameraZ) {
+    simulate(0, count, dt, cameraX, cameraY, cameraZ);
+    finishUpdate();
+  }
+
+  /**
+   * Update the particles from one index to another, see {@link #update}. Different ranges can be
+   * simulated at the same time, as long as no particles are added or removed meanwhile.
+   *
+   * @param from first index
+   * @param to index after the last one
+   */
+  void simulate(int from, int to, float dt, float cameraX, float cameraY, float cameraZ) {
+    int rows = texture.getNumberOfRows();
+    int stageCount = rows * rows;
+    float gravity = Player.gravity * dt;
+    for (int i = from; i < to; i++) {
+      int v = i * 3;
+      velocities[v + 1] += gravity * gravityEffects[i];
+      positions[v] += velocities[v] * dt;
+      positions[v + 1] += velocities[v + 1] * dt;
+      positions[v + 2] += velocities[v + 2] * dt;
+
+      // Not squared, so the quantized depth has the same precision near and far
+      float dx = cameraX - positions[v];
+      float dy = cameraY - positions[v + 1];
+      float dz = cameraZ - positions[v + 2];
+      distances[i] = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+      // The particle blends between two "frames" on the atlas, blend is the weight of the second
+      float atlasProgression = elapsedTimes[i] / lifeLengths[i] * stageCount;
+      int index1 = (int) atlasProgression;
+      int index2 = index1 < stageCount - 1 ? index1 + 1 : index1;
+      blends[i] = atlasProgression % 1;
+      texOffsets[i * 4] = (float) (index1 % rows) / rows;
+      texOffsets[i * 4 + 1] = (float) (index1 / rows) / rows;
+      texOffsets[i * 4 + 2] = (float) (index2 % rows) / rows;
+      texOffsets[i * 4 + 3] = (float) (index2 / rows) / rows;
+
+      elapsedTimes[i] += dt;
+    }
+  }
+
+  /** Remove the expired particles and sort the rest, after all particles were simulated. */
+  void finishUpdate() {
+    removeExpired();
+    sort();
+  }
+
+  /**
+   * Move all particles of another pool to this pool. Used for particles that are emitted while the
+   * pool is simulated.
+   *
+   * @param other pool with the new particles, it is empty afterwards
+   */
+  void addAll(ParticlePool other) {
+    while (count + other.count > capacity) {
+      allocate(capacity * 2);
+    }
+    int n = other.count;
+    System.arraycopy(other.positions, 0, positions, count * 3, n * 3);
+    System.arraycopy(other.velocities, 0, velocities, count * 3, n * 3);
+    System.arraycopy(other.gravityEffects, 0, gravityEffects, count, n);
+    System.arraycopy(other.lifeLengths, 0, lifeLengths, count, n);
+    System.arraycopy(other.elapsedTimes, 0, elapsedTimes, count, n);
+    System.arraycopy(other.rotations, 0, rotations, count * 2, n * 2);
+    System.arraycopy(other.scales, 0, scales, count, n);
+    System.arraycopy(other.distances, 0, distances, count, n);
+    System.arraycopy(other.texOffsets, 0, texOffsets, count * 4, n * 4);
+    System.arraycopy(other.blends, 0, blends, count, n);
+    count += n;
+    other.clear();
+  }
+
+  /** Remove the expired particles. The other particles keep their order. */
+  private void removeExpired() {
+    int alive = 0;
+    for (int i = 0; i < count; i++) {
+      if (elapsedTimes[i] >= lifeLengths[i]) {
+        continue;
+      }
+      if (alive != i) {
+        move(i, alive);
+      }
+      alive++;
+    }
+    count = alive;
+    ordered = alive;
+  }
+
+  /**
+   * Order the particles by the distance from the camera so the near particles are rendered on top
+   * of the far ones. Additive blending gives the same result in any order, so these particles are
+   * not sorted at all.
+   *
+   * <p>The distance is quantized to 16 bits between the nearest and the farthest particle. The keys
+   * are sorted with a radix sort in two passes of 8 bits, so the cost is linear in the number of
+   * particles, no matter how unordered new particles are.
+   */
+  private void sort() {
+    if (texture.isAdditive()) {
+      for (int i = 0; i < ordered; i++) {
+        order[i] = i;
+      }
+      return;
+    }
+    float min = Float.POSITIVE_INFINITY;
+    float max = Float.NEGATIVE_INFINITY;
+    for (int i = 0; i < ordered; i++) {
+      min = Math.min(min, distances[i]);
+      max = Math.max(max, distances[i]);
+    }
+    float scale = max > min ? (KEY_RANGE - 1) / (max - min) : 0;
+    for (int i = 0; i < ordered; i++) {
+      // Far particles get the small keys
+      keys[i] = (int) ((max - distances[i]) * scale);
+    }
+    // Both passes are stable, so the low byte order is kept for equal high bytes
+    countingPass(null, firstPass, 0);
+    countingPass(firstPass, order, 8);
+  }
+
+  /**
+   * Sort particle indices by one byte of their key.
+   *
+   * @param from indices to sort, null for 0 to ordered
+   * @param to sorted indices
+   * @param shift position of the byte in the key
+   */
+  private void countingPass(int[] from, int[] to, int shift) {
+    Arrays.fill(bucketStarts, 0);
+    for (int i = 0; i < ordered; i++) {
+      bucketStarts[(keys[i] >>> shift) & (RADIX - 1)]++;
+    }
+    int start = 0;
+    for (int bucket = 0; bucket < RADIX; bucket++) {
+      int size = bucketStarts[bucket];
+      bucketStarts[bucket] = start;
+      start += size;
+    }
+    for (int k = 0; k < ordered; k++) {
+      int index = from == null ? k : from[k];
+      to[bucketStarts[(keys[index] >>> shift) & (RADIX - 1)]++] = index;
+    }
+  }
+
+  private void move(int from, int to) {
+    System.arraycopy(positions, from * 3, positions, to * 3, 3);
+    System.arraycopy(velocities, from * 3, velocities, to * 3, 3);
+    gravityEffects[to] = gravityEffects[from];
+    lifeLengths[to] = lifeLengths[from];
+    elapsedTimes[to] = elapsedTimes[from];
+    rotations[to * 2] = rotations[from * 2];
+    rotations[to * 2 + 1] = rotations[from * 2 + 1];
+    scales[to] = scales[from];
+    distances[to] = distances[from];
+    System.arraycopy(texOffsets, from * 4, texOffsets, to * 4, 4);
+    blends[to] = blends[from];
+  }
+
+  private void allocate(int newCapacity) {
+    capacity = newCapacity;
+    positions = grow(positions, newCapacity * 3);
+    velocities = grow(velocities, newCapacity * 3);
+    gravityEffects = grow(gravityEffects, newCapacity);
+    lifeLengths = grow(lifeLengths, newCapacity);
+    elapsedTimes = grow(elapsedTimes, newCapacity);
+    rotations = grow(rotations, newCapacity * 2);
+    scales = grow(scales, newCapacity);
+    distances = grow(distances, newCapacity);
+    texOffsets = grow(texOffsets, newCapacity * 4);
+    blends = grow(blends, newCapacity);
+    order = order == null ? new int[newCapacity] : Arrays.copyOf(order, newCapacity);
+    keys = new int[newCapacity];
+    firstPass = new int[newCapacity];
+  }
+
+  private static float[] grow(float[] array, int length) {
+    return array == null ? new float[length] : Arrays.copyOf(array, length);
+  }
+
+  /** Remove all particles, the arrays are kept. */
+  void clear() {
+    count = 0;
+    ordered = 0;
+  }
+
+  ParticleTexture getTexture() {
+    return texture;
+  }
+
+  /**
+   * Get the number of particles.
+   *
+   * @return number of particles that are alive
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * Get the number of particles that can be rendered. Particles that were emitted after the last
+   * update are rendered from the next frame on.
+   *
+   * @return number of particles in {@link #getOrder()}
+   */
+  int getOrderedCount() {
+    return ordered;
+  }
+
+  /**
+   * Get the indices of the particles ordered from the farthest to the nearest.
+   *
+   * @return indices, only the first {@link #getOrderedCount()} are valid
+   */
+  int[] getOrder() {
+    return order;
+  }
+
+  float[] getPositions() {
+    return positions;
+  }
+
+  float[] getRotations() {
+    return rotations;
+  }
+
+  float[] getScales() {
+    return scales;
+  }
+
+  float[] getTexOffsets() {
+    return texOffsets;
+  }
+
+  float[] getBlends() {
+    return blends;
+  }
+}
@@ -3,23 +3,33 @@ package engine.particles;
 import engine.models.RawModel;
 import engine.render.Loader;
 import entities.Camera;
-import java.util.List;
-import java.util.Map;
+import java.nio.FloatBuffer;
+import java.util.Collection;
 import org.joml.Matrix4f;
-import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
 import util.Maths;
 
+/**
+ * Renders the particles. All particles of a texture are drawn with one instanced draw call, the
+ * model view matrix and the atlas stages of every particle are streamed to an instance buffer.
+ */
 public class ParticleRenderer {
 
   // A simple quad
   private static final float[] VERTICES = {-0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f, -0.5f};
+  // Model view matrix (16), texture offsets (4) and blend (1)
+  private static final int INSTANCE_DATA_LENGTH = 21;
 
   private final RawModel quad;
   private final ParticleShader shader;
+  private final Loader loader;
+  private final int instanceVbo;
+  private FloatBuffer instanceData = BufferUtils.createFloatBuffer(INSTANCE_DATA_LENGTH * 1024);
 
   /**
    * Is used by the Particle Master to render particles.
@@ -28,7 +38,16 @@ public class ParticleRenderer {
    * @param projectionMatrix projection matrix for shader
    */
   ParticleRenderer(Loader loader, Matrix4f projectionMatrix) {
+    this.loader = loader;
     quad = loader.loadToVao(VERTICES); // Generate the raw model with the quad vertices
+    instanceVbo = loader.createEmptyVbo();
+    // Matrix in four columns, then the texture offsets and the blend factor
+    for (int i = 0; i < 4; i++) {
+      loader.addInstancedAttribute(
+          quad.getVaoId(), instanceVbo, 1 + i, 4, INSTANCE_DATA_LENGTH, i * 4);
+    }
+    loader.addInstancedAttribute(quad.getVaoId(), instanceVbo, 5, 4, INSTANCE_DATA_LENGTH, 16);
+    loader.addInstancedAttribute(quad.getVaoId(), instanceVbo, 6, 1, INSTANCE_DATA_LENGTH, 20);
     shader = new ParticleShader();
     shader.start();
     shader.loadProjectionMatrix(projectionMatrix); // This doesnt change
@@ -38,18 +57,22 @@ public class ParticleRenderer {
   /**
    * Render all particles. Called from the Particle Master only!
    *
-   * @param particles particles to render, lists by texture
+   * @param pools particles to render, one pool per texture
    * @param camera active camera for view matrix
    */
-  protected void render(Map<ParticleTexture, List<Particle>> particles, Camera camera) {
-    if (particles.size() == 0) {
+  void render(Collection<ParticlePool> pools, Camera camera) {
+    if (pools.isEmpty()) {
       return;
     }
     Matrix4f viewMatrix = Maths.createViewMatrix(camera);
     prepare();
-    for (ParticleTexture particleTexture : particles.keySet()) {
-      // Loop over particle types and check if we want additive blending or not (on a type per
-      // type basis)
+    for (ParticlePool pool : pools) {
+      int count = pool.getOrderedCount();
+      if (count == 0) {
+        continue;
+      }
+      // Check if we want additive blending or not (on a type per type basis)
+      ParticleTexture particleTexture = pool.getTexture();
       if (particleTexture.isAdditive()) {
         GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
       } else {
@@ -58,24 +81,10 @@ public class ParticleRenderer {
       // Bind Texture
       GL13.glActiveTexture(GL13.GL_TEXTURE0);
       GL11.glBindTexture(GL11.GL_TEXTURE_2D, particleTexture.getTextureId());
-      for (Particle particle : particles.get(particleTexture)) {
-        // Rotate the particle to face the camera
-        updateModelViewMatrix(
-            particle.getPosition(),
-            particle.getRotation(),
-            particle.getScale(),
-            new Matrix4f().set(viewMatrix)); // new().set() to avoid changing the viewMatrix itself.
+      shader.loadNumberOfRows(particleTexture.getNumberOfRows());
 
-        // Pass information to the shaders
-        shader.loadTextureCoordInfo(
-            particle.getTexOffset1(),
-            particle.getTexOffset2(),
-            particleTexture.getNumberOfRows(),
-            particle.getBlend());
-
-        // Draw the actual particle
-        GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, quad.getVertexCount());
-      }
+      loadInstances(pool, count, viewMatrix);
+      GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, quad.getVertexCount(), count);
     }
     finishRendering();
   }
@@ -84,43 +93,58 @@ public class ParticleRenderer {
     shader.cleanUp();
   }
 
-  /*
-   * This calculation needs to be done for every particle in every frame and is currently done
-   * all on the CPU.
-   * TODO: It might be more effective to move (part of) this onto the shader?
-   * If we ever run into performance problems, this is one of the functions we can probably
-   * optimize, but I want to
-   * avoid spending too much time on premature optimization.
+  /**
+   * Write the model view matrix and the atlas stages of the particles to the instance buffer, from
+   * the farthest to the nearest particle.
+   *
+   * <p>The particle always faces the camera: The rotation of the view matrix is cancelled by the
+   * model matrix, so the model view matrix is just the rotation of the particle around the camera
+   * ray, the scale and the particle position in view space.
    */
-  private void updateModelViewMatrix(
-      Vector3f position, float rotation, float scale, Matrix4f viewMatrix) {
-    Matrix4f modelMatrix = new Matrix4f().translate(position);
-
-    // Cancel rotation
-    modelMatrix._m00(viewMatrix.m00());
-    modelMatrix._m01(viewMatrix.m10());
-    modelMatrix._m02(viewMatrix.m20());
-    modelMatrix._m10(viewMatrix.m01());
-    modelMatrix._m11(viewMatrix.m11());
-    modelMatrix._m12(viewMatrix.m21());
-    modelMatrix._m20(viewMatrix.m02());
-    modelMatrix._m21(viewMatrix.m12());
-    modelMatrix._m22(viewMatrix.m22());
-
-    // New Rotation
-    modelMatrix.rotateZ((float) Math.toRadians(rotation)).scale(scale);
-
-    // This command here would probably be best to move onto a shader
-    Matrix4f modelViewMatrix = viewMatrix.mul(modelMatrix);
-
-    // Pass the newly calculated view * model matrix to the shader
-    shader.loadModelViewMatrix(modelViewMatrix);
+  private void loadInstances(ParticlePool pool, int count, Matrix4f view) {
+    if (instanceData.capacity() < count * INSTANCE_DATA_LENGTH) {
+      instanceData = BufferUtils.createFloatBuffer(count * INSTANCE_DATA_LENGTH * 2);
+    }
+    instanceData.clear();
+    int[] order = pool.getOrder();
+    float[] positions = pool.getPositions();
+    float[] rotations = pool.getRotations();
+    float[] scales = pool.getScales();
+    float[] texOffsets = pool.getTexOffsets();
+    float[] blends = pool.getBlends();
+    for (int k = 0; k < count; k++) {
+      int i = order[k];
+      float x = positions[i * 3];
+      float y = positions[i * 3 + 1];
+      float z = positions[i * 3 + 2];
+      float cos = rotations[i * 2];
+      float sin = rotations[i * 2 + 1];
+      // Column major
+      instanceData.put(cos).put(sin).put(0).put(0);
+      instanceData.put(-sin).put(cos).put(0).put(0);
+      instanceData.put(0).put(0).put(scales[i]).put(0);
+      instanceData
+          .put(view.m00() * x + view.m10() * y + view.m20() * z + view.m30())
+          .put(view.m01() * x + view.m11() * y + view.m21() * z + view.m31())
+          .put(view.m02() * x + view.m12() * y + view.m22() * z + view.m32())
+          .put(1);
+      instanceData
+          .put(texOffsets[i * 4])
+          .put(texOffsets[i * 4 + 1])
+          .put(texOffsets[i * 4 + 2])
+          .put(texOffsets[i * 4 + 3]);
+      instanceData.put(blends[i]);
+    }
+    instanceData.flip();
+    loader.updateVbo(instanceVbo, instanceData);
   }
 
   private void prepare() {
     shader.start();
     GL30.glBindVertexArray(quad.getVaoId());
-    GL20.glEnableVertexAttribArray(0);
+    for (int i = 0; i < 7; i++) {
+      GL20.glEnableVertexAttribArray(i);
+    }
     GL11.glEnable(GL11.GL_BLEND);
     GL11.glDepthMask(false); // Turn of DepthMask or we get artifacts when rendering
   }
@@ -128,7 +152,10 @@ public class ParticleRenderer {
   private void finishRendering() {
     GL11.glDepthMask(true); // Turn DepthMask back on
     GL11.glDisable(GL11.GL_BLEND);
-    GL20.glDisableVertexAttribArray(0);
+    for (int i = 0; i < 7; i++) {
+      GL20.glDisableVertexAttribArray(i);
+    }
+    GL30.glBindVertexArray(0);
     shader.stop();
   }
 }
@@ -1,8 +1,6 @@
 package engine.particles;
 
 import game.Game;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -35,6 +33,11 @@ public class ParticleSystem {
   // private float rotationDeviation = 0; //TODO (Matthias): Add some rotation noise
   private float directionDeviation = 0;
   private Vector3f rotationAxis;
+  // Reused for every emitted particle, the particle master copies the values
+  private final Vector3f velocity = new Vector3f();
+  private final Vector3f coneAxis = new Vector3f();
+  private final Vector4f coneVector = new Vector4f();
+  private final Matrix4f coneRotation = new Matrix4f();
 
   /**
    * Create a new Particle System. Can specify various settings for how the particles behave.
@@ -63,42 +66,36 @@ public class ParticleSystem {
   }
 
   /**
-   * Returns a direction vector randomized over a plane area (rotate direction vector around axis by
-   * a random theta).
+   * Randomize a direction vector over a plane area (rotate direction vector around axis by a
+   * random theta).
    */
-  private static Vector3f generateRandomUnitVectorWithinPlane(Vector3f direction, Vector3f axis) {
-
-    Random random = new Random();
+  private void randomizeWithinPlane(Vector3f direction, Vector3f axis) {
     float theta = (float) (random.nextFloat() * 2f * Math.PI);
-
-    return new Vector3f().set(direction).rotateAxis(theta, axis.x, axis.y, axis.z);
+    direction.rotateAxis(theta, axis.x, axis.y, axis.z);
   }
 
-  /** Returns a direction vector randomized over a cone area. */
-  private static Vector3f generateRandomUnitVectorWithinCone(Vector3f coneDirection, float angle) {
+  /** Set dest to a direction vector randomized over a cone area. */
+  private void generateRandomUnitVectorWithinCone(
+      Vector3f coneDirection, float angle, Vector3f dest) {
     float cosAngle = (float) Math.cos(angle);
-    Random random = new Random();
     float theta = (float) (random.nextFloat() * 2f * Math.PI);
     float z = cosAngle + (random.nextFloat() * (1 - cosAngle));
     float rootOneMinusZSquared = (float) Math.sqrt(1 - z * z);
     float x = (float) (rootOneMinusZSquared * Math.cos(theta));
     float y = (float) (rootOneMinusZSquared * Math.sin(theta));
 
-    Vector4f direction = new Vector4f(x, y, z, 1);
+    Vector4f direction = coneVector.set(x, y, z, 1);
     if (coneDirection.x != 0
         || coneDirection.y != 0
         || (coneDirection.z != 1 && coneDirection.z != -1)) {
-      Vector3f rotateAxis =
-          new Vector3f().set(coneDirection).cross(new Vector3f(0, 0, 1)).normalize();
-
-      float rotateAngle =
-          (float) Math.acos(new Vector3f().set(coneDirection).dot(new Vector3f(0, 0, 1)));
-      Matrix4f rotationMatrix = new Matrix4f();
-      rotationMatrix.rotate(-rotateAngle, rotateAxis).transform(direction);
+      // Rotation from the z axis to the cone direction
+      Vector3f rotateAxis = coneAxis.set(coneDirection).cross(0, 0, 1).normalize();
+      float rotateAngle = (float) Math.acos(coneDirection.z);
+      coneRotation.rotation(-rotateAngle, rotateAxis).transform(direction);
     } else if (coneDirection.z == -1) {
       direction.z *= -1;
     }
-    return new Vector3f(direction.x, direction.y, direction.z);
+    dest.set(direction.x, direction.y, direction.z);
   }
 
   /**
@@ -158,15 +155,14 @@ public class ParticleSystem {
   }
 
   /**
-   * Emits and returns a list of these particles. Length of list will not be constant since it is
-   * scaled with time delta
+   * Emits these particles. The number of particles will not be constant since it is scaled with
+   * time delta
    *
    * @param systemCenter position of emittance
-   * @return list of particles emitted with this call (if you need more control)
+   * @return number of particles emitted with this call
    */
   @SuppressWarnings("UnusedReturnValue")
-  public List<Particle> generateParticles(Vector3f systemCenter) {
-    List<Particle> particles = new ArrayList<>();
+  public int generateParticles(Vector3f systemCenter) {
     float delta = (float) Game.dt();
     float particlesToCreate = pps * delta;
 
@@ -175,43 +171,36 @@ public class ParticleSystem {
 
     // Chance to create another particle
     float partialParticle = particlesToCreate % 1;
+    if (random.nextFloat() < partialParticle) {
+      // Chance equal to fraction of particle
+      count++;
+    }
 
     for (int i = 0; i < count; i++) {
-      particles.add(emitParticle(systemCenter));
-    }
-    if (Math.random() < partialParticle) {
-      // Chance equal to fraction of particle
-      particles.add(emitParticle(systemCenter));
+      emitParticle(systemCenter);
     }
-    return particles;
+    return count;
   }
 
-  private Particle emitParticle(Vector3f center) {
-    Vector3f velocity;
+  private void emitParticle(Vector3f center) {
     if (direction != null) {
       // Cone style random vectors
-      velocity = generateRandomUnitVectorWithinCone(direction, directionDeviation);
+      generateRandomUnitVectorWithinCone(direction, directionDeviation, velocity);
 
       if (rotationAxis != null) {
         // Random in a plane described by direction
-        velocity = generateRandomUnitVectorWithinPlane(velocity, rotationAxis);
+        randomizeWithinPlane(velocity, rotationAxis);
       }
     } else {
       // Completely random vectors
-      velocity = generateRandomUnitVector();
+      generateRandomUnitVector(velocity);
     }
     velocity.normalize();
     velocity.mul(generateValue(averageSpeed, speedError));
     float scale = generateValue(averageScale, scaleError);
     float lifeLength = generateValue(averageLifeLength, lifeError);
-    return new Particle(
-        texture,
-        new Vector3f(center),
-        velocity,
-        gravityComplient,
-        lifeLength,
-        generateRotation(),
-        scale);
+    ParticleMaster.addParticle(
+        texture, center, velocity, gravityComplient, lifeLength, generateRotation(), scale);
   }
 
   private float generateValue(float average, float errorMargin) {
@@ -227,12 +216,12 @@ public class ParticleSystem {
     }
   }
 
-  private Vector3f generateRandomUnitVector() {
+  private void generateRandomUnitVector(Vector3f dest) {
     float theta = (float) (random.nextFloat() * 2f * Math.PI);
     float z = (random.nextFloat() * 2) - 1;
     float rootOneMinusZSquared = (float) Math.sqrt(1 - z * z);
     float x = (float) (rootOneMinusZSquared * Math.cos(theta));
     float y = (float) (rootOneMinusZSquared * Math.sin(theta));
-    return new Vector3f(x, y, z);
+    dest.set(x, y, z);
   }
 }
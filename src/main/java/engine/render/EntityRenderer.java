@@ -7,18 +7,20 @@ import static org.lwjgl.opengl.GL20.GL_UNSIGNED_INT;
 import static org.lwjgl.opengl.GL20.glActiveTexture;
 import static org.lwjgl.opengl.GL20.glBindTexture;
 import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glDrawElements;
 import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
 
 import engine.models.RawModel;
 import engine.models.TexturedModel;
 import engine.shaders.StaticShader;
 import engine.textures.ModelTexture;
 import entities.Entity;
+import java.nio.FloatBuffer;
 import java.util.List;
 import java.util.Map;
 import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
 import util.Maths;
 
 /**
@@ -26,10 +28,20 @@ import util.Maths;
  *
  * <p>Gets a list of entities from the Master renderer that is pre-processed and with the general
  * openGL settings correctly enabled. This class does the rest required to render the entities.
+ *
+ * <p>All entities of a model are drawn with one instanced draw call. The transformation matrix and
+ * the texture atlas offset of every entity are streamed to an instance buffer of the model every
+ * frame.
  */
 public class EntityRenderer {
 
+  // Transformation matrix (16) and texture offset (2)
+  private static final int INSTANCE_DATA_LENGTH = 18;
+
   private final StaticShader shader;
+  private final Loader loader;
+  private final Matrix4f transformationMatrix = new Matrix4f();
+  private FloatBuffer instanceData = BufferUtils.createFloatBuffer(INSTANCE_DATA_LENGTH * 1024);
 
   /**
    * This is called form the master renderer. Passes correct shader and projection matrix for the
@@ -37,31 +49,37 @@ public class EntityRenderer {
    *
    * @param shader Terrain Shader
    * @param projectionMatrix matrix for shader
+   * @param loader main loader, creates the instance buffers
    */
-  EntityRenderer(StaticShader shader, Matrix4f projectionMatrix) {
+  EntityRenderer(StaticShader shader, Matrix4f projectionMatrix, Loader loader) {
     this.shader = shader;
+    this.loader = loader;
     shader.start();
     shader.loadProjectionMatrix(projectionMatrix);
     shader.stop();
   }
 
   /**
-   * Renders entities by model. Will prepare a model, then render all entities of that model, then
-   * load the next model. This is standard optimization so we have to load each model only once.
+   * Renders entities by model. Will prepare a model, then render all entities of that model in one
+   * draw call, then load the next model.
    *
    * @param entities A map that has a list of entities for each model
    */
   public void render(Map<TexturedModel, List<Entity>> entities) {
     for (TexturedModel texturedModel : entities.keySet()) {
-      // Loop through models and prepare the model
-      prepareTexturedModels(texturedModel);
       List<Entity> batch = entities.get(texturedModel);
-      for (Entity entity : batch) {
-        // Loop through entities of that model and render them
-        prepareInstance(entity);
-        glDrawElements(
-            GL_TRIANGLES, texturedModel.getRawModel().getVertexCount(), GL_UNSIGNED_INT, 0);
+      if (batch.isEmpty()) {
+        continue;
       }
+      // Loop through models and prepare the model
+      prepareTexturedModels(texturedModel);
+      loadInstances(texturedModel.getRawModel(), batch);
+      glDrawElementsInstanced(
+          GL_TRIANGLES,
+          texturedModel.getRawModel().getVertexCount(),
+          GL_UNSIGNED_INT,
+          0,
+          batch.size());
       unbindTexturedModel(); // Unbind model
     }
   }
@@ -80,6 +98,9 @@ public class EntityRenderer {
     glEnableVertexAttribArray(0);
     glEnableVertexAttribArray(1);
     glEnableVertexAttribArray(2);
+    for (int i = 3; i < 8; i++) {
+      glEnableVertexAttribArray(i);
+    }
     ModelTexture texture = model.getTexture();
     shader.loadNumberOfRows(texture.getNumberOfRows());
     if (texture.isHasTransparency()) {
@@ -97,24 +118,64 @@ public class EntityRenderer {
     glDisableVertexAttribArray(0);
     glDisableVertexAttribArray(1);
     glDisableVertexAttribArray(2);
+    for (int i = 3; i < 8; i++) {
+      glDisableVertexAttribArray(i);
+    }
     glBindVertexArray(0);
   }
 
   /**
-   * Load entity specific variables to the shader. These values are different for each individual
-   * entity.
+   * Write the entity specific variables of all entities to the instance buffer of the model. These
+   * values are different for each individual entity.
    *
-   * @param entity the entity to render
+   * @param rawModel model of the entities
+   * @param batch entities to render
    */
-  private void prepareInstance(Entity entity) {
-    Matrix4f transformationMatrix =
-        Maths.createTransformationMatrix(
-            entity.getPosition(),
-            entity.getRotX(),
-            entity.getRotY(),
-            entity.getRotZ(),
-            entity.getScale());
-    shader.loadTransformationMatrix(transformationMatrix);
-    shader.loadOffset(entity.getTextureXOffset(), entity.getTextureYOffset());
+  private void loadInstances(RawModel rawModel, List<Entity> batch) {
+    if (instanceData.capacity() < batch.size() * INSTANCE_DATA_LENGTH) {
+      instanceData = BufferUtils.createFloatBuffer(batch.size() * INSTANCE_DATA_LENGTH * 2);
+    }
+    instanceData.clear();
+    int index = 0;
+    for (Entity entity : batch) {
+      Maths.createTransformationMatrix(
+          entity.getPosition(),
+          entity.getRotX(),
+          entity.getRotY(),
+          entity.getRotZ(),
+          entity.getScale(),
+          transformationMatrix);
+      transformationMatrix.get(index, instanceData);
+      instanceData.put(index + 16, entity.getTextureXOffset());
+      instanceData.put(index + 17, entity.getTextureYOffset());
+      index += INSTANCE_DATA_LENGTH;
+    }
+    instanceData.limit(index);
+    loader.updateVbo(getInstanceVbo(rawModel), instanceData);
+  }
+
+  /**
+   * Get the instance buffer of a model. Creates the buffer and adds the instance attributes to the
+   * model the first time. The buffer belongs to the model and is deleted with it, see {@link
+   * Loader#deleteModel(RawModel)}.
+   *
+   * @param rawModel model to get the buffer for
+   * @return ID of the instance buffer
+   */
+  private int getInstanceVbo(RawModel rawModel) {
+    int vboId = rawModel.getInstanceVbo();
+    if (vboId == 0) {
+      vboId = loader.createEmptyVbo();
+      // Matrix in four columns, then the texture offset
+      for (int i = 0; i < 4; i++) {
+        loader.addInstancedAttribute(
+            rawModel.getVaoId(), vboId, 3 + i, 4, INSTANCE_DATA_LENGTH, i * 4);
+      }
+      loader.addInstancedAttribute(rawModel.getVaoId(), vboId, 7, 2, INSTANCE_DATA_LENGTH, 16);
+      rawModel.setInstanceVbo(vboId);
+      // Adding the attributes unbinds the model
+      glBindVertexArray(rawModel.getVaoId());
+    }
+    return vboId;
   }
 }
@@ -23,11 +23,14 @@ import game.map.ClientMap;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL33;
 
 /**
  * Loads models and textures into Vertex Array Objects and Textures into Buffers
@@ -48,6 +51,8 @@ public class Loader {
   private final List<Integer> vaos = new ArrayList<>();
   private final List<Integer> vbos = new ArrayList<>();
   private final List<Integer> textures = new ArrayList<>();
+  // Buffers of the models that can be deleted before the game is closed, by VAO
+  private final Map<Integer, int[]> temporaryBuffers = new HashMap<>();
 
   /**
    * Load simple geometric figures.
@@ -104,6 +109,55 @@ public class Loader {
     return new RawModel(vaoId, indices.length);
   }
 
+  /**
+   * Load a model that is replaced while the game is running, e.g. the merged blocks of a chunk.
+   * Unlike the other models, it can be deleted with {@link #deleteModel(RawModel)}.
+   *
+   * @param positions Vertices
+   * @param textureCoords TextureCoords
+   * @param normals Normal vectors
+   * @param indices Indices (Order/Combination of V/T/N)
+   * @return Raw Model that holds the VAO ID
+   */
+  public RawModel loadToTemporaryVao(
+      float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+    final int vaoId = createVao();
+    int[] buffers = {
+      bindIndicesBuffer(indices),
+      storeDataInAttributeList(0, 3, positions),
+      storeDataInAttributeList(1, 2, textureCoords),
+      storeDataInAttributeList(2, 3, normals)
+    };
+    unbindVao();
+    temporaryBuffers.put(vaoId, buffers);
+    return new RawModel(vaoId, indices.length);
+  }
+
+  /**
+   * Delete a model that was loaded with {@link #loadToTemporaryVao(float[], float[], float[],
+   * int[])} and free its memory, including the instance buffer of the renderer. Other models are
+   * kept until the game is closed.
+   *
+   * @param model model to delete
+   */
+  public void deleteModel(RawModel model) {
+    int[] buffers = temporaryBuffers.remove(model.getVaoId());
+    if (buffers == null) {
+      return;
+    }
+    glDeleteVertexArrays(model.getVaoId());
+    vaos.remove((Integer) model.getVaoId());
+    for (int vbo : buffers) {
+      GL15.glDeleteBuffers(vbo);
+      vbos.remove((Integer) vbo);
+    }
+    if (model.getInstanceVbo() != 0) {
+      GL15.glDeleteBuffers(model.getInstanceVbo());
+      vbos.remove((Integer) model.getInstanceVbo());
+      model.setInstanceVbo(0);
+    }
+  }
+
   /**
    * Shorter Constructor for models from the obj loader. Should use this for pretty much all normal
    * 3D models.
@@ -218,6 +272,53 @@ public class Loader {
     return textureId;
   }
 
+  /**
+   * Create an empty buffer for data that changes every frame, e.g. the data of instances. The data
+   * is loaded with {@link #updateVbo(int, FloatBuffer)}.
+   *
+   * @return ID of the buffer
+   */
+  public int createEmptyVbo() {
+    int vboId = GL15.glGenBuffers();
+    vbos.add(vboId);
+    return vboId;
+  }
+
+  /**
+   * Add an attribute that changes per instance instead of per vertex to a model. The data of all
+   * instances is stored one after another in the buffer.
+   *
+   * @param vaoId model to add the attribute to
+   * @param vboId buffer with the data of the instances, see {@link #createEmptyVbo()}
+   * @param attribute attribute number
+   * @param dataSize number of floats of the attribute (at most 4)
+   * @param instancedDataLength number of floats per instance
+   * @param offset number of floats in front of the attribute in the data of an instance
+   */
+  public void addInstancedAttribute(
+      int vaoId, int vboId, int attribute, int dataSize, int instancedDataLength, int offset) {
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+    glBindVertexArray(vaoId);
+    GL20.glVertexAttribPointer(
+        attribute, dataSize, GL_FLOAT, false, instancedDataLength * 4, offset * 4);
+    GL33.glVertexAttribDivisor(attribute, 1);
+    glBindVertexArray(0);
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+  }
+
+  /**
+   * Replace the data of a buffer. The old data is orphaned, so this doesn't wait for draw calls
+   * that still use it.
+   *
+   * @param vboId buffer to update
+   * @param buffer new data, from position to limit
+   */
+  public void updateVbo(int vboId, FloatBuffer buffer) {
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+    GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STREAM_DRAW);
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+  }
+
   /** Delete Vertex Arrays, Buffers and Textures when the game is closed. (Clean up memory) */
   public void cleanUp() {
     for (int vao : vaos) {
@@ -245,8 +346,9 @@ public class Loader {
    * @param attributeNumber slot
    * @param coordinateSize dim
    * @param data one type of model data (vertices, normals or texture coords)
+   * @return ID of the buffer
    */
-  private void storeDataInAttributeList(int attributeNumber, int coordinateSize, float[] data) {
+  private int storeDataInAttributeList(int attributeNumber, int coordinateSize, float[] data) {
     int vboId = GL15.glGenBuffers();
     vbos.add(vboId);
     GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
@@ -254,6 +356,7 @@ public class Loader {
     GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
     GL20.glVertexAttribPointer(attributeNumber, coordinateSize, GL_FLOAT, false, 0, 0);
     GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    return vboId;
   }
 
   private void unbindVao() {
@@ -264,13 +367,15 @@ public class Loader {
    * Load indices separately into an openGL buffer.
    *
    * @param indices indices for 3D model
+   * @return ID of the buffer
    */
-  private void bindIndicesBuffer(int[] indices) {
+  private int bindIndicesBuffer(int[] indices) {
     int vboId = GL15.glGenBuffers();
     vbos.add(vboId);
     GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vboId);
     IntBuffer buffer = storeDataInIntBuffer(indices);
     GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+    return vboId;
   }
 
   /**
@@ -13,15 +13,18 @@ import engine.shaders.StaticShader;
 import engine.shaders.TerrainShader;
 import entities.Camera;
 import entities.Entity;
+import entities.collision.BoundingBox;
 import entities.light.Light;
 import game.Game;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.GL11;
 import terrains.TerrainFlat;
+import util.Maths;
 
 /**
  * Is master over general render settings. -(static) projection matrix - FOV - Sight distance - Sky
@@ -30,6 +33,9 @@ import terrains.TerrainFlat;
  * <p>Collects items to render, starts/stops shaders, loads some variables to shaders and passes
  * priority to - Entity renderer - Terrain renderer TODO: Include control flow for Gui and Particle
  * renderers here
+ *
+ * <p>Entities and terrains outside of the view frustum of the camera are not rendered, see {@link
+ * #updateFrustum(Camera)}.
  */
 public class MasterRenderer {
 
@@ -52,13 +58,27 @@ public class MasterRenderer {
   private final Map<TexturedModel, List<Entity>> entities = new HashMap<>();
   private final List<TerrainFlat> terrains = new ArrayList<>();
 
-  /** Initialize Master renderer. Only needs to be once at the start. */
-  public MasterRenderer() {
+  // View frustum culling
+  private final FrustumIntersection frustum = new FrustumIntersection();
+  private final Matrix4f projectionViewMatrix = new Matrix4f();
+  private boolean frustumSet;
+  private int culledEntities;
+  private int culledTerrains;
+  private int lastCulledEntities;
+  private int lastCulledTerrains;
+  private int lastRenderedEntities;
+
+  /**
+   * Initialize Master renderer. Only needs to be once at the start.
+   *
+   * @param loader main loader, used for the instance buffers of the entities
+   */
+  public MasterRenderer(Loader loader) {
     enableCulling(); // Don't render the "backside" of objects that we can't see
     createProjectionMatrix();
 
     staticShader = new StaticShader();
-    entityRenderer = new EntityRenderer(staticShader, projectionMatrix);
+    entityRenderer = new EntityRenderer(staticShader, projectionMatrix, loader);
 
     terrainShader = new TerrainShader();
     terrainRenderer = new TerrainRenderer(terrainShader, projectionMatrix);
@@ -105,6 +125,37 @@ public class MasterRenderer {
     return new Matrix4f(projectionMatrix);
   }
 
+  /**
+   * Compute the view frustum of the camera for this frame. Call this before processing the
+   * entities and terrains of the frame, everything that lies completely outside of the frustum is
+   * skipped. Without a frustum, everything is rendered.
+   *
+   * @param camera active camera, the same that is passed to render
+   */
+  public void updateFrustum(Camera camera) {
+    projectionMatrix.mul(Maths.createViewMatrix(camera), projectionViewMatrix);
+    frustum.set(projectionViewMatrix);
+    frustumSet = true;
+  }
+
+  /**
+   * Check if a box can be seen by the camera.
+   *
+   * @param box box in world coordinates or null if unknown
+   * @return false if the box lies completely outside of the frustum
+   */
+  private boolean isInFrustum(BoundingBox box) {
+    return !frustumSet
+        || box == null
+        || frustum.testAab(
+            box.getMinX(),
+            box.getMinY(),
+            box.getMinZ(),
+            box.getMaxX(),
+            box.getMaxY(),
+            box.getMaxZ());
+  }
+
   /**
    * Start/stop shaders and pass rendering priority for entities and terrains.
    *
@@ -131,6 +182,17 @@ public class MasterRenderer {
     terrainRenderer.render(terrains);
     terrainShader.stop();
 
+    // Keep the numbers of this frame for the profiler
+    lastCulledEntities = culledEntities;
+    lastCulledTerrains = culledTerrains;
+    lastRenderedEntities = 0;
+    for (List<Entity> batch : entities.values()) {
+      lastRenderedEntities += batch.size();
+    }
+    culledEntities = 0;
+    culledTerrains = 0;
+    frustumSet = false;
+
     terrains.clear();
     entities.clear();
   }
@@ -141,9 +203,14 @@ public class MasterRenderer {
    * @param terrain Terrain to be rendered
    */
   public void processTerrain(TerrainFlat terrain) {
-    if (terrain != null) {
-      terrains.add(terrain);
+    if (terrain == null) {
+      return;
     }
+    if (!isInFrustum(terrain.getBoundingBox())) {
+      culledTerrains++;
+      return;
+    }
+    terrains.add(terrain);
   }
 
   /**
@@ -153,6 +220,10 @@ public class MasterRenderer {
    * @param entity Entity to be rendered
    */
   public void processEntity(Entity entity) {
+    if (!isInFrustum(entity.getBbox())) {
+      culledEntities++;
+      return;
+    }
     TexturedModel entityModel = entity.getModel();
     List<Entity> batch = entities.get(entityModel);
     if (batch != null) {
@@ -164,6 +235,33 @@ public class MasterRenderer {
     }
   }
 
+  /**
+   * Get the number of entities that were outside of the view frustum in the last frame.
+   *
+   * @return number of skipped entities
+   */
+  public int getCulledEntities() {
+    return lastCulledEntities;
+  }
+
+  /**
+   * Get the number of terrain chunks that were outside of the view frustum in the last frame.
+   *
+   * @return number of skipped terrains
+   */
+  public int getCulledTerrains() {
+    return lastCulledTerrains;
+  }
+
+  /**
+   * Get the number of entities that were rendered in the last frame.
+   *
+   * @return number of rendered entities
+   */
+  public int getRenderedEntities() {
+    return lastRenderedEntities;
+  }
+
   /** Unbinds shaders in openGL. */
   public void cleanUp() {
     staticShader.cleanUp();
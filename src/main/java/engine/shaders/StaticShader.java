@@ -5,7 +5,6 @@ import entities.light.Light;
 import entities.light.LightMaster;
 import java.util.List;
 import org.joml.Matrix4f;
-import org.joml.Vector2f;
 import org.joml.Vector3f;
 import util.Maths;
 
@@ -17,7 +16,6 @@ public class StaticShader extends ShaderProgram {
 
   private static final String SHADER_NAME = "entity";
 
-  private int locationTransformationMatrix;
   private int locationProjectionMatrix;
   private int locationViewMatrix;
   private int[] locationLightPosition;
@@ -30,7 +28,6 @@ public class StaticShader extends ShaderProgram {
   private int locationUseFakeLighting;
   private int locationSkyColour;
   private int locationNumberOfRows;
-  private int locationOffset;
 
   public StaticShader() {
     super(SHADER_NAME);
@@ -38,7 +35,6 @@ public class StaticShader extends ShaderProgram {
 
   @Override
   protected void getAllUniformLocations() {
-    locationTransformationMatrix = super.getUniformLocation("transformationMatrix");
     locationProjectionMatrix = super.getUniformLocation("projectionMatrix");
     locationViewMatrix = super.getUniformLocation("viewMatrix");
     locationShineDamper = super.getUniformLocation("shineDamper");
@@ -46,7 +42,6 @@ public class StaticShader extends ShaderProgram {
     locationUseFakeLighting = super.getUniformLocation("useFakeLighting");
     locationSkyColour = super.getUniformLocation("skyColour");
     locationNumberOfRows = super.getUniformLocation("numberOfRows");
-    locationOffset = super.getUniformLocation("offset");
 
     locationLightPosition = new int[MAX_LIGHTS];
     locationLightColour = new int[MAX_LIGHTS];
@@ -67,16 +62,15 @@ public class StaticShader extends ShaderProgram {
     super.bindAttribute(0, "position");
     super.bindAttribute(1, "textureCoords");
     super.bindAttribute(2, "normal");
+    // Per instance, the matrix takes the attributes 3 to 6
+    super.bindAttribute(3, "transformationMatrix");
+    super.bindAttribute(7, "offset");
   }
 
   public void loadNumberOfRows(int numberOfRows) {
     super.loadFloat(locationNumberOfRows, numberOfRows);
   }
 
-  public void loadOffset(float x, float y) {
-    super.load2DVector(locationOffset, new Vector2f(x, y));
-  }
-
   public void loadSkyColour(float r, float g, float b) {
     super.loadVector(locationSkyColour, new Vector3f(r, g, b));
   }
@@ -113,10 +107,6 @@ public class StaticShader extends ShaderProgram {
     }
   }
 
-  public void loadTransformationMatrix(Matrix4f matrix) {
-    super.loadMatrix(locationTransformationMatrix, matrix);
-  }
-
   public void loadProjectionMatrix(Matrix4f matrix) {
     super.loadMatrix(locationProjectionMatrix, matrix);
   }
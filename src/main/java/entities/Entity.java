@@ -331,6 +331,10 @@ public class Entity {
     this.placerMode = placerMode;
   }
 
+  public int getTextureIndex() {
+    return textureIndex;
+  }
+
   public void setTextureIndex(int textureIndex) {
     this.textureIndex = textureIndex;
   }
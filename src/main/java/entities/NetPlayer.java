@@ -6,8 +6,8 @@ import engine.render.Loader;
 import engine.render.objconverter.ObjFileLoader;
 import engine.textures.ModelTexture;
 import entities.blocks.Block;
-import entities.blocks.BlockMaster;
 import entities.collision.BoundingBox;
+import entities.collision.BroadPhase;
 import entities.light.Light;
 import entities.light.LightMaster;
 import game.Game;
@@ -16,6 +16,7 @@ import gui.text.Nameplate;
 import java.util.ArrayList;
 import java.util.List;
 import net.packets.life.PacketLifeStatus;
+import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +53,7 @@ public class NetPlayer extends Entity {
   Block collideWithBlockBelow;
   Vector3f currentVelocity = new Vector3f();
   Vector3f goalVelocity = new Vector3f();
-  List<Block> closeBlocks;
+  final List<Block> closeBlocks = new ArrayList<>();
   boolean isInAir = false;
   protected int clientId;
   private String username;
@@ -153,9 +154,12 @@ public class NetPlayer extends Entity {
 
   /**
    * Called every frame to update the position of the NetPlayer. Collision for every player is
-   * calculated locally. Once per second the positions are synced.
+   * calculated locally. If there is a position from the received snapshots, the player is moved
+   * there, otherwise the movement is simulated with the last received velocities.
+   *
+   * @param snapshotPosition position from {@link game.SnapshotBuffer} or null to simulate
    */
-  public void update() {
+  public void update(Vector2f snapshotPosition) {
 
     if (Game.getActiveCamera().isIntro()) {
       return;
@@ -164,7 +168,7 @@ public class NetPlayer extends Entity {
     collideWithBlockAbove = null;
     collideWithBlockBelow = null;
 
-    updateCloseBlocks(BlockMaster.getBlocks());
+    updateCloseBlocks();
 
     float ipfX = interpolationFactor;
     float ipfY = interpolationFactor;
@@ -179,7 +183,11 @@ public class NetPlayer extends Entity {
     currentVelocity.y += (goalVelocity.y - currentVelocity.y) * ipfY;
 
     // Move player
-    increasePosition(new Vector3f(currentVelocity).mul((float) Game.dt()));
+    if (snapshotPosition != null) {
+      setPosition(new Vector3f(snapshotPosition, getPosition().z));
+    } else {
+      increasePosition(new Vector3f(currentVelocity).mul((float) Game.dt()));
+    }
     enforceMapBounds();
 
     // Handle character rotation (check run direction see if we need to rotate more)
@@ -247,19 +255,12 @@ public class NetPlayer extends Entity {
 
   /**
    * Maintain a list with blocks that are closer than the specified distance. This is used to only
-   * check close block for entities.collision or other interaction
-   *
-   * @param blocks Usually all blocks {@link BlockMaster#getBlocks()}
+   * check close block for entities.collision or other interaction. Only the map grid around the
+   * player is searched, see {@link BroadPhase}.
    */
-  void updateCloseBlocks(List<Block> blocks) {
-    List<Block> closeBlocks = new ArrayList<>();
+  void updateCloseBlocks() {
     // Only 2D (XY) for performance
-    for (Block block : blocks) {
-      if (block.get2dDistanceSquaredFrom(super.getPositionXy()) <= 64) {
-        closeBlocks.add(block);
-      }
-    }
-    this.closeBlocks = closeBlocks;
+    BroadPhase.getBlocksNear(getPosition(), 8, closeBlocks);
   }
 
   /**
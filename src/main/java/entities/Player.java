@@ -23,11 +23,17 @@ import entities.items.ItemMaster;
 import entities.items.Star;
 import entities.items.Steroids;
 import game.Game;
+import game.NetPlayerMaster;
 import game.stages.Playing;
 import gui.tutorial.Tutorial;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import net.packets.block.PacketBlockDamage;
 import net.packets.playerprop.PacketPos;
 import net.packets.playerprop.PacketVelocity;
+import org.joml.Vector2f;
 import org.joml.Vector2i;
 import org.joml.Vector3f;
 import org.slf4j.Logger;
@@ -56,12 +62,20 @@ public class Player extends NetPlayer {
   // Resources and Stats
   public int currentGold; // Current coins
   private float digDamage; // Damage per second when colliding with blocks
-  private Block lastDiggedBlock = null;
-  private float lastDiggedBlockDamage = 0;
+  // Damage dealt to every block since the last dig update, sent to the server in one packet
+  private final Map<Block, Float> diggedBlocks = new LinkedHashMap<>();
+  private boolean dugThisFrame = false;
   private float digIntervallTimer = 0;
   // Vector & Velocity based speed
   private boolean isJumping = false; // Can't Jump while in the air
   private boolean sendVelocityToServer = false; // If we need to update velocity this frame
+  // Position updates, see sendPosition()
+  private static float positionErrorThreshold = 0.5f; // Units the others may see us off
+  private static float maxPositionRate = 20; // Position updates per second at most
+  private static float idlePositionInterval = 5; // Seconds between updates while standing still
+  private final Vector2f lastSentPosition = new Vector2f(Float.NaN, Float.NaN);
+  private final Vector2f lastSentVelocity = new Vector2f();
+  private float positionTimer = 0;
   // Other
   private boolean controlsDisabled;
 
@@ -109,6 +123,46 @@ public class Player extends NetPlayer {
     return digInterval;
   }
 
+  public static float getPositionErrorThreshold() {
+    return positionErrorThreshold;
+  }
+
+  /**
+   * Set how far the other players may see us off before the position is sent.
+   *
+   * @param positionErrorThreshold distance in world units
+   */
+  public static void setPositionErrorThreshold(float positionErrorThreshold) {
+    Player.positionErrorThreshold = positionErrorThreshold;
+  }
+
+  public static float getMaxPositionRate() {
+    return maxPositionRate;
+  }
+
+  /**
+   * Set the maximum number of position updates per second. Limits the bandwidth while moving fast.
+   *
+   * @param maxPositionRate updates per second, must be greater than 0
+   */
+  public static void setMaxPositionRate(float maxPositionRate) {
+    Player.maxPositionRate = maxPositionRate;
+  }
+
+  public static float getIdlePositionInterval() {
+    return idlePositionInterval;
+  }
+
+  /**
+   * Set how often the position is sent while the others see us where we are, e.g. standing still.
+   * Keeps the position on the server fresh.
+   *
+   * @param idlePositionInterval seconds between updates
+   */
+  public static void setIdlePositionInterval(float idlePositionInterval) {
+    Player.idlePositionInterval = idlePositionInterval;
+  }
+
   /**
    * Updates player position every frame.
    *
@@ -162,7 +216,7 @@ public class Player extends NetPlayer {
     collideWithBlockAbove = null;
     collideWithBlockBelow = null;
 
-    updateCloseBlocks(BlockMaster.getBlocks());
+    updateCloseBlocks();
     // We don't want to check entities.collision for all block every frame
 
     if (Game.getActiveStages().size() == 1 && Game.getActiveStages().get(0) == PLAYING) {
@@ -207,6 +261,7 @@ public class Player extends NetPlayer {
     for (Block closeBlock : closeBlocks) {
       handleCollision(closeBlock);
     }
+    sendDigDamage();
 
     isInAir = collideWithBlockBelow == null;
 
@@ -236,14 +291,45 @@ public class Player extends NetPlayer {
     if (sendVelocityToServer) {
       new PacketVelocity(currentVelocity.x, currentVelocity.y, goalVelocity.x, goalVelocity.y)
           .sendToServer();
+      lastSentVelocity.set(currentVelocity.x, currentVelocity.y);
     }
 
-    // Update server once per second
-    if (Game.isOncePerSecond()) {
-      new PacketPos(getPositionXy().x, getPositionXy().y, getRotY()).sendToServer();
+    updatePosition();
+  }
+
+  /**
+   * Send the position to the server if the other players see us too far off. The others
+   * extrapolate our last sent position with the last sent velocity for a short time (see {@link
+   * NetPlayerMaster#getMaxExtrapolation()}), we do the same and only send an update if our real
+   * position differs more than the threshold. Nothing is sent while standing still, except for an
+   * update every few seconds. Updates are never sent more often than the maximum rate.
+   */
+  private void updatePosition() {
+    positionTimer += Game.dt();
+    if (positionTimer < 1 / maxPositionRate) {
+      return;
+    }
+    float extrapolated = Math.min(positionTimer, NetPlayerMaster.getMaxExtrapolation() / 1000f);
+    float predictedX = lastSentPosition.x + lastSentVelocity.x * extrapolated;
+    float predictedY = lastSentPosition.y + lastSentVelocity.y * extrapolated;
+    float errorX = getPosition().x - predictedX;
+    float errorY = getPosition().y - predictedY;
+    float errorSquared = errorX * errorX + errorY * errorY;
+    // NaN before the first update
+    if (!(errorSquared <= positionErrorThreshold * positionErrorThreshold)
+        || (sendVelocityToServer && errorSquared > 0)
+        || positionTimer >= idlePositionInterval) {
+      sendPosition();
     }
   }
 
+  /** Send the current position to the server right away. */
+  private void sendPosition() {
+    new PacketPos(getPositionXy().x, getPositionXy().y, getRotY()).sendToServer();
+    lastSentPosition.set(getPosition().x, getPosition().y);
+    positionTimer = 0;
+  }
+
   /**
    * Check if a player is crushed, remove a life, trigger the damage splash screen and move the
    * player to a safe place.
@@ -282,7 +368,7 @@ public class Player extends NetPlayer {
     } else {
       // Move player to an empty space and update position for all players
       setPosition(Game.getMap().gridToWorld(closestGridPos));
-      new PacketPos(getPositionXy().x, getPositionXy().y, getRotY()).sendToServer();
+      sendPosition();
     }
   }
 
@@ -343,8 +429,8 @@ public class Player extends NetPlayer {
   }
 
   /**
-   * What happens PER FRAME when we dig a block. Sends updates to the server every few frames,
-   * specified in digInterval
+   * What happens PER FRAME when we dig a block. The damage is collected and sent to the server
+   * every few frames, specified in digInterval, see {@link #sendDigDamage()}.
    *
    * @param block block to dig
    */
@@ -367,13 +453,9 @@ public class Player extends NetPlayer {
       Tutorial.Topics.setActive(Tutorial.Topics.OBSIDIAN, true);
     }
 
-    // Check if we dig the same block as last time, otherwise throw progress away
-    if (lastDiggedBlock != block) {
-      lastDiggedBlock = block;
-      lastDiggedBlockDamage = 0;
-      digIntervallTimer = 0;
-    } else if (lastDiggedBlockDamage > 0.1f) {
-      // Queue sound
+    // Queue sound if we dig the same block for a while
+    float damage = diggedBlocks.getOrDefault(block, 0f);
+    if (damage > 0.1f) {
       switch (block.getType()) {
         case DIRT:
         case QMARK:
@@ -389,20 +471,59 @@ public class Player extends NetPlayer {
       }
     }
 
-    // Update damage and time, save locally
+    // Update damage, save locally until the next dig update
+    diggedBlocks.put(block, damage + (float) (currentDigDamage * Game.dt()));
+    dugThisFrame = true;
+  }
+
+  /**
+   * Send the damage of all blocks dug during the last dig interval to the server in one packet.
+   * The server allows the damage of one dig interval for the whole packet, so digging several
+   * blocks at once splits the damage between them. Progress is thrown away if the player stops
+   * digging.
+   */
+  private void sendDigDamage() {
+    if (!dugThisFrame) {
+      diggedBlocks.clear();
+      digIntervallTimer = 0;
+      return;
+    }
+    dugThisFrame = false;
     digIntervallTimer += Game.dt();
-    lastDiggedBlockDamage += (float) (currentDigDamage * Game.dt());
 
     // Check if we hit time threshold to send update to the server
     if (digIntervallTimer >= digInterval) {
+      List<Vector3f> cells = new ArrayList<>(diggedBlocks.size());
+      float totalDamage = 0;
+      for (Map.Entry<Block, Float> entry : diggedBlocks.entrySet()) {
+        Block block = entry.getKey();
+        Vector3f cell = null;
+        // A falling block can end up in a cell we dug this interval, the server wants every cell
+        // only once
+        for (Vector3f other : cells) {
+          if (other.x == block.getGridX() && other.y == block.getGridY()) {
+            cell = other;
+          }
+        }
+        if (cell == null) {
+          cell = new Vector3f(block.getGridX(), block.getGridY(), 0);
+          cells.add(cell);
+        }
+        cell.z += entry.getValue();
+        totalDamage += entry.getValue();
+      }
       // Make sure we don't send invalid packets. If framerate is below 5, the player will dig
       // slower but not violate any rules
-      lastDiggedBlockDamage = Math.min(lastDiggedBlockDamage, currentDigDamage * digInterval);
-      new PacketBlockDamage(block.getGridX(), block.getGridY(), lastDiggedBlockDamage)
-          .sendToServer();
-      // Reset timer without losing overflow
-      digIntervallTimer -= digIntervallTimer;
-      lastDiggedBlockDamage = 0;
+      float maxDamage = currentDigDamage * digInterval;
+      if (totalDamage > maxDamage) {
+        for (Vector3f cell : cells) {
+          cell.z *= maxDamage / totalDamage;
+        }
+      }
+      new PacketBlockDamage(cells).sendToServer();
+      // Reset timer and damage
+      digIntervallTimer = 0;
+      diggedBlocks.clear();
     }
   }
 
@@ -48,6 +48,9 @@ public abstract class Block extends Entity {
   // Variables to track entities.collision time with a player while the block is moving
   private float collisionTime;
 
+  // Chunk that renders the block while it doesn't move, managed by the BlockMaster
+  private BlockChunk chunk;
+
   /**
    * Abstract Constructor.
    *
@@ -170,6 +173,7 @@ public abstract class Block extends Entity {
       return;
     }
     this.damage += damage;
+    int textureIndex = getTextureIndex();
     float percentIntegrity = (this.hardness - this.damage) / hardness;
     if (percentIntegrity < .25) {
       setTextureIndex(3);
@@ -185,6 +189,9 @@ public abstract class Block extends Entity {
       setDestroyedBy(NetPlayerMaster.getNetPlayerById(blockDamagerClientId));
       setDestroyed(true); // Destroy block
       Game.getMap().replaceWithAirBlock(new Vector2i(getGridX(), getGridY()));
+    } else if (getTextureIndex() != textureIndex) {
+      // Show the cracks
+      BlockMaster.blockChanged(this);
     }
   }
 
@@ -207,6 +214,7 @@ public abstract class Block extends Entity {
     if (destroyed) {
       DebrisMaster.generateDebris(this);
       onDestroy();
+      BlockMaster.blockChanged(this);
     }
     // Game.getMap().destroyBlock(this);
   }
@@ -214,6 +222,7 @@ public abstract class Block extends Entity {
   /** Removes block from the world without triggering onDestroy actions. */
   public void remove() {
     super.setDestroyed(true);
+    BlockMaster.blockChanged(this);
   }
 
   public float getDim() {
@@ -263,6 +272,8 @@ public abstract class Block extends Entity {
     this.speed = new Vector3f(0, 0, 0);
     this.moveStartPos = new Vector3f(getPosition());
     this.moveDistance = getPosition().distance(moveTo);
+    // Render the block on its own while it moves
+    BlockMaster.blockChanged(this);
   }
 
   /**
@@ -328,6 +339,14 @@ public abstract class Block extends Entity {
     }
   }
 
+  BlockChunk getChunk() {
+    return chunk;
+  }
+
+  void setChunk(BlockChunk chunk) {
+    this.chunk = chunk;
+  }
+
   public int getGridX() {
     return gridX;
   }
@@ -0,0 +1,279 @@
+package entities.blocks;
+
+import engine.models.RawModel;
+import engine.models.TexturedModel;
+import engine.render.Loader;
+import engine.render.MasterRenderer;
+import engine.render.objconverter.ModelData;
+import entities.Entity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import util.Maths;
+
+/**
+ * A square part of the map grid. The static blocks of a chunk are merged into one mesh per block
+ * model, so the chunk is rendered as a few entities instead of one entity per block.
+ *
+ * <p>Faces between two static blocks can never be seen and are left out. The meshes are only
+ * rebuilt when a block of the chunk (or next to it) changed. Blocks that move or shake are not
+ * part of the chunk, see {@link BlockMaster}.
+ */
+class BlockChunk {
+
+  static final int SIZE = 16;
+
+  private final int chunkX;
+  private final int chunkY;
+  private final Block[][] cells = new Block[SIZE][SIZE];
+  private final List<Entity> meshes = new ArrayList<>();
+  private int blockCount;
+  private boolean dirty;
+
+  /**
+   * Create an empty chunk.
+   *
+   * @param chunkX column of the chunk, the first block column is chunkX * SIZE
+   * @param chunkY row of the chunk, the first block row is chunkY * SIZE
+   */
+  BlockChunk(int chunkX, int chunkY) {
+    this.chunkX = chunkX;
+    this.chunkY = chunkY;
+  }
+
+  /**
+   * Put a static block into a cell of the chunk.
+   *
+   * @param localX column inside of the chunk
+   * @param localY row inside of the chunk
+   * @param block the block, null to empty the cell
+   */
+  void set(int localX, int localY, Block block) {
+    if (cells[localX][localY] == null && block != null) {
+      blockCount++;
+    } else if (cells[localX][localY] != null && block == null) {
+      blockCount--;
+    }
+    cells[localX][localY] = block;
+    dirty = true;
+  }
+
+  Block get(int localX, int localY) {
+    return cells[localX][localY];
+  }
+
+  /**
+   * Remove a block from the chunk.
+   *
+   * @param block block to remove
+   * @return index of the cell (localY * SIZE + localX) or -1 if the block is not in the chunk
+   */
+  int remove(Block block) {
+    for (int x = 0; x < SIZE; x++) {
+      for (int y = 0; y < SIZE; y++) {
+        if (cells[x][y] == block) {
+          set(x, y, null);
+          return y * SIZE + x;
+        }
+      }
+    }
+    return -1;
+  }
+
+  int getChunkX() {
+    return chunkX;
+  }
+
+  int getChunkY() {
+    return chunkY;
+  }
+
+  void setDirty() {
+    dirty = true;
+  }
+
+  boolean isEmpty() {
+    return blockCount == 0;
+  }
+
+  /**
+   * Add the meshes of the chunk to the render list. Rebuilds the meshes first if a block changed.
+   *
+   * @param renderer master renderer
+   * @param loader main loader, to load the new meshes
+   * @param cube model data of a block
+   */
+  void render(MasterRenderer renderer, Loader loader, ModelData cube) {
+    if (dirty) {
+      rebuild(loader, cube);
+    }
+    for (Entity mesh : meshes) {
+      renderer.processEntity(mesh);
+    }
+  }
+
+  /**
+   * Delete the meshes of the chunk.
+   *
+   * @param loader main loader
+   */
+  void cleanUp(Loader loader) {
+    for (Entity mesh : meshes) {
+      loader.deleteModel(mesh.getModel().getRawModel());
+    }
+    meshes.clear();
+  }
+
+  /** Merge the visible faces of all blocks into one mesh per block model. */
+  private void rebuild(Loader loader, ModelData cube) {
+    cleanUp(loader);
+    dirty = false;
+    Map<TexturedModel, MeshBuilder> builders = new HashMap<>();
+    Matrix4f transformation = new Matrix4f();
+    for (int x = 0; x < SIZE; x++) {
+      for (int y = 0; y < SIZE; y++) {
+        Block block = cells[x][y];
+        if (block != null) {
+          Maths.createTransformationMatrix(
+              block.getPosition(),
+              block.getRotX(),
+              block.getRotY(),
+              block.getRotZ(),
+              block.getScale(),
+              transformation);
+          builders
+              .computeIfAbsent(block.getModel(), k -> new MeshBuilder())
+              .addBlock(block, transformation, cube, chunkX * SIZE + x, chunkY * SIZE + y);
+        }
+      }
+    }
+    for (Map.Entry<TexturedModel, MeshBuilder> entry : builders.entrySet()) {
+      RawModel rawModel = entry.getValue().load(loader);
+      TexturedModel model = new TexturedModel(rawModel, entry.getKey().getTexture());
+      meshes.add(new Entity(model, new Vector3f(), 0, 0, 0, 1));
+    }
+  }
+
+  /** Collects the faces of the blocks of one model. */
+  private static class MeshBuilder {
+
+    private final Vector3f vertex = new Vector3f();
+    private final float[] bounds = {
+      Float.MAX_VALUE, -Float.MAX_VALUE,
+      Float.MAX_VALUE, -Float.MAX_VALUE,
+      Float.MAX_VALUE, -Float.MAX_VALUE
+    };
+    private float[] positions = new float[1024 * 3];
+    private float[] textureCoords = new float[1024 * 2];
+    private float[] normals = new float[1024 * 3];
+    private int vertexCount;
+
+    /**
+     * Add the faces of a block that are not covered by a static neighbour.
+     *
+     * @param block block to add
+     * @param transformation transformation matrix of the block
+     * @param cube model data of a block
+     * @param gridX column of the block on the map
+     * @param gridY row of the block on the map
+     */
+    private void addBlock(
+        Block block, Matrix4f transformation, ModelData cube, int gridX, int gridY) {
+      int rows = block.getModel().getTexture().getNumberOfRows();
+      // The shader divides by the number of rows, so the offset is added before
+      float offsetX = block.getTextureXOffset() * rows;
+      float offsetY = block.getTextureYOffset() * rows;
+      int[] indices = cube.getIndices();
+      for (int i = 0; i < indices.length; i += 3) {
+        // Faces of the cube are axis aligned, the normal of the first vertex is the face normal
+        transformation.transformDirection(
+            vertex.set(
+                cube.getNormals()[indices[i] * 3],
+                cube.getNormals()[indices[i] * 3 + 1],
+                cube.getNormals()[indices[i] * 3 + 2]));
+        if (isCovered(vertex, gridX, gridY)) {
+          continue;
+        }
+        for (int j = i; j < i + 3; j++) {
+          addVertex(cube, indices[j], transformation, offsetX, offsetY);
+        }
+      }
+    }
+
+    /** Check if the face with a normal touches a static block. Grid rows increase downwards. */
+    private static boolean isCovered(Vector3f normal, int gridX, int gridY) {
+      if (normal.x > .5f) {
+        return BlockMaster.getStaticBlock(gridX + 1, gridY) != null;
+      } else if (normal.x < -.5f) {
+        return BlockMaster.getStaticBlock(gridX - 1, gridY) != null;
+      } else if (normal.y > .5f) {
+        return BlockMaster.getStaticBlock(gridX, gridY - 1) != null;
+      } else if (normal.y < -.5f) {
+        return BlockMaster.getStaticBlock(gridX, gridY + 1) != null;
+      }
+      return false;
+    }
+
+    private void addVertex(
+        ModelData cube, int index, Matrix4f transformation, float offsetX, float offsetY) {
+      if ((vertexCount + 1) * 3 > positions.length) {
+        positions = Arrays.copyOf(positions, positions.length * 2);
+        textureCoords = Arrays.copyOf(textureCoords, textureCoords.length * 2);
+        normals = Arrays.copyOf(normals, normals.length * 2);
+      }
+      float[] v = cube.getVertices();
+      transformation.transformPosition(
+          vertex.set(v[index * 3], v[index * 3 + 1], v[index * 3 + 2]));
+      positions[vertexCount * 3] = vertex.x;
+      positions[vertexCount * 3 + 1] = vertex.y;
+      positions[vertexCount * 3 + 2] = vertex.z;
+      updateBounds(vertex);
+
+      float[] n = cube.getNormals();
+      transformation.transformDirection(
+          vertex.set(n[index * 3], n[index * 3 + 1], n[index * 3 + 2]));
+      vertex.normalize();
+      normals[vertexCount * 3] = vertex.x;
+      normals[vertexCount * 3 + 1] = vertex.y;
+      normals[vertexCount * 3 + 2] = vertex.z;
+
+      textureCoords[vertexCount * 2] = cube.getTextureCoords()[index * 2] + offsetX;
+      textureCoords[vertexCount * 2 + 1] = cube.getTextureCoords()[index * 2 + 1] + offsetY;
+      vertexCount++;
+    }
+
+    private void updateBounds(Vector3f vertex) {
+      bounds[0] = Math.min(bounds[0], vertex.x);
+      bounds[1] = Math.max(bounds[1], vertex.x);
+      bounds[2] = Math.min(bounds[2], vertex.y);
+      bounds[3] = Math.max(bounds[3], vertex.y);
+      bounds[4] = Math.min(bounds[4], vertex.z);
+      bounds[5] = Math.max(bounds[5], vertex.z);
+    }
+
+    /**
+     * Load the collected faces into openGL.
+     *
+     * @param loader main loader
+     * @return the mesh with the world coordinates of the chunk as bounding box
+     */
+    private RawModel load(Loader loader) {
+      int[] indices = new int[vertexCount];
+      for (int i = 0; i < vertexCount; i++) {
+        indices[i] = i;
+      }
+      RawModel rawModel =
+          loader.loadToTemporaryVao(
+              Arrays.copyOf(positions, vertexCount * 3),
+              Arrays.copyOf(textureCoords, vertexCount * 2),
+              Arrays.copyOf(normals, vertexCount * 3),
+              indices);
+      rawModel.setBoundingCoords(bounds);
+      return rawModel;
+    }
+  }
+}
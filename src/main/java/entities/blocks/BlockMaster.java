@@ -1,22 +1,37 @@
 package entities.blocks;
 
 import engine.render.Loader;
+import engine.render.MasterRenderer;
+import engine.render.objconverter.ModelData;
+import engine.render.objconverter.ObjFileLoader;
 import game.Game;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import org.joml.Vector3f;
 
-/** Create and manage blocks. Only ever create blocks using this class */
+/**
+ * Create and manage blocks. Only ever create blocks using this class
+ *
+ * <p>Blocks that don't move are rendered as part of a {@link BlockChunk}, which merges all its
+ * blocks into a few meshes. Blocks report when they change (damage, destroyed, start to fall) and
+ * only the chunks with changes are rebuilt. Moving and shaking blocks are rendered one by one until
+ * they reached their target.
+ */
 public class BlockMaster {
   // Organize Blocks in lists that can be accessed by their type
   private static Map<BlockTypes, CopyOnWriteArrayList<Block>> blockLists =
       new ConcurrentHashMap<>();
   // Keep a list with just blocks
   private static List<Block> blocks = new CopyOnWriteArrayList<>();
-  // List of debris (small blocks)
+  // Static blocks by chunk, see chunkKey()
+  private static Map<Long, BlockChunk> chunks = new ConcurrentHashMap<>();
+  // Blocks that move or wait to move
+  private static Set<Block> movingBlocks = ConcurrentHashMap.newKeySet();
+  private static Loader loader;
+  private static ModelData cube;
 
   /**
    * Init is called once while loading the game. Pre-loads the block texture atlas
@@ -24,6 +39,8 @@ public class BlockMaster {
    * @param loader main loader
    */
   public static void init(Loader loader) {
+    BlockMaster.loader = loader;
+    cube = ObjFileLoader.loadObj("block");
     Block.loadBlockModels(loader);
     DirtBlock.init(loader);
     GoldBlock.init(loader);
@@ -83,57 +100,153 @@ public class BlockMaster {
   }
 
   /**
-   * Called every frame to update if a block has been destroyed. If so, remove that block from all
-   * relevant lists (and clean out empty lists).
+   * Called every frame to move the blocks that are falling. Blocks that reached their target are
+   * put back into their chunk.
    */
   public static void update() {
-    // Remove destroyed blocks from the list and update entities
-    Iterator<Map.Entry<BlockTypes, CopyOnWriteArrayList<Block>>> mapIterator =
-        blockLists.entrySet().iterator();
-    while (mapIterator.hasNext()) {
-      List<Block> list = mapIterator.next().getValue();
-      Iterator<Block> iterator = list.iterator();
-      while (iterator.hasNext()) {
-        Block block = iterator.next();
-        if (block.isDestroyed()) {
-          // Remove block from list and entities
-          Game.removeEntity(block);
-          list.remove(iterator);
-          blocks.remove(block);
-          // Clean up list if empty
-          if (list.isEmpty()) {
-            mapIterator.remove();
-          }
+    for (Block block : movingBlocks) {
+      if (block.isDestroyed()) {
+        movingBlocks.remove(block);
+      } else if (block.getPosition() == block.getMoveTo()) {
+        // Block is at its target (or was moved there directly)
+        movingBlocks.remove(block);
+        addToChunk(block);
+      } else if (!block.canMove()) {
+        // Block is waiting to move. Update the delay
+        block.decreaseMoveDelay((float) Game.dt());
+        // "Shake"/jiggle the block while it is waiting to move
+        block.shake();
+      } else {
+        // Reset Orientation
+        block.setRotX(0);
+        // Slowly move the block
+        block.accelerate((float) Game.dt());
+        if (block.getPosition().distance(block.getMoveStartPos()) > block.getMoveDistance()) {
+          block.setPosition(block.getMoveTo());
         } else {
-          // Check is the block is queued to move
-          if (block.getPosition() != block.getMoveTo()) {
-            if (!block.canMove()) {
-              // Block is waiting to move. Update the delay
-              block.decreaseMoveDelay((float) Game.dt());
-              // "Shake"/jiggle the block while it is waiting to move
-              block.shake();
-            } else {
-              // Reset Orientation
-              block.setRotX(0);
-              // Slowly move the block
-              block.accelerate((float) Game.dt());
-              if (block.getPosition().distance(block.getMoveStartPos()) > block.getMoveDistance()) {
-                block.setPosition(block.getMoveTo());
-              } else {
-                Vector3f dir = new Vector3f(block.getMoveTo()).sub(block.getMoveStartPos());
-                block.increasePosition(dir.normalize().mul(block.getSpeed()));
-              }
-            }
-          }
+          Vector3f dir = new Vector3f(block.getMoveTo()).sub(block.getMoveStartPos());
+          block.increasePosition(dir.normalize().mul(block.getSpeed()));
         }
       }
     }
   }
 
+  /**
+   * Add all blocks to the render list. Chunks with changed blocks are rebuilt first.
+   *
+   * @param renderer master renderer
+   */
+  public static void render(MasterRenderer renderer) {
+    for (BlockChunk chunk : chunks.values()) {
+      chunk.render(renderer, loader, cube);
+    }
+    for (Block block : movingBlocks) {
+      renderer.processEntity(block);
+    }
+  }
+
+  /**
+   * Called by a block when it changed in a way that is visible: It was damaged, destroyed or
+   * started to move. Destroyed blocks are removed from all lists.
+   *
+   * @param block the changed block
+   */
+  static void blockChanged(Block block) {
+    // Air blocks are never rendered, they only have to leave the lists when they are removed
+    if (block.getType() == BlockTypes.AIR && !block.isDestroyed()) {
+      return;
+    }
+    removeFromChunk(block);
+    if (block.isDestroyed()) {
+      movingBlocks.remove(block);
+      List<Block> list = blockLists.get(block.getType());
+      if (list != null) {
+        list.remove(block);
+      }
+      blocks.remove(block);
+    } else if (block.getPosition() == block.getMoveTo()) {
+      addToChunk(block);
+    } else {
+      movingBlocks.add(block);
+    }
+  }
+
+  /**
+   * Get a block that is rendered as part of a chunk.
+   *
+   * @param gridX column on the map
+   * @param gridY row on the map
+   * @return the block or null if there is no static block in the cell
+   */
+  static Block getStaticBlock(int gridX, int gridY) {
+    if (gridX < 0 || gridY < 0) {
+      return null;
+    }
+    BlockChunk chunk = chunks.get(chunkKey(gridX / BlockChunk.SIZE, gridY / BlockChunk.SIZE));
+    if (chunk == null) {
+      return null;
+    }
+    return chunk.get(gridX % BlockChunk.SIZE, gridY % BlockChunk.SIZE);
+  }
+
+  private static void addToChunk(Block block) {
+    int gridX = block.getGridX();
+    int gridY = block.getGridY();
+    if (gridX < 0 || gridY < 0) {
+      return;
+    }
+    BlockChunk chunk =
+        chunks.computeIfAbsent(
+            chunkKey(gridX / BlockChunk.SIZE, gridY / BlockChunk.SIZE),
+            k -> new BlockChunk(gridX / BlockChunk.SIZE, gridY / BlockChunk.SIZE));
+    chunk.set(gridX % BlockChunk.SIZE, gridY % BlockChunk.SIZE, block);
+    block.setChunk(chunk);
+    updateNeighbours(gridX, gridY);
+  }
+
+  private static void removeFromChunk(Block block) {
+    BlockChunk chunk = block.getChunk();
+    if (chunk == null) {
+      return;
+    }
+    block.setChunk(null);
+    int cell = chunk.remove(block);
+    if (cell >= 0) {
+      updateNeighbours(
+          chunk.getChunkX() * BlockChunk.SIZE + cell % BlockChunk.SIZE,
+          chunk.getChunkY() * BlockChunk.SIZE + cell / BlockChunk.SIZE);
+    }
+    if (chunk.isEmpty()) {
+      chunks.remove(chunkKey(chunk.getChunkX(), chunk.getChunkY()));
+      chunk.cleanUp(loader);
+    }
+  }
+
+  /** The faces of blocks next to a changed cell can become visible or hidden. */
+  private static void updateNeighbours(int gridX, int gridY) {
+    int[][] neighbours = {
+      {gridX + 1, gridY}, {gridX - 1, gridY}, {gridX, gridY + 1}, {gridX, gridY - 1}
+    };
+    for (int[] neighbour : neighbours) {
+      if (neighbour[0] < 0 || neighbour[1] < 0) {
+        continue;
+      }
+      BlockChunk chunk =
+          chunks.get(chunkKey(neighbour[0] / BlockChunk.SIZE, neighbour[1] / BlockChunk.SIZE));
+      if (chunk != null) {
+        chunk.setDirty();
+      }
+    }
+  }
+
+  private static long chunkKey(int chunkX, int chunkY) {
+    return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+  }
+
   /**
    * Don't call this method directly. It is used by the Block Master to add new blocks to the game.
    *
-   * <p>Adds them to the Blockmasters personal lists and to the Entity render's list.
+   * <p>Adds them to the Blockmasters personal lists and to the chunk that renders them.
    *
    * @param block freshly generated block
    */
@@ -149,7 +262,7 @@ public class BlockMaster {
       // Add to type-unspecific list
       blocks.add(block);
       // Add to render list
-      Game.addEntity(block);
+      blockChanged(block);
     }
   }
 
@@ -157,9 +270,25 @@ public class BlockMaster {
     return blocks;
   }
 
+  /**
+   * Get the blocks that are falling or wait to fall. Their position on the map grid is already
+   * their target, not where they are right now.
+   *
+   * @return moving blocks
+   */
+  public static Set<Block> getMovingBlocks() {
+    return movingBlocks;
+  }
+
+  /** Remove all blocks and delete the meshes of the chunks. */
   public static void clear() {
     blockLists = new ConcurrentHashMap<>();
     blocks = new CopyOnWriteArrayList<>();
+    for (BlockChunk chunk : chunks.values()) {
+      chunk.cleanUp(loader);
+    }
+    chunks = new ConcurrentHashMap<>();
+    movingBlocks = ConcurrentHashMap.newKeySet();
   }
 
 
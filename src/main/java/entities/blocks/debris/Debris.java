@@ -3,12 +3,18 @@ package entities.blocks.debris;
 import entities.Entity;
 import entities.blocks.Block;
 import entities.blocks.BlockMaster;
+import entities.collision.BroadPhase;
 import game.Game;
+import java.util.ArrayList;
+import java.util.List;
 import org.joml.Vector3f;
 
 /** IN DEVELOPMENT Try to create debris that adheres to physics. */
 public class Debris extends Entity {
 
+  // Reused for the collision checks of all debris, only used on the game thread
+  private static final List<Block> closeBlocks = new ArrayList<>();
+
   private final float weight;
   private Block baseBlock;
   private Vector3f direction;
@@ -116,7 +122,7 @@ public class Debris extends Entity {
       spin = new Vector3f();
     }
 
-    for (Block block : BlockMaster.getBlocks()) {
+    for (Block block : BroadPhase.getBlocksNear(getPosition(), 4, closeBlocks)) {
       if (block.getDistanceSquaredFrom(getPosition()) < 16) {
         /*
         Block is close -> check entities.collision
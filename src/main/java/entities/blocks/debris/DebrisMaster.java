@@ -37,6 +37,10 @@ public class DebrisMaster {
     }
   }
 
+  public static List<Debris> getDebris() {
+    return debrises;
+  }
+
   /**
    * Should be called every frame in the main loop. Update all debris entities and remove the ones
    * that are past their life length
@@ -157,7 +157,7 @@ public class BoundingBox {
     return maxY;
   }
 
-  private float getMinZ() {
+  public float getMinZ() {
     return minZ;
   }
 
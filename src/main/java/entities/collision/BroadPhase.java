@@ -0,0 +1,112 @@
+package entities.collision;
+
+import entities.Entity;
+import entities.NetPlayer;
+import entities.blocks.Block;
+import entities.blocks.debris.Debris;
+import entities.blocks.debris.DebrisMaster;
+import entities.items.Item;
+import entities.items.ItemMaster;
+import game.Game;
+import game.NetPlayerMaster;
+import game.map.ClientMap;
+import game.map.GameMap;
+import java.util.List;
+import org.joml.Vector3f;
+
+/**
+ * Shared broad phase for collision checks. Finds the blocks and entities that are close to a
+ * position or a box, so the exact collision only has to be checked for a few candidates.
+ *
+ * <p>Blocks are looked up in the grid of the {@link ClientMap}. Players, items and debris move
+ * every frame and are put into a {@link SpatialHash} once per frame by {@link #update()}. The
+ * queries fill a list the caller passes in, so they don't allocate.
+ */
+public class BroadPhase {
+
+  private static final SpatialHash<Entity> entities = new SpatialHash<>(2 * GameMap.getDim());
+
+  /**
+   * Called every frame after the active player moved, before the items are updated. Puts all
+   * players, items and debris into the spatial hash.
+   */
+  public static void update() {
+    entities.clear();
+    NetPlayer activePlayer = Game.getActivePlayer();
+    if (activePlayer != null) {
+      insert(activePlayer);
+    }
+    for (NetPlayer netPlayer : NetPlayerMaster.getNetPlayers().values()) {
+      if (netPlayer != activePlayer) {
+        insert(netPlayer);
+      }
+    }
+    for (Item item : ItemMaster.getItems()) {
+      insert(item);
+    }
+    for (Debris debris : DebrisMaster.getDebris()) {
+      insert(debris);
+    }
+  }
+
+  private static void insert(Entity entity) {
+    BoundingBox box = entity.getBbox();
+    if (box != null) {
+      entities.insert(entity, box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY());
+    } else {
+      Vector3f position = entity.getPosition();
+      entities.insert(entity, position.x, position.y, position.x, position.y);
+    }
+  }
+
+  /**
+   * Get the blocks with a center close to a position. The distance is measured in 2D (XY).
+   *
+   * @param position world position
+   * @param radius maximum distance to the center of a block
+   * @param dest list for the blocks, it is cleared first
+   * @return dest
+   */
+  public static List<Block> getBlocksNear(Vector3f position, float radius, List<Block> dest) {
+    ClientMap map = Game.getMap();
+    if (map == null) {
+      dest.clear();
+      return dest;
+    }
+    return map.getBlocksNear(position.x, position.y, radius, dest);
+  }
+
+  /**
+   * Get the blocks with a bounding box that overlaps a box in 2D (XY).
+   *
+   * @param box box in world coordinates, usually the bounding box of an entity
+   * @param dest list for the blocks, it is cleared first
+   * @return dest
+   */
+  public static List<Block> getBlocksInBox(BoundingBox box, List<Block> dest) {
+    ClientMap map = Game.getMap();
+    if (map == null || box == null) {
+      dest.clear();
+      return dest;
+    }
+    return map.getBlocksInBox(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), dest);
+  }
+
+  /**
+   * Get the players, items and debris with a bounding box close to a position. The entities are
+   * found where they were when {@link #update()} was called. The distance is measured in 2D (XY).
+   *
+   * @param position world position
+   * @param radius maximum distance to the bounding box of an entity
+   * @param dest list for the entities, it is cleared first
+   * @return dest
+   */
+  public static List<Entity> getEntitiesNear(Vector3f position, float radius, List<Entity> dest) {
+    return entities.queryRange(position.x, position.y, radius, dest);
+  }
+
+  /** Remove all entities, called when a game ends. */
+  public static void reset() {
+    entities.clear();
+  }
+}
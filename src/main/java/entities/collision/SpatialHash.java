@@ -0,0 +1,193 @@
+package entities.collision;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid for objects that move every frame, like players, items and debris. The grid is
+ * rebuilt every frame: {@link #clear()} and then {@link #insert(Object, float, float, float,
+ * float)} every object.
+ *
+ * <p>Only the cells that contain objects are stored, in a hash table with chaining. Every object is
+ * stored once, in the cell of the center of its box. A query also looks at the neighbouring cells
+ * as far as the largest inserted box reaches, so every object is found exactly once. The arrays
+ * are kept between frames, so the hash doesn't allocate once it is large enough.
+ *
+ * @param <T> type of the objects
+ */
+public class SpatialHash<T> {
+
+  private final float cellSize;
+  private Object[] items = new Object[64];
+  // minX, minY, maxX, maxY of every object
+  private float[] boxes = new float[64 * 4];
+  private long[] cells = new long[64];
+  // Next object in the same bucket or -1
+  private int[] next = new int[64];
+  // First object of every bucket or -1
+  private int[] heads = new int[128];
+  private int count;
+  private float maxHalfWidth;
+  private float maxHalfHeight;
+
+  /**
+   * Create an empty hash.
+   *
+   * @param cellSize width and height of a cell in world units
+   */
+  public SpatialHash(float cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("Invalid cell size: " + cellSize);
+    }
+    this.cellSize = cellSize;
+    Arrays.fill(heads, -1);
+  }
+
+  /** Remove all objects. */
+  public void clear() {
+    Arrays.fill(items, 0, count, null);
+    Arrays.fill(heads, -1);
+    count = 0;
+    maxHalfWidth = 0;
+    maxHalfHeight = 0;
+  }
+
+  /**
+   * Add an object with its 2D box in world coordinates.
+   *
+   * @param item object to add
+   * @param minX left side of the box
+   * @param minY bottom of the box
+   * @param maxX right side of the box
+   * @param maxY top of the box
+   */
+  public void insert(T item, float minX, float minY, float maxX, float maxY) {
+    if (count == items.length) {
+      grow();
+    }
+    items[count] = item;
+    boxes[count * 4] = minX;
+    boxes[count * 4 + 1] = minY;
+    boxes[count * 4 + 2] = maxX;
+    boxes[count * 4 + 3] = maxY;
+    maxHalfWidth = Math.max(maxHalfWidth, (maxX - minX) / 2);
+    maxHalfHeight = Math.max(maxHalfHeight, (maxY - minY) / 2);
+    cells[count] = cellKey(cell((minX + maxX) / 2), cell((minY + maxY) / 2));
+    link(count);
+    count++;
+  }
+
+  /**
+   * Collect the objects with a box that overlaps a query box.
+   *
+   * @param minX left side of the query box
+   * @param minY bottom of the query box
+   * @param maxX right side of the query box
+   * @param maxY top of the query box
+   * @param dest list for the objects, it is cleared first
+   * @return dest
+   */
+  public List<T> query(float minX, float minY, float maxX, float maxY, List<T> dest) {
+    dest.clear();
+    collect(minX, minY, maxX, maxY, false, 0, 0, 0, dest);
+    return dest;
+  }
+
+  /**
+   * Collect the objects with a box that is closer to a point than a radius.
+   *
+   * @param x world x coordinate
+   * @param y world y coordinate
+   * @param radius maximum distance from the point to the box of an object
+   * @param dest list for the objects, it is cleared first
+   * @return dest
+   */
+  public List<T> queryRange(float x, float y, float radius, List<T> dest) {
+    dest.clear();
+    collect(x - radius, y - radius, x + radius, y + radius, true, x, y, radius * radius, dest);
+    return dest;
+  }
+
+  public int size() {
+    return count;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void collect(
+      float minX,
+      float minY,
+      float maxX,
+      float maxY,
+      boolean range,
+      float x,
+      float y,
+      float radiusSquared,
+      List<T> dest) {
+    if (count == 0) {
+      return;
+    }
+    // Objects are stored by their center, which can be up to half a box away from the query
+    int fromX = cell(minX - maxHalfWidth);
+    int toX = cell(maxX + maxHalfWidth);
+    int fromY = cell(minY - maxHalfHeight);
+    int toY = cell(maxY + maxHalfHeight);
+    int mask = heads.length - 1;
+    for (int cellX = fromX; cellX <= toX; cellX++) {
+      for (int cellY = fromY; cellY <= toY; cellY++) {
+        long key = cellKey(cellX, cellY);
+        for (int i = heads[hash(key) & mask]; i >= 0; i = next[i]) {
+          // Different cells can share a bucket
+          if (cells[i] != key
+              || boxes[i * 4] > maxX
+              || boxes[i * 4 + 2] < minX
+              || boxes[i * 4 + 1] > maxY
+              || boxes[i * 4 + 3] < minY) {
+            continue;
+          }
+          if (!range || distanceSquared(i, x, y) <= radiusSquared) {
+            dest.add((T) items[i]);
+          }
+        }
+      }
+    }
+  }
+
+  /** Squared distance from a point to the closest point of the box of an object. */
+  private float distanceSquared(int i, float x, float y) {
+    float dx = Math.max(0, Math.max(boxes[i * 4] - x, x - boxes[i * 4 + 2]));
+    float dy = Math.max(0, Math.max(boxes[i * 4 + 1] - y, y - boxes[i * 4 + 3]));
+    return dx * dx + dy * dy;
+  }
+
+  private void link(int i) {
+    int bucket = hash(cells[i]) & (heads.length - 1);
+    next[i] = heads[bucket];
+    heads[bucket] = i;
+  }
+
+  /** Double the space for objects and the number of buckets. */
+  private void grow() {
+    int capacity = items.length * 2;
+    items = Arrays.copyOf(items, capacity);
+    boxes = Arrays.copyOf(boxes, capacity * 4);
+    cells = Arrays.copyOf(cells, capacity);
+    next = Arrays.copyOf(next, capacity);
+    heads = new int[capacity * 2];
+    Arrays.fill(heads, -1);
+    for (int i = 0; i < count; i++) {
+      link(i);
+    }
+  }
+
+  private int cell(float coordinate) {
+    return (int) Math.floor(coordinate / cellSize);
+  }
+
+  private static long cellKey(int cellX, int cellY) {
+    return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+  }
+
+  private static int hash(long key) {
+    return Long.hashCode(key * 0x9E3779B97F4A7C15L);
+  }
+}
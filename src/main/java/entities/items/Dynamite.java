@@ -13,17 +13,18 @@ import engine.particles.systems.Smoke;
 import engine.render.Loader;
 import engine.render.objconverter.ObjFileLoader;
 import engine.textures.ModelTexture;
+import entities.Entity;
 import entities.NetPlayer;
 import entities.blocks.Block;
-import entities.blocks.BlockMaster;
+import entities.collision.BroadPhase;
 import entities.light.Light;
 import entities.light.LightMaster;
 import game.Game;
-import game.NetPlayerMaster;
 import game.map.GameMap;
 import game.stages.Playing;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
-import net.packets.block.PacketBlockDamage;
 import net.packets.items.PacketItemUsed;
 import org.joml.Vector3f;
 
@@ -33,14 +34,17 @@ public class Dynamite extends Item {
 
   private static final int DYNAMITE_DAMAGE_DISTANCE_SQ =
       4 * 4 * GameMap.getDim() * GameMap.getDim();
+  // Reused for the collision checks of all dynamites, only used on the game thread
+  private static final List<Block> closeBlocks = new ArrayList<>();
+  private static final List<Entity> closeEntities = new ArrayList<>();
 
   private static TexturedModel preloadedModel;
   private final float gravity = 20;
-  private final float fuseTimer = 3f;
+  private static final float fuseTimer = 3f;
   private final float explosionTime = .5f;
-  private final float totalEffectsTime = 2.5f;
-  private final float explosionRange = 15;
-  private final float maximumDamage = 50;
+  private static final float totalEffectsTime = 2.5f;
+  private static final float explosionRange = 15;
+  private static final float maximumDamage = 50;
   private final Fire particleFuse;
   private final Explosion particleExplosion;
   private final Explosion particleShrapnel;
@@ -152,7 +156,7 @@ public class Dynamite extends Item {
     */
     if (time < fuseTimer) {
       boolean collision = false;
-      for (Block block : BlockMaster.getBlocks()) {
+      for (Block block : BroadPhase.getBlocksInBox(getBbox(), closeBlocks)) {
         if (collidesWith(block)) {
           collision = true;
           break;
@@ -215,42 +219,25 @@ public class Dynamite extends Item {
             LightMaster.LightTypes.FLASH, getPosition(), new Vector3f(1, 1, 1));
     flash.setBrightness(10);
 
-    // Deal damage to the active player if too close (4 blocks (6 units) distance squared is 576)
-    if (getPosition().distanceSquared(Game.getActivePlayer().getPosition())
-        <= DYNAMITE_DAMAGE_DISTANCE_SQ) {
-      Playing.showDamageTakenOverlay();
-      // Send to server to inform of damage
-      Game.getActivePlayer().informServerOfLifeChange(-1);
-    }
-
-    // Inform server is a NetPlayer is damaged
-    for (Integer id : NetPlayerMaster.getIds()) {
-      NetPlayer netPlayer = NetPlayerMaster.getNetPlayerById(id);
-      if (getPosition().distanceSquared(netPlayer.getPosition()) <= DYNAMITE_DAMAGE_DISTANCE_SQ) {
-        // Send to server to inform of damage
-        netPlayer.informServerOfLifeChange(-1);
+    // Deal damage to players if too close (4 blocks (6 units) distance squared is 576)
+    float range = (float) Math.sqrt(DYNAMITE_DAMAGE_DISTANCE_SQ);
+    for (Entity entity : BroadPhase.getEntitiesNear(getPosition(), range, closeEntities)) {
+      if (!(entity instanceof NetPlayer)
+          || getPosition().distanceSquared(entity.getPosition()) > DYNAMITE_DAMAGE_DISTANCE_SQ) {
+        continue;
       }
+      if (entity == Game.getActivePlayer()) {
+        Playing.showDamageTakenOverlay();
+      }
+      // Send to server to inform of damage
+      ((NetPlayer) entity).informServerOfLifeChange(-1);
     }
 
-    // Deal Damage if dynamite is owned
-    if (!isOwned()) {
-      return;
-    } else {
+    // The server damages the blocks when the fuse runs out and sends the damage to everyone
+    if (isOwned()) {
       PacketItemUsed packetItemUsed = new PacketItemUsed(itemId);
       packetItemUsed.sendToServer();
     }
-
-    for (Block block : BlockMaster.getBlocks()) {
-      float distance = block.get2dDistanceFrom(getPositionXy());
-      if (distance < explosionRange) {
-        // Damage blocks inverse to distance (closer = more damage)
-        // block.increaseDamage(1 / distance * maximumDamage);
-        if (Game.isConnectedToServer()) {
-          new PacketBlockDamage(block.getGridX(), block.getGridY(), 1 / distance * maximumDamage)
-              .sendToServer();
-        }
-      }
-    }
   }
 
   public boolean isActive() {
@@ -268,4 +255,25 @@ public class Dynamite extends Item {
   public void setItemId(int itemId) {
     this.itemId = itemId;
   }
+
+  public static float getFuseTimer() {
+    return fuseTimer;
+  }
+
+  public static float getExplosionRange() {
+    return explosionRange;
+  }
+
+  public static float getMaximumDamage() {
+    return maximumDamage;
+  }
+
+  /**
+   * Time from placing the dynamite until all of its effects are over.
+   *
+   * @return lifetime in seconds
+   */
+  public static float getLifetime() {
+    return fuseTimer + totalEffectsTime;
+  }
 }
@@ -17,7 +17,7 @@ import org.joml.Vector3f;
 public class Ice extends Item {
 
   private static TexturedModel preloadedModel;
-  private final float freezeTime = 8f;
+  private static final float freezeTime = 8f;
   private float time;
   private int itemId;
   private boolean freezeTriggered = false;
@@ -126,4 +126,8 @@ public class Ice extends Item {
   public void setItemId(int itemId) {
     this.itemId = itemId;
   }
+
+  public static float getFreezeTime() {
+    return freezeTime;
+  }
 }
@@ -130,6 +130,10 @@ public class ItemMaster {
     }
   }
 
+  public static List<Item> getItems() {
+    return items;
+  }
+
   public static void reset() {
     itemLists.clear();
     items.clear();
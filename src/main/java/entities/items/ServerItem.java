@@ -11,6 +11,7 @@ public class ServerItem {
   private boolean exists;
   private Vector3f position;
   private int itemId;
+  private long expiresAt = Long.MAX_VALUE;
 
   /**
    * Class to save important information of an Item on the server side to keep track of all items
@@ -36,6 +37,22 @@ public class ServerItem {
     this.itemId = itemId;
   }
 
+  public long getCreationtime() {
+    return creationtime;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(long expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  public Vector3f getPosition() {
+    return position;
+  }
+
   public int getOwner() {
     return owner;
   }
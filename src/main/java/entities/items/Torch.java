@@ -8,9 +8,11 @@ import engine.render.Loader;
 import engine.render.objconverter.ObjFileLoader;
 import engine.textures.ModelTexture;
 import entities.blocks.Block;
-import entities.blocks.BlockMaster;
+import entities.collision.BroadPhase;
 import entities.light.Light;
 import entities.light.LightMaster;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import net.packets.items.PacketItemUsed;
 import org.joml.Vector3f;
@@ -19,6 +21,8 @@ import util.MousePlacer;
 public class Torch extends Item {
 
   private static TexturedModel preloadedModel;
+  // Reused to find the block of a torch, only used on the game thread
+  private static final List<Block> closeBlocks = new ArrayList<>();
   private final float brightness;
   private final Light light;
   private final Vector3f flameOffset;
@@ -181,7 +185,7 @@ public class Torch extends Item {
   public void checkForBlock() {
     Block closestBlock = null;
     float closestDistSq = 25;
-    for (Block block : BlockMaster.getBlocks()) {
+    for (Block block : BroadPhase.getBlocksNear(getPosition(), 5, closeBlocks)) {
       float distSq = block.getDistanceSquaredFrom(getPosition());
       if (distSq < closestDistSq) {
         closestDistSq = distSq;
@@ -34,6 +34,7 @@ import entities.NetPlayer;
 import entities.Player;
 import entities.blocks.BlockMaster;
 import entities.blocks.debris.DebrisMaster;
+import entities.collision.BroadPhase;
 import entities.items.ItemMaster;
 import entities.light.LightMaster;
 import game.map.ClientMap;
@@ -146,6 +147,7 @@ public class Game extends Thread {
   private static Source backgroundSound;
   private static boolean afterMatchLobbyReady;
   private static String[] cachedMap;
+  private static int cachedMapHeight;
 
   /**
    * The constructor for the game to be called from the main class.
@@ -272,7 +274,8 @@ public class Game extends Thread {
 
   /**
    * Get a 2D array of all wall terrain chunks for the current game map. If the terrain doesn't
-   * exist yet, it is generated.
+   * exist yet, it is generated. If the server has sent new rows of the map, the terrain is
+   * extended.
    *
    * @return 2D array with all wall terrain chunks [X][Y]
    */
@@ -282,6 +285,9 @@ public class Game extends Thread {
         throw new IllegalStateException("No Map found, could not generate Terrain.");
       }
       terrainChunks = map.generateTerrains(loader);
+    } else if (map.hasNewTerrainRows()) {
+      // The server has sent new rows of the map
+      terrainChunks = map.extendTerrains(loader, terrainChunks);
     }
     return terrainChunks;
   }
@@ -376,7 +382,7 @@ public class Game extends Thread {
 
     MouseIcon.setMouseIcon(window, "cursorGrey");
     // Initiate the master renderer class
-    renderer = new MasterRenderer();
+    renderer = new MasterRenderer(loader);
 
     // Initialize NetPlayerModels
     NetPlayerMaster.init(loader);
@@ -458,6 +464,10 @@ public class Game extends Thread {
       // Note when we start the frame to calculate the duration later
       frameStartTime = System.nanoTime();
 
+      // Apply everything the server sent since the last frame, before anything else reads the
+      // game state
+      ClientLogic.processPackets();
+
       // This will be true exactly once per second, independent of frame rate
       // Used for actions that need to be done infrequently. oncePerSecond can be used anywhere
       if (secondTimer > 1e9) {
@@ -553,7 +563,8 @@ public class Game extends Thread {
         clearAllTextOnFrameEnd = false;
       }
 
-      // Done with one frame
+      // Done with one frame, send the packets of this frame in one go
+      ClientLogic.flushToServer();
 
       window.swapBuffers();
       oncePerSecond = false;
@@ -677,6 +688,7 @@ public class Game extends Thread {
     String lobbynameTmp = NetPlayerMaster.getLobbyname();
     NetPlayerMaster.reset();
     ItemMaster.reset();
+    BroadPhase.reset();
     LightMaster.reset();
     ParticleMaster.reset();
 
@@ -687,7 +699,8 @@ public class Game extends Thread {
 
     camera = new Camera(player, loader);
     map = new ClientMap("s", System.currentTimeMillis());
-    map.setLobbyMap(Game.getCachedMap());
+    map.setLobbyMap(Game.getCachedMap(), Game.getCachedMapHeight());
+    setCachedMap(null, 0);
 
     if (afterMatchLobbyReady) {
       NetPlayerMaster.setLobbyname(lobbynameTmp);
@@ -784,7 +797,7 @@ public class Game extends Thread {
       new PacketLogin(getUsername()).sendToServer();
       timeOut = 0;
       while (!loggedIn) {
-        Thread.sleep(50);
+        waitForServer(50);
         timeOut += 50;
         if (timeOut % 350 == 0) {
           LoadingScreen.progess();
@@ -809,13 +822,13 @@ public class Game extends Thread {
         LoadingScreen.updateLoadingMessage("joining lobby");
         new PacketCreateLobby(lobname + "║s").sendToServer();
         while (!lobbyCreated) {
-          Thread.sleep(150);
+          waitForServer(150);
           LoadingScreen.progess();
         }
 
         new PacketJoinLobby(lobname).sendToServer();
         while (!NetPlayerMaster.getLobbyname().equals(lobname)) {
-          Thread.sleep(150);
+          waitForServer(150);
           LoadingScreen.progess();
         }
       }
@@ -845,6 +858,19 @@ public class Game extends Thread {
     removeActiveStage(LOADINGSCREEN);
   }
 
+  /**
+   * Wait for an answer of the server while the game is loading. The game loop isn't running yet, so
+   * the received packets are processed here.
+   *
+   * @param millis time to wait in milliseconds
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  private static void waitForServer(long millis) throws InterruptedException {
+    ClientLogic.flushToServer();
+    Thread.sleep(millis);
+    ClientLogic.processPackets();
+  }
+
   private void disconnectFromServer() {
     ClientLogic.setDisconnectFromServer(true);
   }
@@ -934,8 +960,19 @@ public class Game extends Thread {
     return cachedMap;
   }
 
-  public static void setCachedMap(String[] cachedMap) {
+  public static int getCachedMapHeight() {
+    return cachedMapHeight;
+  }
+
+  /**
+   * Keep the map of the next lobby until the game over screen is closed.
+   *
+   * @param cachedMap rows of the map the server generated so far
+   * @param cachedMapHeight height of the full map
+   */
+  public static void setCachedMap(String[] cachedMap, int cachedMapHeight) {
     Game.cachedMap = cachedMap;
+    Game.cachedMapHeight = cachedMapHeight;
   }
 
   public static int getReconnectStep() {
@@ -8,12 +8,18 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
+import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Represents the current lobby on the client side. Gets updated via Packets and is fully static.
+ *
+ * <p>Received positions are kept in a {@link SnapshotBuffer} per player. The players are shown
+ * {@link #getInterpolationDelay()} milliseconds in the past and move smoothly between the received
+ * positions. If no new position arrived in time, they are extrapolated for up to {@link
+ * #getMaxExtrapolation()} milliseconds and then simulated locally until the next position arrives.
  */
 public class NetPlayerMaster {
 
@@ -21,10 +27,15 @@ public class NetPlayerMaster {
 
   private static String lobbyname;
   private static Map<Integer, NetPlayer> netPlayers;
+  private static Map<Integer, SnapshotBuffer> snapshots;
+  private static long interpolationDelay = 100;
+  private static long maxExtrapolation = 250;
+  private static final Vector2f sample = new Vector2f();
 
   static {
     lobbyname = "";
     netPlayers = new ConcurrentHashMap<>();
+    snapshots = new ConcurrentHashMap<>();
   }
 
   /**
@@ -41,6 +52,7 @@ public class NetPlayerMaster {
    */
   public static void update(MasterRenderer renderer) {
 
+    long renderTime = System.currentTimeMillis() - interpolationDelay;
     for (NetPlayer netPlayer : netPlayers.values()) {
       if (!netPlayer.isDefeated()) {
         float pctBrightness = Game.getMap().getLightLevel(netPlayer.getPosition().y);
@@ -51,7 +63,12 @@ public class NetPlayerMaster {
         }
       }
 
-      netPlayer.update();
+      SnapshotBuffer buffer = snapshots.get(netPlayer.getClientId());
+      if (buffer != null && buffer.sample(renderTime, maxExtrapolation, sample)) {
+        netPlayer.update(sample);
+      } else {
+        netPlayer.update(null);
+      }
       renderer.processEntity(netPlayer);
     }
   }
@@ -85,6 +102,7 @@ public class NetPlayerMaster {
         // logger.debug("Removing " + netPlayer.getValue().getUsername());
         netPlayer.getValue().removeNameplate();
         netPlayers.remove(netPlayer.getKey());
+        snapshots.remove(netPlayer.getKey());
       }
     }
 
@@ -123,7 +141,8 @@ public class NetPlayerMaster {
 
   /**
    * Updates the position of a connected player. Called by {@link net.packets.playerprop.PacketPos}
-   * to propagate player movement.
+   * to propagate player movement. The position is added to the snapshots of the player, the first
+   * position is applied directly.
    *
    * @param clientId player to update
    * @param posX new X position
@@ -133,7 +152,15 @@ public class NetPlayerMaster {
   public static void updatePosition(int clientId, float posX, float posY, float rotY) {
     NetPlayer netPlayer = netPlayers.get(clientId);
     if (netPlayer != null) {
-      netPlayer.setPosition(new Vector3f(posX, posY, netPlayer.getPosition().z));
+      long now = System.currentTimeMillis();
+      SnapshotBuffer buffer = snapshots.computeIfAbsent(clientId, k -> new SnapshotBuffer());
+      if (buffer.isEmpty()) {
+        netPlayer.setPosition(new Vector3f(posX, posY, netPlayer.getPosition().z));
+      } else if (buffer.getNewestTime() < now - interpolationDelay) {
+        // The player is extrapolated or simulated, move on from where they are shown now
+        buffer.add(now - interpolationDelay, netPlayer.getPosition().x, netPlayer.getPosition().y);
+      }
+      buffer.add(now, posX, posY);
       netPlayer.setRotY(rotY);
     }
   }
@@ -152,6 +179,7 @@ public class NetPlayerMaster {
     NetPlayer netPlayer = netPlayers.get(clientId);
     if (netPlayer != null) {
       netPlayer.updateVelocities(new Vector3f(curvX, curvY, 0), new Vector3f(tarvX, tarvY, 0));
+      snapshots.computeIfAbsent(clientId, k -> new SnapshotBuffer()).setVelocity(curvX, curvY);
     }
   }
 
@@ -179,10 +207,38 @@ public class NetPlayerMaster {
     return netPlayers;
   }
 
+  public static long getInterpolationDelay() {
+    return interpolationDelay;
+  }
+
+  /**
+   * Set how far in the past remote players are shown. Should be a bit longer than the time between
+   * two positions of a moving player.
+   *
+   * @param interpolationDelay delay in milliseconds
+   */
+  public static void setInterpolationDelay(long interpolationDelay) {
+    NetPlayerMaster.interpolationDelay = interpolationDelay;
+  }
+
+  public static long getMaxExtrapolation() {
+    return maxExtrapolation;
+  }
+
+  /**
+   * Set how long a remote player is moved on with their last velocity if no new position arrived.
+   *
+   * @param maxExtrapolation time in milliseconds
+   */
+  public static void setMaxExtrapolation(long maxExtrapolation) {
+    NetPlayerMaster.maxExtrapolation = maxExtrapolation;
+  }
+
   /** Reset NetPlayerMaster before a new game. This will also reset the static part of NetPlayer. */
   public static void reset() {
     lobbyname = "";
     netPlayers.clear();
+    snapshots.clear();
     NetPlayer.reset();
   }
 }
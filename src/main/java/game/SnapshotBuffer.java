@@ -0,0 +1,108 @@
+package game;
+
+import org.joml.Vector2f;
+
+/**
+ * Recent positions of a remote player together with the time they were received. Remote players
+ * are shown a bit in the past, so there are usually two snapshots around the shown time and the
+ * position can be interpolated between them instead of jumping to every new position.
+ *
+ * <p>If the shown time is after the newest snapshot, the position is extrapolated with the last
+ * received velocity, but only for a limited time. After that the player is simulated locally.
+ */
+public class SnapshotBuffer {
+
+  private static final int CAPACITY = 16;
+
+  // Ring buffer, ordered by time
+  private final long[] times = new long[CAPACITY];
+  private final float[] posX = new float[CAPACITY];
+  private final float[] posY = new float[CAPACITY];
+  private int newest = -1;
+  private int count;
+  private final Vector2f velocity = new Vector2f();
+
+  /**
+   * Add the position of the player at a time. Snapshots older than the newest snapshot are
+   * ignored, the oldest snapshot is dropped if the buffer is full.
+   *
+   * @param time time of the position in milliseconds
+   * @param x world x position
+   * @param y world y position
+   */
+  public void add(long time, float x, float y) {
+    if (count > 0 && time < times[newest]) {
+      return;
+    }
+    newest = (newest + 1) % CAPACITY;
+    times[newest] = time;
+    posX[newest] = x;
+    posY[newest] = y;
+    count = Math.min(count + 1, CAPACITY);
+  }
+
+  /**
+   * Set the velocity used to extrapolate after the newest snapshot.
+   *
+   * @param x velocity in x direction in units per second
+   * @param y velocity in y direction in units per second
+   */
+  public void setVelocity(float x, float y) {
+    velocity.set(x, y);
+  }
+
+  /**
+   * Get the position of the player at a time.
+   *
+   * @param time time in milliseconds
+   * @param maxExtrapolation maximum time after the newest snapshot in milliseconds
+   * @param dest will contain the position if there is one
+   * @return false if there are no snapshots or the time is too far after the newest snapshot
+   */
+  public boolean sample(long time, long maxExtrapolation, Vector2f dest) {
+    if (count == 0) {
+      return false;
+    }
+    long ahead = time - times[newest];
+    if (ahead >= 0) {
+      if (ahead > maxExtrapolation) {
+        return false;
+      }
+      dest.set(velocity).mul(ahead / 1000f).add(posX[newest], posY[newest]);
+      return true;
+    }
+    // Find the newest snapshot that is not after the time
+    int later = newest;
+    for (int i = 1; i < count; i++) {
+      int earlier = (newest - i + CAPACITY) % CAPACITY;
+      if (times[earlier] <= time) {
+        float t = (float) (time - times[earlier]) / (times[later] - times[earlier]);
+        dest.set(
+            posX[earlier] + (posX[later] - posX[earlier]) * t,
+            posY[earlier] + (posY[later] - posY[earlier]) * t);
+        return true;
+      }
+      later = earlier;
+    }
+    // Older than all snapshots
+    dest.set(posX[later], posY[later]);
+    return true;
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /**
+   * Get the time of the newest snapshot.
+   *
+   * @return time in milliseconds or {@link Long#MIN_VALUE} if there are no snapshots
+   */
+  public long getNewestTime() {
+    return count == 0 ? Long.MIN_VALUE : times[newest];
+  }
+
+  public int size() {
+    return count;
+  }
+}
@@ -13,6 +13,7 @@ import entities.blocks.Block;
 import entities.blocks.BlockMaster;
 import entities.blocks.DirtBlock;
 import entities.blocks.StoneBlock;
+import entities.collision.BoundingBox;
 import game.Game;
 import game.NetPlayerMaster;
 import java.awt.Color;
@@ -32,6 +33,9 @@ import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javax.imageio.ImageIO;
+import net.packets.map.PacketMapRequest;
+import org.joml.Intersectionf;
+import org.joml.Vector2f;
 import org.joml.Vector2i;
 import org.joml.Vector3f;
 import org.slf4j.Logger;
@@ -41,13 +45,30 @@ import terrains.TerrainFlat;
 public class ClientMap extends GameMap<Block> {
 
   private static final Logger logger = LoggerFactory.getLogger(ClientMap.class);
+  /* Chunks above and below the player that have blocks, rows further away are unloaded */
+  private static final int windowChunks = 2;
 
   private boolean local;
+  private boolean loaded;
   private String[] lobbyMap;
+  private int mapHeight;
+  private TerrainTexturePack texturePack;
+  // Result of the ray box intersections, only used on the game thread
+  private final Vector2f rayResult = new Vector2f();
 
   private int terrainRows;
   private int terrainCols;
 
+  // Rows with blocks, the rows above and below are unloaded
+  private int loadedFrom;
+  private int loadedTo;
+  // Rows that are loaded when they arrive from the server, see updateWindow()
+  private int windowFrom;
+  private int windowTo = (windowChunks + 1) * chunkSize;
+  // Rows that were requested last, they are not requested again while they are on their way
+  private int requestedFrom;
+  private int requestedTo;
+
   /**
    * Generate a map for the client and generate the blocks in the world.
    *
@@ -62,6 +83,7 @@ public class ClientMap extends GameMap<Block> {
     local = true;
     blocks = new Block[width][height];
     generateMap();
+    loadedTo = height;
     checkFallingBlocks(true);
   }
 
@@ -109,18 +131,21 @@ public class ClientMap extends GameMap<Block> {
     }
   }
 
+  /**
+   * Check and move falling blocks of a local map. Falling blocks of a map from the server are
+   * computed by the server and applied with {@link #moveBlock(int, int, int)}.
+   */
   public void checkFallingBlocks() {
-    checkFallingBlocks(false);
+    if (local) {
+      checkFallingBlocks(false);
+    }
   }
 
   /**
-   * This will proably be done by the server exclusively and done via packets on client side. So
-   * this is temporary.
-   *
-   * <p>Add a random delay to falling blocks but make sure blocks below other blocks will always
-   * fall first.
+   * Add a random delay to falling blocks but make sure blocks below other blocks will always fall
+   * first.
    */
-  private void checkFallingBlocks(boolean instantUpdate) {
+  private synchronized void checkFallingBlocks(boolean instantUpdate) {
     boolean done;
     do {
       done = true;
@@ -137,15 +162,8 @@ public class ClientMap extends GameMap<Block> {
             // Stone block can fall, set a minimum delay of .5 seconds but randomize the actual
             Vector3f newPos = new Vector3f(b.getPosition().x, -(y + 1) * 6 - 3, b.getPosition().z);
             if (!instantUpdate) {
-              // delay
-              long seed = (long) (b.getPosition().x + b.getPosition().y);
-              float moveDelay = Math.max(.5f, (float) ((new Random(seed).nextGaussian() + 1) * 2));
-              // Never fall sooner than a block below, otherwise blocks could clip eachother
-              if (y + 2 < height && blocks[x][y + 2].getType() == BlockMaster.BlockTypes.STONE) {
-                moveDelay = Math.max(moveDelay, blocks[x][y + 2].getMoveDelay());
-              }
               // Queue the movement for the block. Move updating is done in the BlockMaster update.
-              b.setMoveTo(newPos, moveDelay);
+              b.setMoveTo(newPos, getMoveDelay(b, x, y + 1));
             } else {
               b.setMoveTo(newPos, 0);
               b.setPosition(newPos);
@@ -161,9 +179,76 @@ public class ClientMap extends GameMap<Block> {
     } while (!done);
   }
 
+  /**
+   * Set a minimum delay of .5 seconds for a falling block but randomize the actual delay.
+   *
+   * @param b the falling block
+   * @param x column of the block
+   * @param toY row the block falls to
+   * @return delay in seconds until the block starts falling
+   */
+  private float getMoveDelay(Block b, int x, int toY) {
+    long seed = (long) (b.getPosition().x + b.getPosition().y);
+    float moveDelay = Math.max(.5f, (float) ((new Random(seed).nextGaussian() + 1) * 2));
+    // Never fall sooner than a block below, otherwise blocks could clip eachother
+    if (toY + 1 < height
+        && blocks[x][toY + 1] != null
+        && blocks[x][toY + 1].getType() == BlockMaster.BlockTypes.STONE) {
+      moveDelay = Math.max(moveDelay, blocks[x][toY + 1].getMoveDelay());
+    }
+    return moveDelay;
+  }
+
+  /**
+   * Let a block fall down to another row. The falls are computed by the server and sent with
+   * {@link net.packets.block.PacketBlockDelta}, the rows in between must be empty.
+   *
+   * <p>Only stones fall, so a block that falls out of an unloaded row is created as a stone. A
+   * block that falls into an unloaded row is removed.
+   *
+   * @param x column of the block
+   * @param fromY row the block falls from
+   * @param toY row the block falls to
+   */
+  public synchronized void moveBlock(int x, int fromY, int toY) {
+    if (toY <= fromY) {
+      return;
+    }
+    if (!isLoaded(fromY)) {
+      if (isLoaded(toY)) {
+        blocks[x][toY].remove();
+        blocks[x][toY] =
+            BlockMaster.generateBlock(
+                BlockMaster.BlockTypes.STONE,
+                new Vector3f(x * dim + 3, -toY * dim - size, (float) size),
+                x,
+                toY);
+      }
+      return;
+    }
+    Block b = blocks[x][fromY];
+    if (b == null || b.getType() == BlockMaster.BlockTypes.AIR) {
+      return;
+    }
+    if (!isLoaded(toY)) {
+      b.remove();
+      blocks[x][fromY] = new AirBlock(x, fromY);
+      return;
+    }
+    Vector3f newPos = new Vector3f(b.getPosition().x, -toY * dim - size, b.getPosition().z);
+    b.setMoveTo(newPos, getMoveDelay(b, x, toY));
+    // Update the grid
+    blocks[x][toY] = b;
+    b.setGridY(toY);
+    blocks[x][fromY] = new AirBlock(x, fromY);
+  }
+
   @Override
   public void damageBlock(int clientId, int blockX, int blockY, float damage) {
-    blocks[blockX][blockY].increaseDamage(clientId, damage);
+    // Blocks of unloaded rows get their damage from the server when they are loaded again
+    if (isLoaded(blockY)) {
+      blocks[blockX][blockY].increaseDamage(clientId, damage);
+    }
   }
 
   /**
@@ -178,29 +263,21 @@ public class ClientMap extends GameMap<Block> {
 
     // Kill old map
     for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        blocks[x][y].remove();
-      }
+      unloadRow(y);
     }
 
-    // Create new map
+    // Create new map, only the rows at the top get blocks
     width = lobbyMap[0].length();
     height = lobbyMap.length;
     blocks = new Block[width][height];
-    for (int y = 0; y < lobbyMap.length; y++) {
-      char[] line = lobbyMap[y].toCharArray();
-      for (int x = 0; x < line.length; x++) {
-        int type = Character.getNumericValue(line[x]);
-        float posX = x * dim + 3;
-        float posY = -y * dim - size;
-        blocks[x][y] =
-            BlockMaster.generateBlock(
-                BlockMaster.BlockTypes.getBlockTypeById(type),
-                new Vector3f(posX, posY, (float) size),
-                x,
-                y);
-      }
-    }
+    windowFrom = 0;
+    windowTo = (windowChunks + 1) * chunkSize;
+    loadedFrom = 0;
+    loadedTo = Math.min(height, windowTo);
+    requestedFrom = 0;
+    requestedTo = 0;
+    generateRows(blocks, Arrays.copyOf(lobbyMap, loadedTo), 0);
+    loaded = true;
 
     // Create procedurally generated hills
     Random rnd = new Random(seed); // seed is broadcast by the server
@@ -254,6 +331,199 @@ public class ClientMap extends GameMap<Block> {
     }
   }
 
+  /**
+   * Create the blocks for some rows of the map.
+   *
+   * @param target block grid to put the blocks in
+   * @param rows block ids of the rows, every row is a string with one digit per block
+   * @param fromRow row of the first string
+   */
+  private void generateRows(Block[][] target, String[] rows, int fromRow) {
+    for (int i = 0; i < rows.length; i++) {
+      int y = fromRow + i;
+      char[] line = rows[i].toCharArray();
+      for (int x = 0; x < line.length; x++) {
+        int type = Character.getNumericValue(line[x]);
+        float posX = x * dim + 3;
+        float posY = -y * dim - size;
+        target[x][y] =
+            BlockMaster.generateBlock(
+                BlockMaster.BlockTypes.getBlockTypeById(type),
+                new Vector3f(posX, posY, (float) size),
+                x,
+                y);
+      }
+    }
+  }
+
+  /**
+   * Add rows to the bottom of the map. The server sends new rows while the players dig deeper, see
+   * {@link net.packets.map.PacketMapChunk}. Rows must be validated by the packet.
+   *
+   * <p>If the round has not started yet, the rows are added to the map that gets loaded at the
+   * start of the round. Rows the map already has are skipped. If rows are missing in between, the
+   * new rows are dropped and the missing rows are requested from the server, the answer contains
+   * the dropped rows too.
+   *
+   * <p>Blocks are only created for the rows in the window around the player that connect to the
+   * loaded rows. The other rows are only counted, they are requested again when the player gets
+   * close to them, see {@link #updateWindow(float)}.
+   *
+   * @param fromRow row of the first new row
+   * @param mapHeight height of the full map on the server
+   * @param rows block ids of the new rows
+   */
+  public synchronized void addRows(int fromRow, int mapHeight, String[] rows) {
+    this.mapHeight = mapHeight;
+    if (!loaded) {
+      // The server sends the map before any chunk of it, rows without a map are part of the map
+      if (lobbyMap != null && lobbyMap.length > 0 && lobbyMap[0].length() == rows[0].length()) {
+        String[] extended = appendRows(lobbyMap, fromRow, rows);
+        if (extended == null) {
+          requestRows(lobbyMap.length, fromRow);
+        } else {
+          lobbyMap = extended;
+        }
+      }
+      return;
+    }
+    if (rows[0].length() != width) {
+      logger.warn("Ignoring map rows " + fromRow + " to " + (fromRow + rows.length));
+      return;
+    }
+    if (fromRow > height) {
+      requestRows(height, fromRow);
+      return;
+    }
+    int toRow = fromRow + rows.length;
+    if (toRow > height) {
+      for (int x = 0; x < width; x++) {
+        blocks[x] = Arrays.copyOf(blocks[x], toRow);
+      }
+      height = toRow;
+    }
+    // Grow the loaded rows up and down as far as the new rows and the window reach
+    if (fromRow < loadedFrom && toRow >= loadedFrom && windowFrom < loadedFrom) {
+      int from = Math.max(fromRow, windowFrom);
+      generateRows(blocks, Arrays.copyOfRange(rows, from - fromRow, loadedFrom - fromRow), from);
+      loadedFrom = from;
+    }
+    if (toRow > loadedTo && fromRow <= loadedTo && windowTo > loadedTo) {
+      int to = Math.min(toRow, windowTo);
+      generateRows(blocks, Arrays.copyOfRange(rows, loadedTo - fromRow, to - fromRow), loadedTo);
+      loadedTo = to;
+    }
+    if (fromRow <= requestedFrom && toRow >= requestedTo) {
+      // The requested rows arrived
+      requestedFrom = 0;
+      requestedTo = 0;
+    }
+  }
+
+  /**
+   * Load the rows close to a position and unload the rest. Called every frame with the position of
+   * the player. Rows that are not loaded are requested from the server, they are loaded when they
+   * arrive.
+   *
+   * <p>Rows are loaded up to {@link #windowChunks} chunks above and below the chunk of the player.
+   * They are only unloaded one chunk further away, so walking along the border of a chunk does not
+   * load and unload the same rows all the time.
+   *
+   * @param posY world y coordinate of the player
+   */
+  public synchronized void updateWindow(float posY) {
+    if (local || !loaded) {
+      return;
+    }
+    int chunk = Math.max(0, (int) Math.floor(-posY / dim)) / chunkSize;
+    windowFrom = Math.max(0, (chunk - windowChunks) * chunkSize);
+    windowTo = (chunk + windowChunks + 1) * chunkSize;
+    int keepFrom = windowFrom - chunkSize;
+    int keepTo = windowTo + chunkSize;
+    if (loadedFrom >= loadedTo || loadedTo <= keepFrom || loadedFrom >= keepTo) {
+      // Nothing close is loaded
+      for (int y = loadedFrom; y < loadedTo; y++) {
+        unloadRow(y);
+      }
+      loadedFrom = windowFrom;
+      loadedTo = windowFrom;
+    }
+    for (; loadedFrom < keepFrom; loadedFrom++) {
+      unloadRow(loadedFrom);
+    }
+    for (; loadedTo > keepTo; loadedTo--) {
+      unloadRow(loadedTo - 1);
+    }
+    int from = Math.min(windowFrom, loadedFrom);
+    int to = Math.min(windowTo, height);
+    if (from < loadedFrom) {
+      to = loadedFrom;
+    } else if (loadedTo < to) {
+      from = loadedTo;
+    } else {
+      return;
+    }
+    if (from < requestedFrom || to > requestedTo) {
+      requestedFrom = from;
+      requestedTo = to;
+      new PacketMapRequest(from, to).sendToServer();
+    }
+  }
+
+  /** Remove the blocks of a row from the world. */
+  private void unloadRow(int y) {
+    for (int x = 0; x < width; x++) {
+      if (blocks[x][y] != null) {
+        blocks[x][y].remove();
+        blocks[x][y] = null;
+      }
+    }
+  }
+
+  /**
+   * Check if a row has blocks. Rows far away from the player are unloaded.
+   *
+   * @param y row of the map
+   * @return true if the blocks of the row exist
+   */
+  private boolean isLoaded(int y) {
+    return y >= loadedFrom && y < loadedTo;
+  }
+
+  /**
+   * Append streamed rows to the rows of a map that is not loaded yet. Rows that are already there
+   * are skipped.
+   *
+   * @param rows rows of the map
+   * @param fromRow row of the first new row
+   * @param newRows block ids of the new rows
+   * @return the extended rows or null if rows are missing in between
+   */
+  public static String[] appendRows(String[] rows, int fromRow, String[] newRows) {
+    if (fromRow > rows.length) {
+      return null;
+    }
+    int known = rows.length - fromRow;
+    if (known >= newRows.length) {
+      return rows;
+    }
+    String[] extended = Arrays.copyOf(rows, fromRow + newRows.length);
+    System.arraycopy(newRows, known, extended, rows.length, newRows.length - known);
+    return extended;
+  }
+
+  /**
+   * Request the rows of the map from the server that got lost, e.g. if a chunk arrived before the
+   * map.
+   *
+   * @param fromRow first missing row
+   * @param receivedRow first row of the chunk that did not connect to the map
+   */
+  public static void requestRows(int fromRow, int receivedRow) {
+    logger.warn("Missing map rows " + fromRow + " to " + receivedRow + ", requesting them.");
+    new PacketMapRequest(fromRow).sendToServer();
+  }
+
   /**
    * Create a buffered RGB image of a game map chunk.
    *
@@ -343,6 +613,40 @@ public class ClientMap extends GameMap<Block> {
    * @return a 2D array containing the full terrain for the map
    */
   public TerrainFlat[][] generateTerrains(Loader loader) {
+    return extendTerrains(loader, null);
+  }
+
+  /**
+   * Check if rows got loaded that don't have terrain yet.
+   *
+   * @return true if the terrain can be extended
+   */
+  public boolean hasNewTerrainRows() {
+    return terrainRows * terrainChunk < getTerrainHeight();
+  }
+
+  /**
+   * Get the rows from the top that can have terrain. The terrain is created from the blocks, so it
+   * can only grow into rows that are loaded.
+   */
+  private int getTerrainHeight() {
+    int rows = terrainRows * terrainChunk;
+    if (loadedFrom <= rows && loadedTo > rows) {
+      rows = loadedTo - loadedTo % terrainChunk;
+    }
+    return rows;
+  }
+
+  /**
+   * Extend the terrain chunks to the current size of the map. Chunks that already exist are kept,
+   * only the chunks for new rows are generated. Rows that are not loaded get their terrain when
+   * they are loaded.
+   *
+   * @param loader main Loader
+   * @param terrains existing terrain chunks or null
+   * @return a 2D array containing the full terrain for the map
+   */
+  public TerrainFlat[][] extendTerrains(Loader loader, TerrainFlat[][] terrains) {
 
     // Verify Map Dimensions
     if (width % terrainChunk != 0 || height % terrainChunk != 0) {
@@ -353,24 +657,31 @@ public class ClientMap extends GameMap<Block> {
     }
 
     // Prepare Textures
-    TerrainTexture dirt = new TerrainTexture(loader.loadTexture("Erde512x512"));
-    TerrainTexture stone = new TerrainTexture(loader.loadTexture("Stein512x512"));
-    TerrainTexture gold = new TerrainTexture(loader.loadTexture("GoldBraun512x512"));
-    TerrainTexture obsidian = new TerrainTexture(loader.loadTexture("Obsidian"));
-
-    TerrainTexturePack texturePack = new TerrainTexturePack(dirt, stone, gold, obsidian);
+    if (texturePack == null) {
+      TerrainTexture dirt = new TerrainTexture(loader.loadTexture("Erde512x512"));
+      TerrainTexture stone = new TerrainTexture(loader.loadTexture("Stein512x512"));
+      TerrainTexture gold = new TerrainTexture(loader.loadTexture("GoldBraun512x512"));
+      TerrainTexture obsidian = new TerrainTexture(loader.loadTexture("Obsidian"));
+      texturePack = new TerrainTexturePack(dirt, stone, gold, obsidian);
+    }
 
     // Generate Terrains
-    terrainRows = height / terrainChunk;
-    terrainCols = width / terrainChunk;
-    TerrainFlat[][] terrains = new TerrainFlat[terrainCols][terrainRows];
-    for (int i = 0; i < terrainCols; i++) {
-      for (int j = 0; j < terrainRows; j++) {
-        TerrainTexture blendMap = new TerrainTexture(loader.loadTexture(this, j, i));
-        terrains[i][j] = new TerrainFlat(i, -j, loader, texturePack, blendMap);
+    int rows = getTerrainHeight() / terrainChunk;
+    int cols = width / terrainChunk;
+    TerrainFlat[][] extended = new TerrainFlat[cols][rows];
+    for (int i = 0; i < cols; i++) {
+      for (int j = 0; j < rows; j++) {
+        if (terrains != null && i < terrains.length && j < terrains[i].length) {
+          extended[i][j] = terrains[i][j];
+        } else {
+          TerrainTexture blendMap = new TerrainTexture(loader.loadTexture(this, j, i));
+          extended[i][j] = new TerrainFlat(i, -j, loader, texturePack, blendMap);
+        }
       }
     }
-    return terrains;
+    terrainRows = rows;
+    terrainCols = cols;
+    return extended;
   }
 
   /**
@@ -380,7 +691,9 @@ public class ClientMap extends GameMap<Block> {
    * @return light level in percent [0, 1]
    */
   public float getLightLevel(float playerPosY) {
-    float pctLevel = 1 - (-playerPosY / (height * dim));
+    // Use the height of the full map, not only of the rows the server has sent so far. The
+    // height comes with the map, so rows that did not arrive yet are as dark as on the server
+    float pctLevel = 1 - (-playerPosY / (Math.max(height, mapHeight) * dim));
     return (float) Math.max(0.15, (float) Math.pow(pctLevel, 4));
   }
 
@@ -405,7 +718,7 @@ public class ClientMap extends GameMap<Block> {
         if (x == ignoreCol) {
           continue;
         }
-        if (blocks[x][y].getType() == BlockMaster.BlockTypes.AIR) {
+        if (blocks[x][y] != null && blocks[x][y].getType() == BlockMaster.BlockTypes.AIR) {
           airBlocks.add((AirBlock) blocks[x][y]);
         }
       }
@@ -413,6 +726,222 @@ public class ClientMap extends GameMap<Block> {
     return airBlocks;
   }
 
+  /**
+   * Collect the blocks with a center close to a world position. Only the cells of the grid around
+   * the position are checked, so the cost does not depend on the size of the map. Falling blocks
+   * are found at their current position, not at the cell they fall to. Air and destroyed blocks
+   * are skipped.
+   *
+   * @param x world x coordinate
+   * @param y world y coordinate
+   * @param radius maximum 2D distance between the position and the center of a block
+   * @param dest list for the blocks, it is cleared first
+   * @return dest
+   */
+  public synchronized List<Block> getBlocksNear(float x, float y, float radius, List<Block> dest) {
+    dest.clear();
+    collectBlocks(x - radius, y - radius, x + radius, y + radius, true, dest);
+    return dest;
+  }
+
+  /**
+   * Collect the blocks with a bounding box that overlaps a 2D box. Works like {@link
+   * #getBlocksNear(float, float, float, List)}.
+   *
+   * @param minX left side of the box in world coordinates
+   * @param minY bottom of the box in world coordinates
+   * @param maxX right side of the box in world coordinates
+   * @param maxY top of the box in world coordinates
+   * @param dest list for the blocks, it is cleared first
+   * @return dest
+   */
+  public synchronized List<Block> getBlocksInBox(
+      float minX, float minY, float maxX, float maxY, List<Block> dest) {
+    dest.clear();
+    collectBlocks(minX, minY, maxX, maxY, false, dest);
+    return dest;
+  }
+
+  /**
+   * Check the blocks of the grid cells that touch a box and the moving blocks.
+   *
+   * @param range true to check the distance to the center of the box, false to check for overlap
+   */
+  private void collectBlocks(
+      float minX, float minY, float maxX, float maxY, boolean range, List<Block> dest) {
+    // Grid rows increase downwards, a block reaches size units out of its cell
+    int fromX = Math.max(0, (int) Math.floor((minX - size) / dim));
+    int toX = Math.min(width - 1, (int) Math.floor((maxX + size) / dim));
+    int fromY = Math.max(0, (int) Math.floor((-maxY - size) / dim));
+    int toY = Math.min(height - 1, (int) Math.floor((-minY + size) / dim));
+    for (int gridX = fromX; gridX <= toX; gridX++) {
+      for (int gridY = fromY; gridY <= toY; gridY++) {
+        addIfInside(blocks[gridX][gridY], minX, minY, maxX, maxY, range, dest);
+      }
+    }
+    // Falling blocks are already in the cell they fall to
+    for (Block block : BlockMaster.getMovingBlocks()) {
+      int gridX = block.getGridX();
+      int gridY = block.getGridY();
+      if (gridX < fromX || gridX > toX || gridY < fromY || gridY > toY) {
+        addIfInside(block, minX, minY, maxX, maxY, range, dest);
+      }
+    }
+  }
+
+  private static void addIfInside(
+      Block block,
+      float minX,
+      float minY,
+      float maxX,
+      float maxY,
+      boolean range,
+      List<Block> dest) {
+    if (block == null || block.isDestroyed() || block.getType() == BlockMaster.BlockTypes.AIR) {
+      return;
+    }
+    if (range) {
+      float radius = (maxX - minX) / 2;
+      float dx = block.getPosition().x - (minX + radius);
+      float dy = block.getPosition().y - (minY + radius);
+      if (dx * dx + dy * dy <= radius * radius) {
+        dest.add(block);
+      }
+    } else {
+      BoundingBox box = block.getBbox();
+      if (box != null
+          && box.getMinX() <= maxX
+          && box.getMaxX() >= minX
+          && box.getMinY() <= maxY
+          && box.getMaxY() >= minY) {
+        dest.add(block);
+      }
+    }
+  }
+
+  /**
+   * Find the first block hit by a ray. The ray walks through the cells of the map grid in the
+   * order it passes them (Amanatides-Woo) and stops at the first block, so only the cells along the
+   * ray are checked. Falling blocks are not in the cell they are drawn in and are checked one by
+   * one.
+   *
+   * @param origin start of the ray in world coordinates, usually the camera position
+   * @param direction direction of the ray
+   * @param hit stores the block, the point and the face that were hit
+   * @return true if a block was hit
+   */
+  public synchronized boolean raycast(Vector3f origin, Vector3f direction, RaycastHit hit) {
+    hit.clear();
+    // Only follow the ray between the front (z = dim) and the back (z = 0) of the blocks
+    float enter = 0;
+    float exit = Float.POSITIVE_INFINITY;
+    if (direction.z != 0) {
+      float front = (dim - origin.z) / direction.z;
+      float back = -origin.z / direction.z;
+      enter = Math.max(0, Math.min(front, back));
+      exit = Math.max(front, back);
+    } else if (origin.z < 0 || origin.z > dim) {
+      exit = -1;
+    }
+    if (exit >= enter) {
+      walkGrid(origin, direction, enter, exit, hit);
+    }
+    for (Block block : BlockMaster.getMovingBlocks()) {
+      checkRayHit(block, origin, direction, hit);
+    }
+    return hit.getBlock() != null;
+  }
+
+  /** Walk the cells the ray passes between enter and exit until a block is hit. */
+  private void walkGrid(
+      Vector3f origin, Vector3f direction, float enter, float exit, RaycastHit hit) {
+    float x = origin.x + direction.x * enter;
+    float y = origin.y + direction.y * enter;
+    int gridX = (int) Math.floor(x / dim);
+    int gridY = (int) Math.floor(-y / dim);
+    // Grid rows increase downwards
+    int stepX = direction.x > 0 ? 1 : -1;
+    int stepY = direction.y < 0 ? 1 : -1;
+    float deltaX = direction.x == 0 ? Float.POSITIVE_INFINITY : dim / Math.abs(direction.x);
+    float deltaY = direction.y == 0 ? Float.POSITIVE_INFINITY : dim / Math.abs(direction.y);
+    // Distance along the ray to the next vertical and horizontal cell border
+    float nextX =
+        direction.x == 0
+            ? Float.POSITIVE_INFINITY
+            : enter + ((gridX + (stepX > 0 ? 1 : 0)) * dim - x) / direction.x;
+    float nextY =
+        direction.y == 0
+            ? Float.POSITIVE_INFINITY
+            : enter + (-(gridY + (stepY > 0 ? 1 : 0)) * dim - y) / direction.y;
+    float t = enter;
+    while (t <= exit) {
+      if (gridX >= 0 && gridX < width && gridY >= 0 && gridY < height) {
+        Block block = blocks[gridX][gridY];
+        if (block != null
+            && !BlockMaster.getMovingBlocks().contains(block)
+            && checkRayHit(block, origin, direction, hit)) {
+          return;
+        }
+      }
+      // Stop once the ray left the map for good
+      if ((stepX > 0 ? gridX >= width : gridX < 0) || (stepY > 0 ? gridY >= height : gridY < 0)) {
+        return;
+      }
+      if (nextX < nextY) {
+        t = nextX;
+        nextX += deltaX;
+        gridX += stepX;
+      } else {
+        t = nextY;
+        nextY += deltaY;
+        gridY += stepY;
+      }
+    }
+  }
+
+  /**
+   * Intersect the ray with the bounding box of a block and keep the hit if it is the closest.
+   *
+   * @return true if the block was hit and is the closest hit so far
+   */
+  private boolean checkRayHit(Block block, Vector3f origin, Vector3f direction, RaycastHit hit) {
+    BoundingBox box = block.getBbox();
+    if (box == null || block.isDestroyed() || block.getType() == BlockMaster.BlockTypes.AIR) {
+      return false;
+    }
+    if (!Intersectionf.intersectRayAab(
+            origin.x,
+            origin.y,
+            origin.z,
+            direction.x,
+            direction.y,
+            direction.z,
+            box.getMinX(),
+            box.getMinY(),
+            box.getMinZ(),
+            box.getMaxX(),
+            box.getMaxY(),
+            box.getMaxZ(),
+            rayResult)
+        || rayResult.x >= hit.getDistance()) {
+      return false;
+    }
+    hit.set(block, rayResult.x, origin, direction);
+    // The face is the side of the box that is closest to the hit point
+    Vector3f point = hit.getPoint();
+    float toX = Math.min(point.x - box.getMinX(), box.getMaxX() - point.x);
+    float toY = Math.min(point.y - box.getMinY(), box.getMaxY() - point.y);
+    float toZ = Math.min(point.z - box.getMinZ(), box.getMaxZ() - point.z);
+    if (toX <= toY && toX <= toZ) {
+      hit.setNormal(point.x < (box.getMinX() + box.getMaxX()) / 2 ? -1 : 1, 0, 0);
+    } else if (toY <= toZ) {
+      hit.setNormal(0, point.y < (box.getMinY() + box.getMaxY()) / 2 ? -1 : 1, 0);
+    } else {
+      hit.setNormal(0, 0, point.z < (box.getMinZ() + box.getMaxZ()) / 2 ? -1 : 1);
+    }
+    return true;
+  }
+
   /**
    * Replace a block with an empty (Air) block. Essentialy deleting it for the map grid.
    *
@@ -422,9 +951,17 @@ public class ClientMap extends GameMap<Block> {
     blocks[gridPos.x][gridPos.y] = new AirBlock(gridPos.x, gridPos.y);
   }
 
-  public void setLobbyMap(String[] lobbyMap) {
+  /**
+   * Set the map from the server that gets loaded at the start of the round.
+   *
+   * @param lobbyMap block ids of the rows the server generated so far
+   * @param mapHeight height of the full map on the server
+   */
+  public synchronized void setLobbyMap(String[] lobbyMap, int mapHeight) {
     this.lobbyMap = lobbyMap;
+    this.mapHeight = mapHeight;
     this.local = false;
+    this.loaded = false;
   }
 
   /**
@@ -1,6 +1,8 @@
 package game.map;
 
 import entities.Player;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.joml.SimplexNoise;
 import org.joml.Vector2i;
 import org.joml.Vector3f;
@@ -19,6 +21,13 @@ public abstract class GameMap<T> {
   protected static final int dim = 6;
   protected static final int size = 3;
   protected static final int terrainChunk = 8;
+  /* Maps are generated and sent to the clients in bands of this many rows */
+  protected static final int chunkSize = 16;
+  /* Maps with fewer cells are faster to generate on the calling thread than to split up */
+  private static final int parallelThreshold = 4096;
+  private static int generationThreads =
+      Integer.getInteger("mapGenerationThreads", Runtime.getRuntime().availableProcessors());
+  private static ForkJoinPool generationPool;
   /* Threshold function:
    * Values below first number will be STONE
    * Values between the first and second number will be DIRT BLOCKS
@@ -47,6 +56,12 @@ public abstract class GameMap<T> {
     } else if (mapSize.equals("l")) {
       this.width = 64;
       this.height = 48;
+    } else if (mapSize.equals("xl")) {
+      this.width = 96;
+      this.height = 128;
+    } else if (mapSize.equals("xxl")) {
+      this.width = 128;
+      this.height = 256;
     } else {
       this.width = 32;
       this.height = 48;
@@ -54,6 +69,41 @@ public abstract class GameMap<T> {
     this.seed = (long) (seed % 1e6);
   }
 
+  /**
+   * Check if a map size is known to the server and the client.
+   *
+   * @param mapSize size of the map
+   * @return true for "s", "m", "l", "xl" and "xxl"
+   */
+  public static boolean isValidMapSize(String mapSize) {
+    return mapSize.equals("s")
+        || mapSize.equals("m")
+        || mapSize.equals("l")
+        || mapSize.equals("xl")
+        || mapSize.equals("xxl");
+  }
+
+  /**
+   * Set the number of threads that generate the noise map. With one thread, the noise map is
+   * generated on the calling thread.
+   *
+   * <p>Generations that are running keep the old pool, only later generations get a new one. The
+   * old pool is not shut down, its idle worker threads are daemons and end on their own.
+   *
+   * @param threads number of threads, at least 1
+   */
+  public static synchronized void setGenerationThreads(int threads) {
+    generationThreads = Math.max(1, threads);
+    generationPool = null;
+  }
+
+  private static synchronized ForkJoinPool getGenerationPool() {
+    if (generationPool == null) {
+      generationPool = new ForkJoinPool(generationThreads);
+    }
+    return generationPool;
+  }
+
   public static int getSize() {
     return size;
   }
@@ -66,33 +116,79 @@ public abstract class GameMap<T> {
     return terrainChunk;
   }
 
+  public static int getChunkSize() {
+    return chunkSize;
+  }
+
   abstract void generateMap();
 
   abstract void damageBlock(int clientId, int posX, int posY, float damage);
 
   /**
-   * Generates a noise map for map generation.
+   * Generates a noise map for the whole map.
    *
    * @return the noise map for the specified random generator
    */
   protected float[][] generateNoiseMap() {
-    // Generate Noise here
+    noiseMap = generateNoiseMap(0, height);
+    return noiseMap;
+  }
+
+  /**
+   * Generates the noise for a band of rows. Large bands are split into bands of columns that are
+   * generated in parallel. Every cell only depends on its coordinates and the seed, so the result
+   * is the same for any number of threads and any split into row bands.
+   *
+   * @param fromY first row (inclusive)
+   * @param toY last row (exclusive)
+   * @return the noise, indexed [x][y - fromY]
+   */
+  protected float[][] generateNoiseMap(int fromY, int toY) {
+    float[][] noise = new float[width][toY - fromY];
+    ForkJoinPool pool = null;
+    if (width * (toY - fromY) >= parallelThreshold) {
+      synchronized (GameMap.class) {
+        if (generationThreads > 1) {
+          pool = getGenerationPool();
+        }
+      }
+    }
+    if (pool == null) {
+      generateNoise(noise, fromY, 0, width);
+    } else {
+      int minBand = Math.max(1, width / (pool.getParallelism() * 4));
+      pool.invoke(new NoiseBand(noise, fromY, 0, width, minBand));
+    }
+    return noise;
+  }
+
+  /**
+   * Fill the columns of a noise band in a range.
+   *
+   * @param noise noise band to fill
+   * @param fromY map row of the first row of the band
+   * @param fromX first column (inclusive)
+   * @param toX last column (exclusive)
+   */
+  private void generateNoise(float[][] noise, int fromY, int fromX, int toX) {
     int radius = 4; // "Smoothing" of noise
-    noiseMap = new float[width][height];
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
+    for (int x = fromX; x < toX; x++) {
+      float[] column = noise[x];
+      for (int i = 0; i < column.length; i++) {
+        int y = fromY + i;
         float dx = (x + seed - radius) / (float) radius;
         float dy = (y + seed - radius) / (float) radius;
-        noiseMap[x][y] = (SimplexNoise.noise(dx, dy) + 1) / 2;
+        column[i] = (SimplexNoise.noise(dx, dy) + 1) / 2;
       }
     }
-    return noiseMap;
   }
 
   @Override
   public String toString() {
     StringBuilder map = new StringBuilder();
-    for (int y = 0; y < height; y++) {
+    // Rows that are not generated yet are missing or empty
+    int rows = width == 0 ? height : Math.min(height, blocks[0].length);
+    for (int y = 0; y < rows && (width == 0 || blocks[0][y] != null); y++) {
       for (int x = 0; x < width; x++) {
         map.append(blocks[x][y].toString());
       }
@@ -125,4 +221,34 @@ public abstract class GameMap<T> {
   public void setSeed(long seed) {
     this.seed = seed;
   }
+
+  /** Splits the columns of a noise band in halves until the bands are small enough. */
+  private class NoiseBand extends RecursiveAction {
+
+    private final float[][] noise;
+    private final int fromY;
+    private final int fromX;
+    private final int toX;
+    private final int minBand;
+
+    private NoiseBand(float[][] noise, int fromY, int fromX, int toX, int minBand) {
+      this.noise = noise;
+      this.fromY = fromY;
+      this.fromX = fromX;
+      this.toX = toX;
+      this.minBand = minBand;
+    }
+
+    @Override
+    protected void compute() {
+      if (toX - fromX <= minBand) {
+        generateNoise(noise, fromY, fromX, toX);
+      } else {
+        int mid = (fromX + toX) >>> 1;
+        invokeAll(
+            new NoiseBand(noise, fromY, fromX, mid, minBand),
+            new NoiseBand(noise, fromY, mid, toX, minBand));
+      }
+    }
+  }
 }
@@ -0,0 +1,70 @@
+package game.map;
+
+import entities.blocks.Block;
+import org.joml.Vector3f;
+
+/**
+ * The first block hit by a ray, see {@link ClientMap#raycast(Vector3f, Vector3f, RaycastHit)}. The
+ * same object can be reused for every ray cast.
+ */
+public class RaycastHit {
+
+  private final Vector3f point = new Vector3f();
+  private final Vector3f normal = new Vector3f();
+  private Block block;
+  private float distance;
+
+  /**
+   * Store a hit.
+   *
+   * @param block block that was hit
+   * @param distance distance along the ray in multiples of the ray direction
+   * @param origin origin of the ray
+   * @param direction direction of the ray
+   */
+  void set(Block block, float distance, Vector3f origin, Vector3f direction) {
+    this.block = block;
+    this.distance = distance;
+    point.set(direction).mul(distance).add(origin);
+  }
+
+  void setNormal(float x, float y, float z) {
+    normal.set(x, y, z);
+  }
+
+  void clear() {
+    block = null;
+    distance = Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Get the block that was hit.
+   *
+   * @return the block or null if the ray didn't hit a block
+   */
+  public Block getBlock() {
+    return block;
+  }
+
+  /**
+   * Get the point where the ray enters the block.
+   *
+   * @return world coordinates of the hit, don't modify
+   */
+  public Vector3f getPoint() {
+    return point;
+  }
+
+  /**
+   * Get the direction the hit face of the block points to.
+   *
+   * @return unit vector along one of the axes, don't modify
+   */
+  public Vector3f getNormal() {
+    return normal;
+  }
+
+  public float getDistance() {
+    return distance;
+  }
+}
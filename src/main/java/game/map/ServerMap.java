@@ -2,23 +2,42 @@ package game.map;
 
 import entities.blocks.BlockMaster;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import net.ServerLogic;
 import net.packets.block.PacketBlockDamage;
+import net.packets.map.PacketBroadcastMap;
+import net.packets.map.PacketMapChunk;
+import org.joml.Vector2f;
+import org.joml.Vector2i;
+import org.joml.Vector3f;
 
 public class ServerMap extends GameMap<ServerBlock> {
 
+  /* Rows that are generated with the map, the rest is generated when players dig deeper */
+  private static final int initialChunks = 2;
+  /* Chunks that are generated below the deepest player */
+  private static final int lookaheadChunks = 2;
+
+  private int generatedRows;
+  // Block changes since the last tick, see PacketBlockDelta
+  private final StringBuilder blockChanges = new StringBuilder();
+
   /**
-   * Generate a new map for the Server.
+   * Generate a new map for the Server. Only the first chunks are generated right away, see {@link
+   * #explore(Vector2f, int)}. The block array grows with the generated rows.
    *
    * @param mapSize size of the map
    * @param seed random seed
    */
   public ServerMap(String mapSize, long seed) {
     super(mapSize, seed);
-    blocks = new ServerBlock[width][height];
+    blocks = new ServerBlock[width][0];
     generateMap();
-    checkFallingBlocks();
   }
 
   /*/**
@@ -33,58 +52,224 @@ public class ServerMap extends GameMap<ServerBlock> {
 
   @Override
   void generateMap() {
-    Random rng = new Random(seed);
-    float[][] noiseMap = generateNoiseMap();
+    generateRows(initialChunks * chunkSize - 1);
+  }
 
-    /* Threshold function
-     */
-    for (int y = 0; y < height; y++) {
+  /**
+   * Generate chunks until a row is generated. Chunks are always generated from top to bottom. A
+   * chunk has its own random generator, so it only depends on the seed and its position.
+   *
+   * <p>Stones in the last generated row never fall into a new chunk, an air block below them is
+   * replaced with dirt. Clients already have the rows above, so they must not change.
+   *
+   * @param gridY row that must be generated
+   * @return true if new rows were generated
+   */
+  public synchronized boolean generateRows(int gridY) {
+    int toRow = Math.min(height, (gridY / chunkSize + 1) * chunkSize);
+    if (toRow <= generatedRows) {
+      return false;
+    }
+    int fromRow = generatedRows;
+    for (int x = 0; x < width; x++) {
+      blocks[x] = Arrays.copyOf(blocks[x], toRow);
+    }
+    float[][] noiseMap = generateNoiseMap(fromRow, toRow);
+    for (int chunkY = fromRow; chunkY < toRow; chunkY += chunkSize) {
+      Random rng = new Random(seed * 31 + chunkY / chunkSize);
+      for (int y = chunkY; y < Math.min(toRow, chunkY + chunkSize); y++) {
+        for (int x = 0; x < width; x++) {
+          blocks[x][y] = generateBlock(x, y, noiseMap[x][y - fromRow], rng);
+        }
+      }
+    }
+    if (fromRow > 0) {
       for (int x = 0; x < width; x++) {
-        if ((x == 0 || x == width - 1) || y == height - 1) {
-          blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.OBSIDIAN, x, y);
-        } else if (y == height - 2) {
-          blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.GOLD, x, y);
-          blocks[x][y].setGoldValue(135 + y * 5);
-        } else if (noiseMap[x][y] < thresholds[0]) {
-          blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.STONE, x, y); // Air
-        } else {
-          if (rng.nextFloat() < .07f) {
-            blocks[x][y] =
-                new ServerBlock(BlockMaster.BlockTypes.GOLD, x, y); // Gold: 1 in 40 chance
-            blocks[x][y].setGoldValue(135 + y * 5);
-          } else if (rng.nextFloat() < .05f) {
-            blocks[x][y] =
-                new ServerBlock(BlockMaster.BlockTypes.QMARK, x, y); // Item Block: 1 in 50 chance
-          } else if (noiseMap[x][y] < thresholds[1]) {
-            blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.DIRT, x, y); // Dirt
-          } else {
-            blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.AIR, x, y); // Stone
-          }
+        if (blocks[x][fromRow - 1].getType() == BlockMaster.BlockTypes.STONE
+            && blocks[x][fromRow].getType() == BlockMaster.BlockTypes.AIR) {
+          blocks[x][fromRow] = new ServerBlock(BlockMaster.BlockTypes.DIRT, x, fromRow);
         }
       }
     }
+    generatedRows = toRow;
+    // New rows are sent as they are, falling blocks in them are not a change
+    checkFallingBlocks(false);
+    return true;
+  }
+
+  /* Threshold function
+   */
+  private ServerBlock generateBlock(int x, int y, float noise, Random rng) {
+    ServerBlock block;
+    if ((x == 0 || x == width - 1) || y == height - 1) {
+      block = new ServerBlock(BlockMaster.BlockTypes.OBSIDIAN, x, y);
+    } else if (y == height - 2) {
+      block = new ServerBlock(BlockMaster.BlockTypes.GOLD, x, y);
+      block.setGoldValue(135 + y * 5);
+    } else if (noise < thresholds[0]) {
+      block = new ServerBlock(BlockMaster.BlockTypes.STONE, x, y); // Air
+    } else {
+      if (rng.nextFloat() < .07f) {
+        block = new ServerBlock(BlockMaster.BlockTypes.GOLD, x, y); // Gold: 1 in 40 chance
+        block.setGoldValue(135 + y * 5);
+      } else if (rng.nextFloat() < .05f) {
+        block = new ServerBlock(BlockMaster.BlockTypes.QMARK, x, y); // Item Block: 1 in 50 chance
+      } else if (noise < thresholds[1]) {
+        block = new ServerBlock(BlockMaster.BlockTypes.DIRT, x, y); // Dirt
+      } else {
+        block = new ServerBlock(BlockMaster.BlockTypes.AIR, x, y); // Stone
+      }
+    }
+    return block;
+  }
+
+  /**
+   * Generate and send the chunks below a player before they get there. The new rows are sent to
+   * the whole lobby, so all clients keep the same map.
+   *
+   * @param pos2d position of the player in world coordinates
+   * @param lobbyId lobby to send the new rows to
+   */
+  public void explore(Vector2f pos2d, int lobbyId) {
+    int playerRow = worldToGrid(new Vector3f(pos2d.x, pos2d.y, 0)).y;
+    // Send while holding the lock, so the clients get the chunks in order
+    synchronized (this) {
+      int fromRow = generatedRows;
+      if (generateRows(playerRow + lookaheadChunks * chunkSize) && lobbyId > 0) {
+        new PacketMapChunk(this, fromRow, generatedRows).sendToLobby(lobbyId);
+      }
+    }
+  }
+
+  /**
+   * Send the generated rows of the map to a client that joins the lobby. The map is sent while
+   * holding the lock, so every chunk generated later is sent after it.
+   *
+   * @see PacketBroadcastMap
+   * @param clientId client to send the map to, must already be in the lobby
+   */
+  public synchronized void sendMap(int clientId) {
+    new PacketBroadcastMap(this).sendToClient(clientId);
+  }
+
+  /**
+   * Send the generated rows from a row on to a client that missed them.
+   *
+   * @see net.packets.map.PacketMapRequest
+   * @param clientId client to send the rows to
+   * @param fromRow first row the client is missing
+   */
+  public synchronized void sendRows(int clientId, int fromRow) {
+    sendRows(clientId, fromRow, generatedRows);
+  }
+
+  /**
+   * Send some generated rows to a client that missed them or unloaded them. The rows only contain
+   * the block types, the damage of their blocks is sent right after them.
+   *
+   * @see net.packets.map.PacketMapRequest
+   * @param clientId client to send the rows to
+   * @param fromRow first row to send (inclusive)
+   * @param toRow last row to send (exclusive), rows that are not generated yet are left out
+   */
+  public synchronized void sendRows(int clientId, int fromRow, int toRow) {
+    toRow = Math.min(toRow, generatedRows);
+    if (fromRow >= toRow) {
+      return;
+    }
+    new PacketMapChunk(this, fromRow, toRow).sendToClient(clientId);
+    List<Vector3f> damaged = new ArrayList<>();
+    for (int y = fromRow; y < toRow; y++) {
+      for (int x = 0; x < width; x++) {
+        float damage = blocks[x][y].getBaseHardness() - blocks[x][y].getHardness();
+        if (damage > 0) {
+          damaged.add(new Vector3f(x, y, damage));
+        }
+      }
+    }
+    if (!damaged.isEmpty()) {
+      new PacketBlockDamage(0, damaged).sendToClient(clientId);
+    }
+  }
+
+  /**
+   * Check and move falling blocks. The falls are sent to the clients with the other block changes
+   * of the tick, the clients don't compute them themselves. Blocks never fall into rows that are
+   * not generated yet.
+   */
+  public synchronized void checkFallingBlocks() {
+    checkFallingBlocks(true);
   }
 
   /**
-   * Check and move falling blocks. This will send packets in the future. For now client side
-   * handles the blocks themselves.
+   * Check and move falling blocks.
+   *
+   * @param record true if the falls should be added to the block changes of the tick
    */
-  public void checkFallingBlocks() {
+  private synchronized void checkFallingBlocks(boolean record) {
+    // Falls by the current position of the block, a block that falls further extends its fall
+    Map<Integer, int[]> falls = new LinkedHashMap<>();
     boolean done;
     do {
       done = true;
-      for (int y = 0; y < height; y++) {
+      for (int y = 0; y < generatedRows; y++) {
         for (int x = 0; x < width; x++) {
           if (blocks[x][y].getType() == BlockMaster.BlockTypes.STONE
-              && y + 1 < height
+              && y + 1 < generatedRows
               && blocks[x][y + 1].getType() == BlockMaster.BlockTypes.AIR) {
             blocks[x][y + 1] = blocks[x][y];
             blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.AIR, x, y);
             done = false;
+            if (record) {
+              int[] fall = falls.remove(x * height + y);
+              if (fall == null) {
+                fall = new int[] {x, y, y + 1};
+              }
+              fall[2] = y + 1;
+              falls.put(x * height + y + 1, fall);
+            }
           }
         }
       }
     } while (!done);
+    // The last move of a block is always after the last move of the block below it, so the
+    // clients can apply the falls in this order
+    for (int[] fall : falls.values()) {
+      blockChanges.append("║F║").append(fall[0]).append("║").append(fall[1]);
+      blockChanges.append("║").append(fall[2]);
+    }
+  }
+
+  /** Add the damage of a block to the block changes of the tick. */
+  private void recordDamage(int clientId, int x, int y, float damage) {
+    blockChanges.append("║D║").append(clientId).append("║").append(x).append("║").append(y);
+    blockChanges.append("║").append(damage);
+  }
+
+  /**
+   * Check if blocks changed since the last call of {@link #takeBlockChanges()}.
+   *
+   * @return true if there are changes to send
+   */
+  public synchronized boolean hasBlockChanges() {
+    return blockChanges.length() > 0;
+  }
+
+  /**
+   * Get all block changes since the last call and start collecting new ones. Changes are damage
+   * dealt to blocks and falling blocks in the order they happened on the server.
+   *
+   * @see net.packets.block.PacketBlockDelta
+   * @return the changes in the format of {@link net.packets.block.PacketBlockDelta}
+   */
+  public synchronized String takeBlockChanges() {
+    String changes = blockChanges.length() > 0 ? blockChanges.substring(1) : "";
+    blockChanges.setLength(0);
+    return changes;
+  }
+
+  public int getGeneratedRows() {
+    return generatedRows;
   }
 
   /**
@@ -97,20 +282,104 @@ public class ServerMap extends GameMap<ServerBlock> {
    */
   @Override
   public void damageBlock(int clientId, int posX, int posY, float damage) {
+    damageBlocks(clientId, Collections.singletonList(new Vector3f(posX, posY, damage)));
+  }
+
+  /**
+   * Deal damage to all blocks a player dug during one dig interval. The batch is validated as a
+   * whole and applied in one pass with one falling block check. The damage is sent to the lobby
+   * with the other block changes of the tick.
+   *
+   * @see net.packets.block.PacketBlockDamage
+   * @param clientId player that dug the blocks
+   * @param cells damaged blocks with the grid position as x and y and the damage as z
+   */
+  public void damageBlocks(int clientId, List<Vector3f> cells) {
 
     // Validate if the block damage packet is not violating any rules
-    if (!ServerLogic.getPlayerList().getPlayer(clientId).validateBlockDamage(posX, posY, damage)) {
+    if (!ServerLogic.getPlayerList().getPlayer(clientId).validateBlockDamage(cells)) {
       return;
     }
+    applyBlockDamage(clientId, cells);
+  }
 
-    if (blocks[posX][posY] != null) {
-      blocks[posX][posY].damageBlock(clientId, damage);
+  /** Deal damage to blocks that was already validated, see {@link #damageBlocks(int, List)}. */
+  synchronized void applyBlockDamage(int clientId, List<Vector3f> cells) {
+    boolean damaged = false;
+    for (Vector3f cell : cells) {
+      if (cell.x < 0 || cell.x >= width || cell.y < 0 || cell.y >= generatedRows) {
+        continue;
+      }
+      ServerBlock block = blocks[(int) cell.x][(int) cell.y];
+      if (block != null) {
+        block.damageBlock(clientId, cell.z);
+        recordDamage(clientId, (int) cell.x, (int) cell.y, cell.z);
+        damaged = true;
+      }
+    }
+    if (damaged) {
       checkFallingBlocks();
-      int lobId = ServerLogic.getLobbyForClient(clientId).getLobbyId();
-      if (lobId > 0) {
-        new PacketBlockDamage(clientId, posX, posY, damage).sendToLobby(lobId);
+    }
+  }
+
+  /**
+   * Let an explosion damage all blocks in range. Blocks take damage inverse to their distance to
+   * the center (closer = more damage). All blocks are damaged in one pass and falling blocks are
+   * checked once afterwards. The damage is sent to the lobby with the other block changes of the
+   * tick.
+   *
+   * @param clientId player that caused the explosion
+   * @param center center of the explosion in world coordinates
+   * @param range blocks closer than this to the center get damaged
+   * @param maxDamage damage a block gets at a distance of 1
+   * @return number of damaged blocks
+   */
+  public int explode(int clientId, Vector2f center, float range, float maxDamage) {
+    int damaged = 0;
+    synchronized (this) {
+      Vector2i min = worldToGrid(new Vector3f(center.x - range, center.y + range, 0));
+      Vector2i max = worldToGrid(new Vector3f(center.x + range, center.y - range, 0));
+      int toX = Math.min(width - 1, max.x);
+      int toY = Math.min(generatedRows - 1, max.y);
+      for (int y = Math.max(0, min.y); y <= toY; y++) {
+        for (int x = Math.max(0, min.x); x <= toX; x++) {
+          ServerBlock block = blocks[x][y];
+          if (block.getType() == BlockMaster.BlockTypes.AIR || block.getBaseHardness() >= 100) {
+            continue;
+          }
+          Vector3f blockPos = gridToWorld(new Vector2i(x, y));
+          float distance = center.distance(blockPos.x, blockPos.y);
+          if (distance < range) {
+            float damage = maxDamage / Math.max(distance, 1);
+            block.damageBlock(clientId, damage);
+            recordDamage(clientId, x, y, damage);
+            damaged++;
+          }
+        }
+      }
+      if (damaged > 0) {
+        checkFallingBlocks();
       }
     }
+    return damaged;
+  }
+
+  /**
+   * Find the position where an item comes to rest if it falls down from a position.
+   *
+   * @param position position of the item in world coordinates
+   * @return position on top of the first solid block below, in world coordinates
+   */
+  public synchronized Vector2f dropToGround(Vector3f position) {
+    Vector2i grid = worldToGrid(position);
+    if (grid.x < 0 || grid.x >= width || grid.y < 0 || grid.y >= generatedRows) {
+      return new Vector2f(position.x, position.y);
+    }
+    int y = grid.y;
+    while (y + 1 < generatedRows && blocks[grid.x][y + 1].getType() == BlockMaster.BlockTypes.AIR) {
+      y++;
+    }
+    return new Vector2f(position.x, Math.min(position.y, -(y + 1) * dim));
   }
 
   /**
@@ -120,12 +389,23 @@ public class ServerMap extends GameMap<ServerBlock> {
    * @return transferable string representation of the map
    */
   public String toPacketString() {
+    return toPacketString(0, generatedRows);
+  }
+
+  /**
+   * Creates a String that describes every block of some rows of the map.
+   *
+   * @param fromRow first row (inclusive)
+   * @param toRow last row (exclusive), must already be generated
+   * @return transferable string representation of the rows
+   */
+  public synchronized String toPacketString(int fromRow, int toRow) {
     StringBuilder sb = new StringBuilder();
-    for (int y = 0; y < height; y++) {
+    for (int y = fromRow; y < toRow; y++) {
       for (int x = 0; x < width; x++) {
         sb.append(blocks[x][y].getType().getId());
       }
-      if (y < height - 1) {
+      if (y < toRow - 1) {
         sb.append("║");
       }
     }
@@ -139,7 +419,7 @@ public class ServerMap extends GameMap<ServerBlock> {
    */
   public ArrayList<PacketBlockDamage> getDamagePackets() {
     ArrayList<PacketBlockDamage> packets = new ArrayList<>();
-    for (int y = 0; y < height; y++) {
+    for (int y = 0; y < generatedRows; y++) {
       for (int x = 0; x < width; x++) {
         float damage = blocks[x][y].getBaseHardness() - blocks[x][y].getHardness();
         if (damage > 0) {
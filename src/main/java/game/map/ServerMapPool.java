@@ -0,0 +1,102 @@
+package game.map;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a few generated maps of every size ready, so creating a lobby doesn't have to wait for the
+ * map generation. Maps are generated in a background thread and every map is handed out only
+ * once.
+ *
+ * <p>If the pool of a size is empty (e.g. many lobbies are created at once), the map is generated
+ * on the calling thread like before.
+ */
+public class ServerMapPool {
+
+  public static final Logger logger = LoggerFactory.getLogger(ServerMapPool.class);
+
+  private static final int POOL_SIZE = 2;
+
+  private static final Map<String, Queue<ServerMap>> pool = new ConcurrentHashMap<>();
+  private static final Map<String, AtomicInteger> scheduled = new ConcurrentHashMap<>();
+  private static final ExecutorService generator =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Map Generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+          });
+
+  /**
+   * Start generating maps of the given sizes in the background.
+   *
+   * @param mapSizes map sizes that will be requested
+   */
+  public static void prefill(String... mapSizes) {
+    for (String mapSize : mapSizes) {
+      refill(mapSize);
+    }
+  }
+
+  /**
+   * Take a map out of the pool. The pool of this size gets refilled in the background.
+   *
+   * @param mapSize size of the map
+   * @return a new map that is not used anywhere else
+   */
+  public static ServerMap take(String mapSize) {
+    ServerMap map = getQueue(mapSize).poll();
+    if (map == null) {
+      logger.debug("Map pool for size " + mapSize + " is empty, generating map directly.");
+      map = generate(mapSize);
+    }
+    refill(mapSize);
+    return map;
+  }
+
+  /**
+   * Get the number of maps of a size that are ready to be taken.
+   *
+   * @param mapSize size of the maps
+   * @return number of maps in the pool
+   */
+  public static int getAvailable(String mapSize) {
+    return getQueue(mapSize).size();
+  }
+
+  private static Queue<ServerMap> getQueue(String mapSize) {
+    return pool.computeIfAbsent(mapSize, k -> new ConcurrentLinkedQueue<>());
+  }
+
+  /** Schedule as many generations as needed to fill the pool of a size. */
+  private static void refill(String mapSize) {
+    Queue<ServerMap> queue = getQueue(mapSize);
+    AtomicInteger pending = scheduled.computeIfAbsent(mapSize, k -> new AtomicInteger());
+    while (queue.size() + pending.get() < POOL_SIZE) {
+      pending.incrementAndGet();
+      generator.execute(
+          () -> {
+            try {
+              queue.add(generate(mapSize));
+            } finally {
+              pending.decrementAndGet();
+            }
+          });
+    }
+  }
+
+  private static ServerMap generate(String mapSize) {
+    // The seed gets reduced to 6 digits by the map, so the current time would repeat seeds
+    return new ServerMap(mapSize, ThreadLocalRandom.current().nextLong(1000000));
+  }
+}
@@ -13,6 +13,7 @@ import engine.render.fontrendering.TextMaster;
 import entities.Entity;
 import entities.blocks.BlockMaster;
 import entities.blocks.debris.DebrisMaster;
+import entities.collision.BroadPhase;
 import entities.items.ItemMaster;
 import entities.items.Star;
 import entities.light.LightMaster;
@@ -191,16 +192,22 @@ public class Playing {
 
     // Update positions of camera, player and 3D Mouse Pointer
     Game.getActivePlayer().move();
+    BroadPhase.update();
     MousePlacer.update(Game.getActiveCamera());
 
     // Masters check their slaves
     ItemMaster.update();
+    Game.getMap().updateWindow(Game.getActivePlayer().getPosition().y);
     Game.getMap().checkFallingBlocks();
     BlockMaster.update();
     DebrisMaster.update();
+    // Particles are updated in the background until they are rendered
     ParticleMaster.update(Game.getActiveCamera());
     LightMaster.update(Game.getActivePlayer());
 
+    // Skip everything the camera can't see
+    renderer.updateFrustum(Game.getActiveCamera());
+
     // Prepare and render the terrains
     TerrainFlat[][] terrainChunks = Game.getTerrainChunks();
     for (int i = 0; i < Game.getMap().getTerrainRows(); i++) {
@@ -212,6 +219,7 @@ public class Playing {
     // Prepare and Render the entities
     renderer.processEntity(Game.getActivePlayer());
     NetPlayerMaster.update(renderer);
+    BlockMaster.render(renderer);
     for (Entity entity : Game.getEntities()) {
       if (entity != null) {
         renderer.processEntity(entity);
@@ -9,8 +9,12 @@ import java.io.PrintWriter;
 import java.net.Socket;
 import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 import net.packets.Packet;
 import net.packets.block.PacketBlockDamage;
+import net.packets.block.PacketBlockDelta;
 import net.packets.chat.PacketChatMessageToClient;
 import net.packets.gamestatus.PacketGameEnd;
 import net.packets.gamestatus.PacketHistory;
@@ -27,6 +31,7 @@ import net.packets.lobby.PacketLobbyOverview;
 import net.packets.loginlogout.PacketLoginStatus;
 import net.packets.loginlogout.PacketUpdateClientId;
 import net.packets.map.PacketBroadcastMap;
+import net.packets.map.PacketMapChunk;
 import net.packets.name.PacketSetNameStatus;
 import net.packets.pingpong.PacketPing;
 import net.packets.pingpong.PacketPong;
@@ -36,6 +41,7 @@ import net.packets.playerprop.PacketVelocity;
 import net.playerhandling.PingManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import util.SpscQueue;
 
 /**
  * Client side network logic
@@ -43,6 +49,14 @@ import org.slf4j.LoggerFactory;
  * <p>Communicates with the server via TCP socket. Sends, receives and processes incoming and
  * outgoing messages. It also activates the <code>PingManager</code> to send pings to the server in
  * a certain frequency.
+ *
+ * <p>Incoming messages are only decoded on the network thread. The packets are queued and
+ * processed by the game loop at the start of every frame, see {@link #processPackets()}, so the
+ * game state is only changed by the game loop. Only pings and pongs are processed right away.
+ *
+ * <p>Outgoing messages are sent by a writer thread. The game loop only queues its packets and
+ * wakes the writer at the end of the frame, so all packets of a frame are sent in one write and a
+ * slow connection can't stall a frame.
  */
 public class ClientLogic implements Runnable {
 
@@ -57,6 +71,18 @@ public class ClientLogic implements Runnable {
 
   private static boolean connected;
 
+  // Decoded packets of the network thread, processed by the game loop
+  private static final SpscQueue<Packet> inbound = new SpscQueue<>(4096);
+  // Packets to send in the order they were queued, written by the writer thread. Pings are sent by
+  // other threads as well
+  private static final List<Packet> outbound = new ArrayList<>();
+  private static final int maxQueuedPackets = 4096;
+  // Position and velocity in the queue that are not written yet, a newer one replaces them
+  private static int queuedPosition = -1;
+  private static int queuedVelocity = -1;
+  private static final List<Packet> writeBatch = new ArrayList<>();
+  private static Thread writerThread;
+
   /**
    * ClientLogic to communicate with the server. Controls the input/output from/to the player. The
    * constructor sets the IP and port. It then starts a thread on this class.
@@ -78,6 +104,14 @@ public class ClientLogic implements Runnable {
     Thread thread = new Thread(this);
     thread.start();
 
+    // Send queued packets in an extra thread
+    Socket socket = server;
+    PrintWriter writer = output;
+    writerThread = new Thread(() -> writeToServer(socket, writer));
+    writerThread.setName("Network-Writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+
     // Start ping manager to survey the connection responsiveness
     pingManager = new PingManager();
     pingManagerThread = new Thread(pingManager);
@@ -92,14 +126,120 @@ public class ClientLogic implements Runnable {
   }
 
   /**
-   * Method to send a package to the server. Will transform the packet to a String here.
+   * Method to send a package to the server. The packet is queued for the writer thread and never
+   * blocks. Packets of the game loop are sent at the end of the frame, see {@link
+   * #flushToServer()}, packets of other threads right away.
+   *
+   * <p>Packets are sent in the order they were queued. A position or velocity that is not written
+   * yet is replaced by the newer one where it sits in the queue, so only the newest is sent if the
+   * writer falls behind and the server never sees a dig after an older position.
    *
    * @param packet The packet to be sent to the Server.
    */
   public static void sendToServer(Packet packet) {
-    if (Game.isConnectedToServer()) {
-      output.println(packet.toString());
-      output.flush();
+    if (!Game.isConnectedToServer()) {
+      return;
+    }
+    synchronized (outbound) {
+      if (packet instanceof PacketPos && queuedPosition >= 0) {
+        outbound.set(queuedPosition, packet);
+      } else if (packet instanceof PacketVelocity && queuedVelocity >= 0) {
+        outbound.set(queuedVelocity, packet);
+      } else if (outbound.size() >= maxQueuedPackets) {
+        logger.warn("Send queue is full, dropping packet " + packet);
+      } else {
+        if (packet instanceof PacketPos) {
+          queuedPosition = outbound.size();
+        } else if (packet instanceof PacketVelocity) {
+          queuedVelocity = outbound.size();
+        }
+        outbound.add(packet);
+      }
+    }
+    if (!(Thread.currentThread() instanceof Game)) {
+      flushToServer();
+    }
+  }
+
+  /** Wake the writer thread to send all queued packets. Called at the end of every frame. */
+  public static void flushToServer() {
+    if (writerThread != null) {
+      LockSupport.unpark(writerThread);
+    }
+  }
+
+  /**
+   * Writer thread, sends the queued packets whenever it is woken up. When the client disconnects,
+   * it sends what is left, e.g. the packet to leave the lobby, and closes the socket.
+   *
+   * @param socket connection of this writer, a reconnect starts a new writer
+   * @param writer output stream of the socket
+   */
+  private static void writeToServer(Socket socket, PrintWriter writer) {
+    while (!disconnectFromServer && socket == server && !socket.isClosed()) {
+      LockSupport.park();
+      writeQueuedPackets(writer);
+    }
+    writeQueuedPackets(writer);
+    try {
+      socket.close();
+    } catch (IOException e) {
+      logger.warn("Problem closing connection to server.");
+    }
+  }
+
+  /**
+   * Write all queued packets to the socket and flush once.
+   *
+   * @param writer output stream of the socket
+   */
+  private static synchronized void writeQueuedPackets(PrintWriter writer) {
+    synchronized (outbound) {
+      writeBatch.addAll(outbound);
+      outbound.clear();
+      queuedPosition = -1;
+      queuedVelocity = -1;
+    }
+    if (writeBatch.isEmpty()) {
+      return;
+    }
+    for (Packet packet : writeBatch) {
+      writer.println(packet.toString());
+    }
+    writeBatch.clear();
+    writer.flush();
+  }
+
+  /**
+   * Process all packets that were received since the last call. Must only be called by the game
+   * loop. Packets that arrive while processing are left for the next call.
+   */
+  public static void processPackets() {
+    for (int i = inbound.size(); i > 0; i--) {
+      Packet p = inbound.poll();
+      if (p == null) {
+        return;
+      }
+      try {
+        p.processData();
+      } catch (RuntimeException e) {
+        logger.error("Could not process packet " + p, e);
+      }
+    }
+  }
+
+  /**
+   * Queue a received packet for the game loop. Waits if the game loop is too far behind, dropping
+   * packets would make the game state inconsistent.
+   *
+   * @param p decoded packet
+   */
+  private static void enqueue(Packet p) {
+    while (!inbound.offer(p)) {
+      if (disconnectFromServer) {
+        return;
+      }
+      LockSupport.parkNanos(1000000);
     }
   }
 
@@ -121,7 +261,8 @@ public class ClientLogic implements Runnable {
   }
 
   /**
-   * A method to disconnect from the server.
+   * A method to disconnect from the server. The writer thread sends the queued packets and closes
+   * the connection, so the calling thread never waits for the socket.
    *
    * @param disconnectFromServer The boolean if to be disconnected
    */
@@ -129,14 +270,16 @@ public class ClientLogic implements Runnable {
     if (pingManager != null) {
       pingManager.stop();
     }
-    if (server != null) {
+    ClientLogic.disconnectFromServer = disconnectFromServer;
+    if (writerThread != null && writerThread.isAlive()) {
+      flushToServer();
+    } else if (server != null) {
       try {
         server.close();
       } catch (IOException e) {
         logger.warn("Problem closing connection to server.");
       }
     }
-    ClientLogic.disconnectFromServer = disconnectFromServer;
   }
 
   /** Thread to run the ClientLogic on, calls the method waitforserver to start up. */
@@ -206,6 +349,7 @@ public class ClientLogic implements Runnable {
 
       // Create the correct packet depending on message code
       Packet p = null;
+      boolean processNow = false;
       switch (Packet.lookupPacket(code)) {
         case LOGIN_STATUS:
           p = new PacketLoginStatus(data);
@@ -235,10 +379,13 @@ public class ClientLogic implements Runnable {
           p = new PacketChatMessageToClient(data);
           break;
         case PING:
+          // Answer pings right away, even if the game loop is busy
           p = new PacketPing(data);
+          processNow = true;
           break;
         case PONG:
           p = new PacketPong(data);
+          processNow = true;
           break;
         case POSITION_UPDATE:
           p = new PacketPos(data);
@@ -249,9 +396,15 @@ public class ClientLogic implements Runnable {
         case BLOCK_DAMAGE:
           p = new PacketBlockDamage(data);
           break;
+        case BLOCK_DELTA:
+          p = new PacketBlockDelta(data);
+          break;
         case FULL_MAP_BROADCAST:
           p = new PacketBroadcastMap(data);
           break;
+        case MAP_CHUNK:
+          p = new PacketMapChunk(data);
+          break;
         case SPAWN_ITEM:
           p = new PacketSpawnItem(data);
           break;
@@ -278,8 +431,10 @@ public class ClientLogic implements Runnable {
           break;
         default:
       }
-      if (p != null) {
+      if (p != null && processNow) {
         p.processData();
+      } else if (p != null) {
+        enqueue(p);
       }
     }
     connected = false;
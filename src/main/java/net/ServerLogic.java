@@ -1,5 +1,6 @@
 package net;
 
+import game.map.ServerMapPool;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -48,20 +49,17 @@ public class ServerLogic {
    * @throws IOException when creating the socket fails
    */
   ServerLogic(int portValue) throws IOException {
-    playerList = new ServerPlayerList();
-    clientThreadMap = new HashMap<>();
-    lobbyList = new ServerLobbyList();
+    initRegistries();
     serverSocket = new ServerSocket(portValue);
     logger.info("Started Server on port " + portValue);
+    ServerMapPool.prefill("s", "m", "l", "xl", "xxl");
 
     serverHighscore = ServerHighscoreSerialiser.readServerHighscore();
   }
 
   /** Constructor to mock a ServerLogic for certain Unit Tests. */
   ServerLogic() {
-    playerList = new ServerPlayerList();
-    clientThreadMap = new HashMap<>();
-    lobbyList = new ServerLobbyList();
+    initRegistries();
     try {
       serverSocket = new ServerSocket(6666);
     } catch (IOException e) {
@@ -72,6 +70,16 @@ public class ServerLogic {
     serverHighscore = ServerHighscoreSerialiser.readServerHighscore();
   }
 
+  /**
+   * Create empty player, lobby and client thread registries. Does not open a socket, so the server
+   * logic can be driven without any network connection (unit tests, benchmarks).
+   */
+  static void initRegistries() {
+    playerList = new ServerPlayerList();
+    clientThreadMap = new HashMap<>();
+    lobbyList = new ServerLobbyList();
+  }
+
   /**
    * Players are managed with their own handler class: {@link ServerPlayerList}.
    *
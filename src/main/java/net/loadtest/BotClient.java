@@ -0,0 +1,401 @@
+package net.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import net.packets.Packet;
+import net.packets.Packet.PacketTypes;
+import net.packets.block.PacketBlockDamage;
+import net.packets.chat.PacketChatMessageToServer;
+import net.packets.gamestatus.PacketReady;
+import net.packets.lobby.PacketCreateLobby;
+import net.packets.lobby.PacketJoinLobby;
+import net.packets.lobby.PacketLeaveLobby;
+import net.packets.loginlogout.PacketDisconnect;
+import net.packets.playerprop.PacketPos;
+import net.packets.playerprop.PacketVelocity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scripted, headless client for load tests. Every bot has its own socket, so many bots can run in
+ * one process without touching the static {@link net.ClientLogic}.
+ *
+ * <p>A bot logs in, creates or joins its lobby, waits until all bots of the lobby joined, gets
+ * ready and then plays like a human would: it sends its position once per second, a velocity
+ * update whenever it changes direction, digs its way down in the dig interval of the player and
+ * writes a chat message every few seconds. Positions are inside the map (world y is negative)
+ * and every dig hits a block next to the last sent position, so the server accepts them. After
+ * the given duration it leaves the lobby and disconnects.
+ *
+ * <p>The latency of the own position updates is measured by matching the echo of the server to
+ * the send time (the server broadcasts to the whole lobby including the sender and TCP keeps the
+ * order). Chat messages carry their send time, so every bot in the lobby measures the broadcast
+ * latency of the chat messages of the others.
+ */
+public class BotClient implements Runnable {
+
+  private static final Logger logger = LoggerFactory.getLogger(BotClient.class);
+
+  private static final long TICK_MILLIS = 50;
+  private static final long POSITION_INTERVAL = 1000;
+  private static final long DIG_INTERVAL = 200;
+  private static final long CHAT_INTERVAL = 5000;
+  private static final long STATUS_TIMEOUT = 10000;
+  private static final String LATENCY_MARKER = "#lt";
+
+  private static final float RUN_SPEED = 15;
+  private static final float DIG_DAMAGE = 0.2f;
+  private static final int DIGS_PER_ROW = 5;
+  private static final int BLOCK_DIM = 6;
+
+  private final String serverIp;
+  private final int serverPort;
+  private final String username;
+  private final BotLobby lobby;
+  private final boolean creator;
+  private final long durationMillis;
+  private final Random random;
+
+  private final BlockingQueue<String> statusMessages = new LinkedBlockingQueue<>();
+  private final ConcurrentLinkedQueue<Long> pendingPositions = new ConcurrentLinkedQueue<>();
+
+  private Socket socket;
+  private PrintWriter output;
+  private volatile int clientId;
+  private volatile boolean running;
+  private volatile int mapWidth = 32;
+  private volatile int mapHeight = 48;
+  private boolean joined;
+
+  private float posX;
+  private float direction;
+  // Row the bot is in, it digs one row deeper after a few digs
+  private int depth;
+  private int digsInRow;
+  // Position that was sent last, the server validates digs against it
+  private float sentX;
+  private int sentDepth;
+
+  /**
+   * Create a bot. The bot is started by running it in its own thread.
+   *
+   * @param serverIp ip of the server
+   * @param serverPort port of the server
+   * @param username unique username of the bot
+   * @param lobby lobby the bot plays in
+   * @param creator true if this bot creates the lobby
+   * @param durationMillis how long the bot plays after the round started
+   */
+  public BotClient(
+      String serverIp,
+      int serverPort,
+      String username,
+      BotLobby lobby,
+      boolean creator,
+      long durationMillis) {
+    this.serverIp = serverIp;
+    this.serverPort = serverPort;
+    this.username = username;
+    this.lobby = lobby;
+    this.creator = creator;
+    this.durationMillis = durationMillis;
+    this.random = new Random(username.hashCode());
+  }
+
+  /** Run the script of the bot. Errors are logged and counted, they never stop the other bots. */
+  @Override
+  public void run() {
+    try {
+      connect();
+      login();
+      joinLobby();
+      play();
+      leave();
+    } catch (IOException e) {
+      logger.warn(username + ": " + e.getMessage());
+      StartLoadTest.countFailure();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (!joined) {
+        // Don't let the other bots of the lobby wait for a bot that failed
+        lobby.joined.countDown();
+      }
+      close();
+    }
+  }
+
+  private void connect() throws IOException {
+    socket = new Socket(serverIp, serverPort);
+    socket.setTcpNoDelay(true);
+    output =
+        new PrintWriter(
+            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+    BufferedReader input =
+        new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    running = true;
+    Thread reader = new Thread(() -> read(input));
+    reader.setName("Bot Reader " + username);
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  private void login() throws IOException, InterruptedException {
+    // PacketLogin reads the settings of the game client, so the raw message is sent instead
+    send(PacketTypes.LOGIN.getPacketCode() + " " + username);
+    awaitStatus(PacketTypes.UPDATE_CLIENT_ID);
+  }
+
+  private void joinLobby() throws IOException, InterruptedException {
+    if (creator) {
+      send(new PacketCreateLobby(lobby.name + "║" + lobby.mapSize).toString());
+      String status = awaitStatus(PacketTypes.CREATE_LOBBY_STATUS);
+      if (!status.startsWith("OK")) {
+        throw new IOException("Could not create lobby " + lobby.name + ": " + status);
+      }
+      lobby.created.countDown();
+    } else if (!lobby.created.await(STATUS_TIMEOUT, TimeUnit.MILLISECONDS)) {
+      throw new IOException("Lobby " + lobby.name + " was never created");
+    }
+    send(new PacketJoinLobby(lobby.name).toString());
+    String status = awaitStatus(PacketTypes.JOIN_LOBBY_STATUS);
+    if (!status.startsWith("OK")) {
+      throw new IOException("Could not join lobby " + lobby.name + ": " + status);
+    }
+    lobby.joined.countDown();
+    joined = true;
+    lobby.joined.await(STATUS_TIMEOUT, TimeUnit.MILLISECONDS);
+    send(new PacketReady().toString());
+    awaitStatus(PacketTypes.START);
+  }
+
+  private void play() throws InterruptedException {
+    posX = BLOCK_DIM + random.nextFloat() * (mapWidth - 2) * BLOCK_DIM;
+    direction = 1;
+    depth = 0;
+    digsInRow = 0;
+    long start = System.currentTimeMillis();
+    long nextPosition = start;
+    long nextDig = start + random.nextInt((int) DIG_INTERVAL);
+    long nextChat = start + random.nextInt((int) CHAT_INTERVAL);
+    long last = start;
+
+    while (running && System.currentTimeMillis() - start < durationMillis) {
+      long now = System.currentTimeMillis();
+      if (statusMessages.removeIf(s -> s.startsWith(PacketTypes.GAME_OVER.getPacketCode()))) {
+        // Lobby is transferred to a new round, the bots don't follow
+        return;
+      }
+      move((now - last) / 1000f);
+      last = now;
+      if (now >= nextPosition) {
+        pendingPositions.add(System.nanoTime());
+        sentX = posX;
+        sentDepth = depth;
+        // Center of the block the bot is in, rows go down from y = 0
+        send(new PacketPos(posX, -depth * BLOCK_DIM - BLOCK_DIM / 2f, 0).toString());
+        nextPosition += POSITION_INTERVAL;
+      }
+      if (now >= nextDig) {
+        dig();
+        nextDig += DIG_INTERVAL;
+      }
+      if (now >= nextChat) {
+        String chat = "load " + LATENCY_MARKER + System.nanoTime();
+        send(new PacketChatMessageToServer(chat).toString());
+        nextChat += CHAT_INTERVAL;
+      }
+      Thread.sleep(TICK_MILLIS);
+    }
+  }
+
+  /**
+   * Dig a block next to the last sent position: mostly the block below, sometimes the one on the
+   * left or right. After a few digs below, the bot moves down a row until it reaches the gold at
+   * the bottom of the map.
+   */
+  private void dig() {
+    int gridX = Math.max(1, Math.min(mapWidth - 2, (int) (sentX / BLOCK_DIM)));
+    int side = random.nextInt(4);
+    if (side < 2) {
+      send(new PacketBlockDamage(gridX + side * 2 - 1, sentDepth, DIG_DAMAGE).toString());
+      return;
+    }
+    send(new PacketBlockDamage(gridX, sentDepth + 1, DIG_DAMAGE).toString());
+    digsInRow++;
+    if (digsInRow >= DIGS_PER_ROW && depth == sentDepth && depth < mapHeight - 3) {
+      depth++;
+      digsInRow = 0;
+    }
+  }
+
+  /**
+   * Walk left and right over the map, with a random change of direction every few seconds. Every
+   * change of direction is sent to the server as a velocity update.
+   */
+  private void move(float seconds) {
+    float maxX = (mapWidth - 1) * BLOCK_DIM;
+    float newDirection = direction;
+    if (posX <= BLOCK_DIM) {
+      newDirection = 1;
+    } else if (posX >= maxX) {
+      newDirection = -1;
+    } else if (random.nextInt(40) == 0) {
+      newDirection = random.nextInt(3) - 1;
+    }
+    if (newDirection != direction) {
+      send(
+          new PacketVelocity(direction * RUN_SPEED, 0, newDirection * RUN_SPEED, 0).toString());
+      direction = newDirection;
+    }
+    posX = Math.max(BLOCK_DIM, Math.min(maxX, posX + direction * RUN_SPEED * seconds));
+  }
+
+  private void leave() {
+    send(new PacketLeaveLobby().toString());
+    send(new PacketDisconnect().toString());
+  }
+
+  /**
+   * Wait for a status message of the server.
+   *
+   * @param type type of the expected packet
+   * @return data of the packet
+   * @throws IOException if the server does not answer in time
+   */
+  private String awaitStatus(PacketTypes type) throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + STATUS_TIMEOUT;
+    while (running) {
+      String message =
+          statusMessages.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+      if (message == null) {
+        break;
+      }
+      if (message.startsWith(type.getPacketCode())) {
+        return message.length() > 6 ? message.substring(6) : "";
+      }
+    }
+    throw new IOException("No " + type + " from server");
+  }
+
+  private void send(String message) {
+    output.println(message);
+    StartLoadTest.countSent();
+  }
+
+  /** Read all messages from the server until the connection is closed. */
+  private void read(BufferedReader input) {
+    try {
+      String message;
+      while ((message = input.readLine()) != null) {
+        StartLoadTest.countReceived();
+        handle(message);
+      }
+      if (running) {
+        logger.warn(username + ": Connection closed by server");
+        StartLoadTest.countFailure();
+      }
+    } catch (IOException e) {
+      if (running) {
+        logger.warn(username + ": " + e.getMessage());
+        StartLoadTest.countFailure();
+      }
+    } finally {
+      running = false;
+    }
+  }
+
+  private void handle(String message) {
+    if (message.length() < 5) {
+      return;
+    }
+    String data = message.length() > 6 ? message.substring(6) : "";
+    switch (Packet.lookupPacket(message.substring(0, 5))) {
+      case PING:
+        send(PacketTypes.PONG.getPacketCode() + " " + data);
+        break;
+      case UPDATE_CLIENT_ID:
+        clientId = Integer.parseInt(data.trim());
+        statusMessages.add(message);
+        break;
+      case FULL_MAP_BROADCAST:
+        // Seed, generated rows and height of the map come before the rows
+        String[] rows = data.split("║");
+        if (rows.length > 3) {
+          mapHeight = Integer.parseInt(rows[2]);
+          mapWidth = rows[3].length();
+        }
+        break;
+      case POSITION_UPDATE:
+        if (data.startsWith(clientId + "║")) {
+          Long sent = pendingPositions.poll();
+          if (sent != null) {
+            StartLoadTest.getPositionLatency().record(System.nanoTime() - sent);
+          }
+        }
+        break;
+      case CHAT_MESSAGE_TO_CLIENT:
+        int marker = data.lastIndexOf(LATENCY_MARKER);
+        if (marker >= 0) {
+          try {
+            long sent = Long.parseLong(data.substring(marker + LATENCY_MARKER.length()).trim());
+            StartLoadTest.getChatLatency().record(System.nanoTime() - sent);
+          } catch (NumberFormatException e) {
+            // Not a message of a bot
+          }
+        }
+        break;
+      case CREATE_LOBBY_STATUS:
+      case JOIN_LOBBY_STATUS:
+      case START:
+      case GAME_OVER:
+        statusMessages.add(message);
+        break;
+      default:
+    }
+  }
+
+  private void close() {
+    running = false;
+    try {
+      if (socket != null) {
+        socket.close();
+      }
+    } catch (IOException e) {
+      logger.debug(username + ": " + e.getMessage());
+    }
+  }
+
+  /** A lobby that is shared by a group of bots. */
+  public static class BotLobby {
+
+    private final String name;
+    private final String mapSize;
+    private final CountDownLatch created = new CountDownLatch(1);
+    private final CountDownLatch joined;
+
+    /**
+     * Create a lobby plan for a group of bots.
+     *
+     * @param name unique name of the lobby
+     * @param mapSize map size of the lobby
+     * @param bots number of bots that play in the lobby
+     */
+    public BotLobby(String name, String mapSize, int bots) {
+      this.name = name;
+      this.mapSize = mapSize;
+      this.joined = new CountDownLatch(bots);
+    }
+  }
+}
@@ -0,0 +1,266 @@
+package net.loadtest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One proxied connection between a client and the server. Both directions are impaired
+ * independently with the same {@link ImpairmentProfile}: every message is read as a line, delayed
+ * according to the profile and then written to the other side by a separate writer thread.
+ */
+public class ImpairedConnection {
+
+  private static final Logger logger = LoggerFactory.getLogger(ImpairedConnection.class);
+
+  private final int connectionId;
+  private final Socket client;
+  private final Socket server;
+  private final ImpairmentProfile profile;
+  private final Pipe upstream;
+  private final Pipe downstream;
+  private volatile boolean closed;
+
+  /**
+   * Create the connection. Nothing is forwarded until {@link #start()} is called.
+   *
+   * @param connectionId number of the connection, used in the statistics
+   * @param client socket of the accepted client
+   * @param server socket to the real server
+   * @param profile network conditions of this connection
+   * @throws IOException if a stream can't be opened
+   */
+  public ImpairedConnection(
+      int connectionId, Socket client, Socket server, ImpairmentProfile profile)
+      throws IOException {
+    this.connectionId = connectionId;
+    this.client = client;
+    this.server = server;
+    this.profile = profile;
+    client.setTcpNoDelay(true);
+    server.setTcpNoDelay(true);
+    Random random = new Random(connectionId);
+    upstream = new Pipe("up", client, server, new Random(random.nextLong()));
+    downstream = new Pipe("down", server, client, new Random(random.nextLong()));
+  }
+
+  /** Start the reader and writer threads of both directions. */
+  public void start() {
+    upstream.start();
+    downstream.start();
+  }
+
+  /** Close both sockets. All threads of this connection end afterwards. */
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      client.close();
+      server.close();
+    } catch (IOException e) {
+      logger.debug("Connection " + connectionId + ": " + e.getMessage());
+    }
+    logger.info(toString());
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Get the direction from the client to the server.
+   *
+   * @return upstream direction with its statistics
+   */
+  Pipe getUpstream() {
+    return upstream;
+  }
+
+  /**
+   * Get the direction from the server to the client.
+   *
+   * @return downstream direction with its statistics
+   */
+  Pipe getDownstream() {
+    return downstream;
+  }
+
+  @Override
+  public String toString() {
+    return "Connection " + connectionId + " [" + profile + "] " + upstream + " | " + downstream;
+  }
+
+  /** A message that is released to the writer after its delay. */
+  private static class Message implements Delayed {
+
+    private final String line;
+    // Size in UTF-8 with the line break, the separator of the protocol takes three bytes
+    private final int bytes;
+    private final long releaseNanos;
+    private final long receivedNanos;
+
+    private Message(String line, int bytes, long releaseNanos, long receivedNanos) {
+      this.line = line;
+      this.bytes = bytes;
+      this.releaseNanos = releaseNanos;
+      this.receivedNanos = receivedNanos;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(releaseNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(releaseNanos, ((Message) other).releaseNanos);
+    }
+  }
+
+  /** One direction of the connection with its own queue and statistics. */
+  class Pipe {
+
+    private final String name;
+    private final Socket from;
+    private final Socket to;
+    private final Random random;
+    private final DelayQueue<Message> queue = new DelayQueue<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong reordered = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong delayNanos = new AtomicLong();
+
+    private long linkFreeNanos;
+    private long lastReleaseNanos;
+
+    private Pipe(String name, Socket from, Socket to, Random random) {
+      this.name = name;
+      this.from = from;
+      this.to = to;
+      this.random = random;
+    }
+
+    private void start() {
+      Thread reader = new Thread(this::read);
+      reader.setName("Proxy " + connectionId + " " + name + " reader");
+      reader.setDaemon(true);
+      reader.start();
+      Thread writer = new Thread(this::write);
+      writer.setName("Proxy " + connectionId + " " + name + " writer");
+      writer.setDaemon(true);
+      writer.start();
+    }
+
+    private void read() {
+      try (BufferedReader input =
+          new BufferedReader(
+              new InputStreamReader(from.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = input.readLine()) != null) {
+          received.incrementAndGet();
+          schedule(line);
+        }
+      } catch (IOException e) {
+        logger.debug("Connection " + connectionId + " " + name + ": " + e.getMessage());
+      }
+      // Let the writer deliver everything that is still queued, then close
+      queue.add(new Message(null, 0, Math.max(lastReleaseNanos, System.nanoTime()) + 1, 0));
+    }
+
+    /**
+     * Compute the release time of a message. Messages leave the link one after the other with the
+     * capped bandwidth and then travel with the latency of the profile. Without reordering a
+     * message never overtakes the one before it, even if its jitter is smaller.
+     */
+    private void schedule(String line) {
+      if (profile.isLost(random)) {
+        dropped.incrementAndGet();
+        return;
+      }
+      long now = System.nanoTime();
+      int size = line.getBytes(StandardCharsets.UTF_8).length + 1;
+      linkFreeNanos = Math.max(linkFreeNanos, now) + profile.transmissionNanos(size);
+      long release = linkFreeNanos + TimeUnit.MILLISECONDS.toNanos(profile.nextDelay(random));
+      if (profile.isReordered(random) && lastReleaseNanos > now) {
+        // Overtake the previous message if it is still on its way
+        release = lastReleaseNanos - 1;
+        reordered.incrementAndGet();
+      } else {
+        release = Math.max(release, lastReleaseNanos + 1);
+        lastReleaseNanos = release;
+      }
+      queue.add(new Message(line, size, release, now));
+    }
+
+    private void write() {
+      try {
+        BufferedWriter output =
+            new BufferedWriter(
+                new OutputStreamWriter(to.getOutputStream(), StandardCharsets.UTF_8));
+        while (true) {
+          Message message = queue.take();
+          if (message.line == null) {
+            output.flush();
+            break;
+          }
+          output.write(message.line);
+          output.write('\n');
+          forwarded.incrementAndGet();
+          bytes.addAndGet(message.bytes);
+          delayNanos.addAndGet(System.nanoTime() - message.receivedNanos);
+          // Coalesce all messages that are due into one flush
+          if (queue.peek() == null || queue.peek().getDelay(TimeUnit.NANOSECONDS) > 0) {
+            output.flush();
+          }
+        }
+      } catch (IOException e) {
+        logger.debug("Connection " + connectionId + " " + name + ": " + e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      close();
+    }
+
+    long getForwarded() {
+      return forwarded.get();
+    }
+
+    long getDropped() {
+      return dropped.get();
+    }
+
+    long getBytes() {
+      return bytes.get();
+    }
+
+    @Override
+    public String toString() {
+      long count = forwarded.get();
+      return String.format(
+          "%s: received=%d forwarded=%d dropped=%d reordered=%d bytes=%d avgDelay=%.1fms",
+          name,
+          received.get(),
+          count,
+          dropped.get(),
+          reordered.get(),
+          bytes.get(),
+          count == 0 ? 0 : delayNanos.get() / 1e6 / count);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package net.loadtest;
+
+import java.util.Random;
+
+/**
+ * Network conditions that the {@link StartImpairmentProxy} simulates for one connection. All values
+ * apply to each direction separately, so a profile with 75 ms latency results in a round trip time
+ * of 150 ms.
+ *
+ * <p>Since our protocol is line based, loss and reordering work on whole messages. This simulates
+ * an unreliable transport (like UDP) on top of the TCP connection, the TCP stream itself is never
+ * corrupted.
+ */
+public class ImpairmentProfile {
+
+  private final String name;
+  private final int latencyMillis;
+  private final int jitterMillis;
+  private final int bandwidthKbit;
+  private final double lossRate;
+  private final double reorderRate;
+
+  /**
+   * Create a profile.
+   *
+   * @param name name of the profile, used in the statistics
+   * @param latencyMillis one way delay in milliseconds
+   * @param jitterMillis maximal random deviation of the delay in milliseconds
+   * @param bandwidthKbit bandwidth cap in kbit/s, 0 for no cap
+   * @param lossRate probability that a message is dropped
+   * @param reorderRate probability that a message overtakes the messages before it
+   */
+  public ImpairmentProfile(
+      String name,
+      int latencyMillis,
+      int jitterMillis,
+      int bandwidthKbit,
+      double lossRate,
+      double reorderRate) {
+    this.name = name;
+    this.latencyMillis = latencyMillis;
+    this.jitterMillis = jitterMillis;
+    this.bandwidthKbit = bandwidthKbit;
+    this.lossRate = lossRate;
+    this.reorderRate = reorderRate;
+  }
+
+  /**
+   * Get a profile by its preset name or from the format
+   * <code>latency:jitter:kbit:loss:reorder</code> (e.g. <code>75:10:0:0.01:0</code>).
+   *
+   * <p>Presets: lan, dsl, rtt150, mobile
+   *
+   * @param profile preset name or profile definition
+   * @return the parsed profile
+   * @throws IllegalArgumentException if the profile can't be parsed
+   */
+  public static ImpairmentProfile parse(String profile) {
+    switch (profile) {
+      case "lan":
+        return new ImpairmentProfile(profile, 1, 0, 0, 0, 0);
+      case "dsl":
+        return new ImpairmentProfile(profile, 20, 5, 2000, 0, 0);
+      case "rtt150":
+        return new ImpairmentProfile(profile, 75, 10, 0, 0, 0);
+      case "mobile":
+        return new ImpairmentProfile(profile, 60, 30, 1000, 0.01, 0.005);
+      default:
+    }
+    String[] values = profile.split(":");
+    if (values.length != 5) {
+      throw new IllegalArgumentException("Invalid profile: " + profile);
+    }
+    try {
+      return new ImpairmentProfile(
+          profile,
+          Integer.parseInt(values[0]),
+          Integer.parseInt(values[1]),
+          Integer.parseInt(values[2]),
+          Double.parseDouble(values[3]),
+          Double.parseDouble(values[4]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid profile: " + profile);
+    }
+  }
+
+  /**
+   * Get the delay for the next message.
+   *
+   * @param random random generator of the connection
+   * @return delay in milliseconds, never negative
+   */
+  long nextDelay(Random random) {
+    if (jitterMillis == 0) {
+      return latencyMillis;
+    }
+    return Math.max(0, latencyMillis + random.nextInt(2 * jitterMillis + 1) - jitterMillis);
+  }
+
+  /**
+   * Get the time it takes to send a message with the bandwidth of this profile.
+   *
+   * @param bytes size of the message in bytes
+   * @return transmission time in nanoseconds
+   */
+  long transmissionNanos(int bytes) {
+    if (bandwidthKbit <= 0) {
+      return 0;
+    }
+    return bytes * 8L * 1000000L / bandwidthKbit;
+  }
+
+  boolean isLost(Random random) {
+    return lossRate > 0 && random.nextDouble() < lossRate;
+  }
+
+  boolean isReordered(Random random) {
+    return reorderRate > 0 && random.nextDouble() < reorderRate;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
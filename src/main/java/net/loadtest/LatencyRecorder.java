@@ -0,0 +1,73 @@
+package net.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples of the load test bots and computes percentiles at the end of a run. All
+ * bots run in the same process, so send and receive timestamps come from the same clock.
+ */
+public class LatencyRecorder {
+
+  private final String name;
+  private long[] samples = new long[1024];
+  private int count;
+
+  /**
+   * Create an empty recorder.
+   *
+   * @param name name of the measured latency, used in the report
+   */
+  public LatencyRecorder(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Add one sample.
+   *
+   * @param nanos measured latency in nanoseconds
+   */
+  public synchronized void record(long nanos) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, samples.length * 2);
+    }
+    samples[count++] = nanos;
+  }
+
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * Get a percentile of all samples recorded so far.
+   *
+   * @param percentile percentile between 0 and 100
+   * @return latency in milliseconds, 0 if there are no samples
+   */
+  public synchronized double getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile / 100 * count) - 1;
+    index = Math.max(0, Math.min(count - 1, index));
+    return sorted[index] / 1e6;
+  }
+
+  /**
+   * One line summary with p50, p90, p99 and max.
+   *
+   * @return summary of the recorded samples
+   */
+  @Override
+  public String toString() {
+    return String.format(
+        "%-18s n=%-8d p50=%8.2fms p90=%8.2fms p99=%8.2fms max=%8.2fms",
+        name,
+        getCount(),
+        getPercentile(50),
+        getPercentile(90),
+        getPercentile(99),
+        getPercentile(100));
+  }
+}
@@ -0,0 +1,107 @@
+package net.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loopback proxy that sits between the clients and the server and simulates bad network
+ * conditions. Clients connect to the proxy instead of the server, every accepted connection is
+ * forwarded to the server with one of the given {@link ImpairmentProfile}s. The profiles are
+ * assigned round robin, so a mix of good and bad connections can be tested with one proxy.
+ *
+ * <p>Usage: <code>StartImpairmentProxy [listen port] [server ip:port] [profile...]</code>. Defaults
+ * are port 11338, server 127.0.0.1:11337 and the profile "rtt150". The statistics of all open
+ * connections are logged every 10 seconds and once more when a connection closes.
+ */
+public class StartImpairmentProxy {
+
+  public static final Logger logger = LoggerFactory.getLogger(StartImpairmentProxy.class);
+
+  private static final long STATISTICS_INTERVAL = 10000;
+
+  private static final List<ImpairedConnection> connections = new CopyOnWriteArrayList<>();
+
+  /**
+   * Start the proxy.
+   *
+   * @param args see class description
+   */
+  public static void main(String[] args) {
+    int listenPort = 11338;
+    String serverIp = "127.0.0.1";
+    int serverPort = 11337;
+    List<ImpairmentProfile> profiles = new ArrayList<>();
+    try {
+      if (args.length >= 1) {
+        listenPort = Integer.parseInt(args[0]);
+      }
+      if (args.length >= 2) {
+        String[] ipPort = args[1].split(":");
+        serverIp = ipPort[0];
+        if (ipPort.length > 1) {
+          serverPort = Integer.parseInt(ipPort[1]);
+        }
+      }
+      for (int i = 2; i < args.length; i++) {
+        profiles.add(ImpairmentProfile.parse(args[i]));
+      }
+    } catch (IllegalArgumentException e) {
+      logger.error(e.getMessage());
+      logger.error("Usage: StartImpairmentProxy [listen port] [server ip:port] [profile...]");
+      return;
+    }
+    if (profiles.isEmpty()) {
+      profiles.add(ImpairmentProfile.parse("rtt150"));
+    }
+
+    Thread statistics = new Thread(StartImpairmentProxy::logStatistics);
+    statistics.setName("Proxy Statistics");
+    statistics.setDaemon(true);
+    statistics.start();
+
+    try (ServerSocket serverSocket = new ServerSocket(listenPort)) {
+      logger.info(
+          "Proxy on port " + listenPort + " to " + serverIp + ":" + serverPort + " " + profiles);
+      int connectionId = 0;
+      while (true) {
+        Socket client = serverSocket.accept();
+        ImpairmentProfile profile = profiles.get(connectionId % profiles.size());
+        try {
+          Socket server = new Socket(serverIp, serverPort);
+          ImpairedConnection connection =
+              new ImpairedConnection(connectionId, client, server, profile);
+          connections.add(connection);
+          connection.start();
+          logger.info("Connection " + connectionId + " opened with profile " + profile);
+        } catch (IOException e) {
+          logger.error("Could not connect to the server: " + e.getMessage());
+          client.close();
+        }
+        connectionId++;
+      }
+    } catch (IOException e) {
+      logger.error("Proxy stopped: " + e.getMessage());
+    }
+  }
+
+  /** Log the statistics of all open connections in a fixed interval. */
+  private static void logStatistics() {
+    while (true) {
+      try {
+        Thread.sleep(STATISTICS_INTERVAL);
+      } catch (InterruptedException e) {
+        return;
+      }
+      connections.removeIf(ImpairedConnection::isClosed);
+      for (ImpairedConnection connection : connections) {
+        logger.info(connection.toString());
+      }
+    }
+  }
+}
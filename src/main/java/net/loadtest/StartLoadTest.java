@@ -0,0 +1,140 @@
+package net.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless load test against a running server. Starts a number of {@link BotClient}s in this
+ * process, groups them into lobbies and lets them play a round. At the end the latency percentiles
+ * and the message throughput are reported.
+ *
+ * <p>Usage: <code>StartLoadTest [ip:port] [bots] [bots per lobby] [seconds] [map size]</code>.
+ * Defaults are 127.0.0.1:11337, 20 bots, 4 bots per lobby, 60 seconds and map size "m".
+ */
+public class StartLoadTest {
+
+  public static final Logger logger = LoggerFactory.getLogger(StartLoadTest.class);
+
+  private static final int MAX_BOTS_PER_LOBBY = 7;
+  private static final long RAMP_UP_MILLIS = 20;
+
+  private static final LatencyRecorder positionLatency = new LatencyRecorder("position echo");
+  private static final LatencyRecorder chatLatency = new LatencyRecorder("chat broadcast");
+  private static final AtomicLong sent = new AtomicLong();
+  private static final AtomicLong received = new AtomicLong();
+  private static final AtomicLong failures = new AtomicLong();
+
+  /**
+   * Start the load test.
+   *
+   * @param args see class description
+   * @throws InterruptedException if interrupted while waiting for the bots
+   */
+  public static void main(String[] args) throws InterruptedException {
+    String serverIp = "127.0.0.1";
+    int serverPort = 11337;
+    int bots = 20;
+    int botsPerLobby = 4;
+    int seconds = 60;
+    String mapSize = "m";
+    try {
+      if (args.length >= 1) {
+        String[] ipPort = args[0].split(":");
+        serverIp = ipPort[0];
+        if (ipPort.length > 1) {
+          serverPort = Integer.parseInt(ipPort[1]);
+        }
+      }
+      if (args.length >= 2) {
+        bots = Integer.parseInt(args[1]);
+      }
+      if (args.length >= 3) {
+        botsPerLobby = Math.max(1, Math.min(MAX_BOTS_PER_LOBBY, Integer.parseInt(args[2])));
+      }
+      if (args.length >= 4) {
+        seconds = Integer.parseInt(args[3]);
+      }
+      if (args.length >= 5) {
+        mapSize = args[4];
+      }
+    } catch (NumberFormatException e) {
+      logger.error("Usage: StartLoadTest [ip:port] [bots] [bots per lobby] [seconds] [map size]");
+      return;
+    }
+
+    logger.info(
+        "Starting "
+            + bots
+            + " bots in lobbies of "
+            + botsPerLobby
+            + " against "
+            + serverIp
+            + ":"
+            + serverPort
+            + " for "
+            + seconds
+            + "s");
+    long run = System.currentTimeMillis() % 10000;
+    List<Thread> threads = new ArrayList<>();
+    BotClient.BotLobby lobby = null;
+    for (int i = 0; i < bots; i++) {
+      boolean creator = i % botsPerLobby == 0;
+      if (creator) {
+        int lobbySize = Math.min(botsPerLobby, bots - i);
+        lobby = new BotClient.BotLobby("Load" + run + "x" + i / botsPerLobby, mapSize, lobbySize);
+      }
+      Thread thread =
+          new Thread(
+              new BotClient(
+                  serverIp, serverPort, "Bot" + run + "x" + i, lobby, creator, seconds * 1000L));
+      thread.setName("Bot " + i);
+      threads.add(thread);
+    }
+
+    long start = System.nanoTime();
+    for (Thread thread : threads) {
+      thread.start();
+      // Don't open all connections at once, the server accepts them one by one
+      Thread.sleep(RAMP_UP_MILLIS);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    double elapsed = (System.nanoTime() - start) / 1e9;
+
+    logger.info("Load test finished after " + String.format("%.1f", elapsed) + "s");
+    logger.info(positionLatency.toString());
+    logger.info(chatLatency.toString());
+    logger.info(
+        String.format(
+            "messages sent=%d (%.1f/s) received=%d (%.1f/s) failed bots=%d",
+            sent.get(),
+            sent.get() / elapsed,
+            received.get(),
+            received.get() / elapsed,
+            failures.get()));
+  }
+
+  static LatencyRecorder getPositionLatency() {
+    return positionLatency;
+  }
+
+  static LatencyRecorder getChatLatency() {
+    return chatLatency;
+  }
+
+  static void countSent() {
+    sent.incrementAndGet();
+  }
+
+  static void countReceived() {
+    received.incrementAndGet();
+  }
+
+  static void countFailure() {
+    failures.incrementAndGet();
+  }
+}
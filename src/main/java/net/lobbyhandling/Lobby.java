@@ -1,23 +1,34 @@
 package net.lobbyhandling;
 
+import entities.items.Dynamite;
+import entities.items.ItemMaster;
+import entities.items.ServerItem;
 import game.History;
 import game.map.ServerMap;
+import game.map.ServerMapPool;
 import java.util.Collections;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.ServerLogic;
 import net.highscore.ServerHighscoreSerialiser;
+import net.packets.block.PacketBlockDelta;
 import net.packets.gamestatus.PacketGameEnd;
 import net.packets.gamestatus.PacketStartRound;
 import net.packets.lobby.PacketCurLobbyInfo;
 import net.packets.lobby.PacketJoinLobbyStatus;
 import net.packets.lobby.PacketLobbyOverview;
-import net.packets.map.PacketBroadcastMap;
 import net.playerhandling.Referee;
 import net.playerhandling.ServerPlayer;
 import net.playerhandling.ServerPlayerList;
+import org.joml.Vector2f;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +42,21 @@ public class Lobby implements Runnable {
   public static final Logger logger = LoggerFactory.getLogger(Lobby.class);
   private static final int maxPlayers = 7;
   private static int lobbyCounter = 1;
+  // Block changes of a lobby are collected for this long and sent in one packet
+  private static final long blockTickMillis = 50;
+  private static final AtomicInteger tickThreads = new AtomicInteger();
+  // Block ticks and dynamite fuses of all lobbies. They only queue their packets, the writer
+  // thread of every client sends them. More than one thread, so a lobby that waits for the lock of
+  // its map doesn't hold up the others
+  private static final ScheduledExecutorService scheduler =
+      Executors.newScheduledThreadPool(
+          Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+          r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Lobby Ticks " + tickThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          });
   private int lobbyId;
   private boolean inGame;
   private String lobbyName;
@@ -48,6 +74,9 @@ public class Lobby implements Runnable {
   private boolean checked;
   private ConcurrentHashMap<Integer, Referee> refereesForClients;
   private Thread gameLoop;
+  private ScheduledFuture<?> blockTick;
+  // Fuses of the dynamite that didn't explode yet, by item id
+  private final Map<Integer, ScheduledFuture<?>> fuses = new ConcurrentHashMap<>();
 
   /**
    * Constructor of the lobby-class uses by the Server.
@@ -56,7 +85,8 @@ public class Lobby implements Runnable {
    *     Lobby#lobbyCounter}. {@link Lobby#lobbyCounter} gets raised by one after every lobby
    *     construction.
    * @param createrPlayerId id of the player who is creating the lobby
-   * @param mapSize a String that should equal "s", "m" or "l" that describes the mapsize.
+   * @param mapSize a String that should equal "s", "m", "l", "xl" or "xxl" that describes the
+   *     mapsize.
    */
   public Lobby(String lobbyName, int createrPlayerId, String mapSize) {
     this.lobbyName = lobbyName;
@@ -73,10 +103,29 @@ public class Lobby implements Runnable {
     this.refereesForClients = new ConcurrentHashMap<>();
     lobbyCounter++;
     checked = false;
-    map = new ServerMap(mapSize, System.currentTimeMillis());
+    map = ServerMapPool.take(mapSize);
     createdAt = System.currentTimeMillis();
     gameLoop = new Thread(this);
     gameLoop.start();
+    blockTick =
+        scheduler.scheduleAtFixedRate(
+            this::sendBlockChanges, blockTickMillis, blockTickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Send all block changes of the last tick to the lobby in one packet. */
+  private void sendBlockChanges() {
+    if (status.equals("finished")) {
+      blockTick.cancel(false);
+      return;
+    }
+    try {
+      if (map.hasBlockChanges()) {
+        new PacketBlockDelta(map).sendToLobby(lobbyId);
+      }
+    } catch (RuntimeException e) {
+      // An exception would stop the tick of this lobby for good
+      logger.error("Sending block changes of lobby " + lobbyName + " failed.", e);
+    }
   }
 
   @Override
@@ -322,23 +371,24 @@ public class Lobby implements Runnable {
   /** Creates a new Lobby and transfers all players of this lobby to the new one. */
   private void transfer(CopyOnWriteArrayList<ServerPlayer> oldLobbyPlayers) {
     try {
-      Lobby freshLobby = new Lobby("placeholder", 1, "m");
-      String lobbyAddstatus = "";
+      // Find a free name first, so only one lobby (with its map and thread) gets created
       String tmpName = getLobbyName();
       int counter = 0;
-      while (!lobbyAddstatus.equals("OK")) {
+      do {
         if (counter > 9) {
           throw new Exception("Unable to create  uniq lobbyname.");
         }
         tmpName = getFreshName(tmpName);
-        freshLobby = new Lobby(tmpName, createrPlayerId, mapSize);
-        lobbyAddstatus = ServerLogic.getLobbyList().addLobby(freshLobby);
         counter++;
+      } while (ServerLogic.getLobbyList().isNameTaken(tmpName));
+      Lobby freshLobby = new Lobby(tmpName, createrPlayerId, mapSize);
+      String lobbyAddstatus = ServerLogic.getLobbyList().addLobby(freshLobby);
+      if (!lobbyAddstatus.startsWith("OK")) {
+        freshLobby.setStatus("finished");
+        throw new Exception(lobbyAddstatus);
       }
-      if (lobbyAddstatus.startsWith("OK")) {
-        History.openAdd(freshLobby.getLobbyId(), freshLobby.getLobbyName());
-        logger.info("Automatically created new Lobby " + freshLobby.getLobbyName());
-      }
+      History.openAdd(freshLobby.getLobbyId(), freshLobby.getLobbyName());
+      logger.info("Automatically created new Lobby " + freshLobby.getLobbyName());
       for (ServerPlayer oldLobbyPlayer : oldLobbyPlayers) {
         // add old players to new Lobby and inform them.
         ServerPlayer serverPlayer =
@@ -354,7 +404,7 @@ public class Lobby implements Runnable {
         PacketCurLobbyInfo pcli =
             new PacketCurLobbyInfo(lobbyPlayer.getClientId(), freshLobby.getLobbyId());
         pcli.sendToClient(lobbyPlayer.getClientId());
-        new PacketBroadcastMap(freshLobby.getMap()).sendToClient(lobbyPlayer.getClientId());
+        freshLobby.getMap().sendMap(lobbyPlayer.getClientId());
       }
       String info = "OK║" + ServerLogic.getLobbyList().getTopTen();
       PacketLobbyOverview packetLobbyOverview =
@@ -504,6 +554,63 @@ public class Lobby implements Runnable {
     return serverItemState;
   }
 
+  /**
+   * Add an item that was spawned in the lobby to the item state. Every item spawn goes through
+   * here, no matter if a player placed the item or a question mark block dropped it, so every
+   * dynamite gets its fuse.
+   *
+   * @param item the new item
+   */
+  public void spawnItem(ServerItem item) {
+    serverItemState.addItem(item);
+    if (item.getType() == ItemMaster.ItemTypes.DYNAMITE) {
+      scheduleExplosion(item);
+    }
+  }
+
+  /**
+   * Let a dynamite explode when its fuse runs out. The server decides which blocks get damaged, so
+   * the owner doesn't have to send the damage of every block.
+   *
+   * @param dynamite the dynamite that was spawned
+   */
+  private void scheduleExplosion(ServerItem dynamite) {
+    long fuse = (long) (Dynamite.getFuseTimer() * 1000);
+    // Spawning the same item twice doesn't light a second fuse
+    fuses.computeIfAbsent(
+        dynamite.getItemId(),
+        id -> scheduler.schedule(() -> explode(dynamite), fuse, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Get the number of dynamite fuses that are still burning.
+   *
+   * @return number of dynamite that will explode
+   */
+  public int getPendingExplosions() {
+    return fuses.size();
+  }
+
+  /**
+   * Damage the blocks around a dynamite. The dynamite falls down on the server map first, like it
+   * does on the clients.
+   */
+  private void explode(ServerItem dynamite) {
+    fuses.remove(dynamite.getItemId());
+    if (!status.equals("running")
+        || ServerLogic.getPlayerList().getPlayer(dynamite.getOwner()) == null) {
+      return;
+    }
+    try {
+      Vector2f center = map.dropToGround(dynamite.getPosition());
+      map.explode(
+          dynamite.getOwner(), center, Dynamite.getExplosionRange(), Dynamite.getMaximumDamage());
+    } catch (RuntimeException e) {
+      // Don't let one broken explosion stop the fuse thread of all lobbies
+      logger.error("Explosion in lobby " + lobbyName + " failed.", e);
+    }
+  }
+
   /**
    * Checks if all lobbymembers are ready.
    *
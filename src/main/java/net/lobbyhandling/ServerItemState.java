@@ -1,37 +1,97 @@
 package net.lobbyhandling;
 
+import entities.items.Dynamite;
+import entities.items.Ice;
 import entities.items.ItemMaster;
 import entities.items.ServerItem;
-import java.util.concurrent.CopyOnWriteArrayList;
+import entities.items.Star;
+import entities.items.Steroids;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
+/**
+ * State of all items of a lobby on the server. Items are stored by their id and the active items
+ * are counted per owner and per type, so lookups like {@link #hasDynamiteOwnedBy(int)} don't
+ * depend on the number of items that were spawned in a round.
+ *
+ * <p>Items are removed when the owner reports that they were used. Items with a limited effect
+ * (e.g. dynamite) also expire on their own after the effect ended, in case the owner never
+ * reports them (e.g. because they left the lobby).
+ */
 public class ServerItemState {
-  private CopyOnWriteArrayList<ServerItem> serverItemsList;
+
+  /* Time after the end of the effect until an item expires, packets can still be on their way */
+  private static final long EXPIRY_TOLERANCE = 2000;
+
+  private final Map<Integer, ServerItem> items = new ConcurrentHashMap<>();
+  private final Map<Integer, AtomicIntegerArray> activeByOwner = new ConcurrentHashMap<>();
+  private final AtomicIntegerArray activeByType =
+      new AtomicIntegerArray(ItemMaster.ItemTypes.values().length);
+  // Can contain items that were already removed, they are skipped when they expire
+  private final PriorityQueue<ServerItem> expiries =
+      new PriorityQueue<>(Comparator.comparingLong(ServerItem::getExpiresAt));
+  private volatile long nextExpiry = Long.MAX_VALUE;
   private int itemId = 0;
 
-  /** Method to keep a state of all items on the server and to keep track of their existence. */
-  public ServerItemState() {
-    serverItemsList = new CopyOnWriteArrayList<>();
+  /**
+   * Time an item of a type is active after it was spawned.
+   *
+   * @param type type of the item
+   * @return lifetime in milliseconds or 0 if the item does not expire
+   */
+  static long getLifetime(ItemMaster.ItemTypes type) {
+    switch (type) {
+      case DYNAMITE:
+        return (long) (Dynamite.getLifetime() * 1000);
+      case ICE:
+        return (long) (Ice.getFreezeTime() * 1000);
+      case STAR:
+        return (long) (Star.getFreezeTime() * 1000);
+      case STEROIDS:
+        return (long) (Steroids.getSteroidsTime() * 1000);
+      case HEART:
+        // Shown for 6 seconds after it was picked up
+        return 6000;
+      default:
+        return 0;
+    }
   }
 
   /**
-   * Method to add an item to the current state list on the server.
+   * Method to add an item to the current state on the server. The item gets a new id, adding the
+   * same item twice has no effect.
    *
-   * @param item The item to be added to the state list.
+   * @param item The item to be added to the state.
    */
-  public void addItem(ServerItem item) {
-    if (!serverItemsList.contains(item)) {
-      item.setItemId(++itemId);
-      serverItemsList.add(item);
+  public synchronized void addItem(ServerItem item) {
+    if (items.get(item.getItemId()) == item) {
+      return;
+    }
+    item.setItemId(++itemId);
+    items.put(itemId, item);
+    count(item, 1);
+    long lifetime = getLifetime(item.getType());
+    if (lifetime > 0) {
+      item.setExpiresAt(item.getCreationtime() + lifetime + EXPIRY_TOLERANCE);
+      expiries.add(item);
+      nextExpiry = expiries.peek().getExpiresAt();
     }
   }
 
   /**
    * Method to remove an item from the state. Is the case when an Item has been destroyed or used.
    *
-   * @param item The Item to be removed from the list.
+   * @param item The Item to be removed.
    */
-  public void removeItem(ServerItem item) {
-    serverItemsList.remove(item);
+  public synchronized void removeItem(ServerItem item) {
+    if (items.get(item.getItemId()) == item) {
+      removeItemByItemId(item.getItemId());
+    }
   }
 
   /**
@@ -40,14 +100,39 @@ public class ServerItemState {
    *
    * @param itemId The item Id of the item which has been destroyed.
    */
-  public void removeItemByItemId(int itemId) {
-    for (int i = 0; i < serverItemsList.size(); i++) {
-      if (serverItemsList.get(i).getItemId() == itemId) {
-        removeItem(serverItemsList.get(i));
+  public synchronized void removeItemByItemId(int itemId) {
+    ServerItem item = items.remove(itemId);
+    if (item != null) {
+      count(item, -1);
+    }
+  }
+
+  /**
+   * Remove all items whose effect has ended. Only takes the lock if an item is due.
+   *
+   * @param now current time in milliseconds
+   */
+  public void expireItems(long now) {
+    if (now < nextExpiry) {
+      return;
+    }
+    synchronized (this) {
+      while (!expiries.isEmpty() && expiries.peek().getExpiresAt() <= now) {
+        removeItem(expiries.poll());
       }
+      nextExpiry = expiries.isEmpty() ? Long.MAX_VALUE : expiries.peek().getExpiresAt();
     }
   }
 
+  private void count(ServerItem item, int delta) {
+    int type = item.getType().ordinal();
+    activeByType.addAndGet(type, delta);
+    activeByOwner
+        .computeIfAbsent(
+            item.getOwner(), k -> new AtomicIntegerArray(ItemMaster.ItemTypes.values().length))
+        .addAndGet(type, delta);
+  }
+
   /**
    * Check if a player has an active dynamite that he spawned.
    *
@@ -55,17 +140,45 @@ public class ServerItemState {
    * @return true if there is an active dynamite owned by the player
    */
   public boolean hasDynamiteOwnedBy(int clientId) {
-    for (ServerItem serverItem : serverItemsList) {
-      if (serverItem.isExists()
-          && serverItem.getType() == ItemMaster.ItemTypes.DYNAMITE
-          && serverItem.getOwner() == clientId) {
-        return true;
-      }
-    }
-    return false;
+    return getActiveCount(clientId, ItemMaster.ItemTypes.DYNAMITE) > 0;
   }
 
-  public CopyOnWriteArrayList<ServerItem> getServerItemsList() {
-    return serverItemsList;
+  /**
+   * Get the number of active items of a type that a player spawned.
+   *
+   * @param clientId owner of the items
+   * @param type type of the items
+   * @return number of active items
+   */
+  public int getActiveCount(int clientId, ItemMaster.ItemTypes type) {
+    expireItems(System.currentTimeMillis());
+    AtomicIntegerArray active = activeByOwner.get(clientId);
+    return active == null ? 0 : active.get(type.ordinal());
+  }
+
+  /**
+   * Get the number of active items of a type in the lobby.
+   *
+   * @param type type of the items
+   * @return number of active items
+   */
+  public int getActiveCount(ItemMaster.ItemTypes type) {
+    expireItems(System.currentTimeMillis());
+    return activeByType.get(type.ordinal());
+  }
+
+  public ServerItem getItem(int itemId) {
+    return items.get(itemId);
+  }
+
+  /**
+   * Get all active items ordered by their id.
+   *
+   * @return a copy of the active items
+   */
+  public List<ServerItem> getServerItemsList() {
+    List<ServerItem> list = new ArrayList<>(items.values());
+    list.sort(Comparator.comparingInt(ServerItem::getItemId));
+    return list;
   }
 }
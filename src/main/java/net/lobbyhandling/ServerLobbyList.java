@@ -42,6 +42,21 @@ public class ServerLobbyList {
     return "OK";
   }
 
+  /**
+   * Checks if a lobbyname is already used by a lobby in the list.
+   *
+   * @param lobbyName the name to check
+   * @return true if there is a lobby with this name
+   */
+  public boolean isNameTaken(String lobbyName) {
+    for (Lobby l : lobbies.values()) {
+      if (lobbyName.equals(l.getLobbyName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Removes a lobby from the "list" of lobbies.
    *
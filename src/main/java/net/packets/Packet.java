@@ -320,7 +320,10 @@ public abstract class Packet {
     CHAT_MESSAGE_STATUS("CHATN"),
     POSITION_UPDATE("POSXY"),
     BLOCK_DAMAGE("BLDMG"),
+    BLOCK_DELTA("BLDLT"),
     FULL_MAP_BROADCAST("MAPBC"),
+    MAP_CHUNK("MAPCH"),
+    MAP_REQUEST("MAPRQ"),
     HIGHSCORE("HIGHS"),
     ITEM_USED("ITMUS"),
     PLAYERLIST("PLALS"),
@@ -2,20 +2,27 @@ package net.packets.block;
 
 import game.Game;
 import game.map.ClientMap;
+import game.map.GameMap;
 import game.map.ServerMap;
+import java.util.ArrayList;
+import java.util.List;
 import net.ServerLogic;
 import net.lobbyhandling.Lobby;
 import net.packets.Packet;
+import org.joml.Vector3f;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Packet to send the damage done to blocks by digging. One packet can contain several blocks, the
+ * client collects the damage of all blocks it touches during one dig interval and sends it at
+ * once. Packet-Code: BLDMG
+ */
 public class PacketBlockDamage extends Packet {
 
   private static final Logger logger = LoggerFactory.getLogger(PacketBlockDamage.class);
   private int blockDestoryerClient;
-  private int blockX;
-  private int blockY;
-  private float damage;
+  private List<Vector3f> cells;
   private String[] dataArray;
 
   /**
@@ -32,6 +39,18 @@ public class PacketBlockDamage extends Packet {
     // No need to validate. No user input
   }
 
+  /**
+   * Created by the client to send the damage done to several blocks to the server.
+   *
+   * @param cells damaged blocks with the grid position as x and y and the damage as z
+   */
+  public PacketBlockDamage(List<Vector3f> cells) {
+    super(PacketTypes.BLOCK_DAMAGE);
+    this.cells = cells;
+    setData(cellsToString(cells));
+    // No need to validate. No user input
+  }
+
   /**
    * Created by the server to send the damage done to a block to the client. Coordinates are in map
    * grid format, not world coordinates.
@@ -47,6 +66,30 @@ public class PacketBlockDamage extends Packet {
     // No need to validate. No user input
   }
 
+  /**
+   * Created by the server to send the damage done to several blocks to the clients.
+   *
+   * @param clientId damager of the blocks
+   * @param cells damaged blocks with the grid position as x and y and the damage as z
+   */
+  public PacketBlockDamage(int clientId, List<Vector3f> cells) {
+    super(PacketTypes.BLOCK_DAMAGE);
+    this.cells = cells;
+    setData(clientId + "║" + cellsToString(cells));
+    // No need to validate. No user input
+  }
+
+  private static String cellsToString(List<Vector3f> cells) {
+    StringBuilder sb = new StringBuilder();
+    for (Vector3f cell : cells) {
+      if (sb.length() > 0) {
+        sb.append("║");
+      }
+      sb.append((int) cell.x).append("║").append((int) cell.y).append("║").append(cell.z);
+    }
+    return sb.toString();
+  }
+
   /**
    * Server receives packet, validates it and is then ready to pass it to the ServerMap.
    *
@@ -76,22 +119,49 @@ public class PacketBlockDamage extends Packet {
   /** Validate if the packet contains properly formatted numbers and is of the right size. */
   @Override
   public void validate() {
-    if (dataArray.length != 4) {
+    if (dataArray.length < 4 || (dataArray.length - 1) % 3 != 0) {
       addError("Invalid data.");
       return;
     }
+    cells = new ArrayList<>((dataArray.length - 1) / 3);
     try {
       blockDestoryerClient = Integer.parseInt(dataArray[0]);
-      blockX = Integer.parseInt(dataArray[1]);
-      blockY = Integer.parseInt(dataArray[2]);
     } catch (NumberFormatException e) {
-      addError("Invalid client or position data.");
+      addError("Invalid client data.");
     }
-    try {
-      damage = Float.parseFloat(dataArray[3]);
-    } catch (NumberFormatException e) {
-      addError("Invalid damage data.");
+    for (int i = 1; i < dataArray.length; i += 3) {
+      Vector3f cell = new Vector3f();
+      try {
+        cell.x = Integer.parseInt(dataArray[i]);
+        cell.y = Integer.parseInt(dataArray[i + 1]);
+      } catch (NumberFormatException e) {
+        addError("Invalid position data.");
+      }
+      try {
+        cell.z = Float.parseFloat(dataArray[i + 2]);
+      } catch (NumberFormatException e) {
+        addError("Invalid damage data.");
+      }
+      if (hasErrors()) {
+        return;
+      }
+      cells.add(cell);
+    }
+  }
+
+  /**
+   * Check if all blocks lie within a map.
+   *
+   * @param map map of the server or the client
+   * @return true if no block lies outside of the map
+   */
+  private boolean isInside(GameMap<?> map) {
+    for (Vector3f cell : cells) {
+      if (cell.x < 0 || cell.y < 0 || cell.x > map.getWidth() - 1 || cell.y > map.getHeight() - 1) {
+        return false;
+      }
     }
+    return true;
   }
 
   /**
@@ -116,12 +186,12 @@ public class PacketBlockDamage extends Packet {
       if (map == null) {
         addError("No map found for lobby.");
 
-      } else if (blockX > map.getWidth() - 1 || blockY > map.getHeight() - 1) {
+      } else if (!isInside(map)) {
         addError("Block lies outside of server map range.");
       }
 
       if (!hasErrors()) {
-        map.damageBlock(getClientId(), blockX, blockY, damage);
+        map.damageBlocks(getClientId(), cells);
       } else {
         logger.error("Errors while sending Block Damage Packet to Server. " + createErrorMessage());
       }
@@ -130,14 +200,20 @@ public class PacketBlockDamage extends Packet {
       ClientMap map = Game.getMap();
       if (map == null) {
         addError("No map found on the client side.");
-      } else if (blockX > map.getWidth() - 1 || blockY > map.getHeight() - 1) {
+      } else if (!isInside(map)) {
         addError("Block lies outside of client map range.");
       }
       if (!hasErrors()) {
-        Game.getMap().damageBlock(blockDestoryerClient, blockX, blockY, damage);
+        for (Vector3f cell : cells) {
+          map.damageBlock(blockDestoryerClient, (int) cell.x, (int) cell.y, cell.z);
+        }
       } else {
         logger.error("Errors while sending Block Damage Packet to Client. " + createErrorMessage());
       }
     }
   }
+
+  public List<Vector3f> getCells() {
+    return cells;
+  }
 }
@@ -0,0 +1,148 @@
+package net.packets.block;
+
+import game.Game;
+import game.map.ClientMap;
+import game.map.ServerMap;
+import java.util.ArrayList;
+import java.util.List;
+import net.packets.Packet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Packet to send all block changes of one server tick to the clients of a lobby. The changes are
+ * listed in the order they happened on the server:
+ *
+ * <ul>
+ *   <li>"D║clientId║x║y║damage": a player or their dynamite damaged a block
+ *   <li>"F║x║fromY║toY": a block fell down from one row to another
+ * </ul>
+ *
+ * <p>Coordinates are in map grid format, not world coordinates. Packet-Code: BLDLT
+ */
+public class PacketBlockDelta extends Packet {
+
+  private static final Logger logger = LoggerFactory.getLogger(PacketBlockDelta.class);
+  private List<Change> changes;
+  private String[] dataArray;
+
+  /**
+   * Created by the server to send the block changes since the last tick to the clients.
+   *
+   * @param map map to take the changes from, see {@link ServerMap#takeBlockChanges()}
+   */
+  public PacketBlockDelta(ServerMap map) {
+    super(PacketTypes.BLOCK_DELTA);
+    setData(map.takeBlockChanges());
+    // No need to validate. No user input
+  }
+
+  /**
+   * Client receives packet, validates it and is then ready to pass it to the ClientMap.
+   *
+   * @param data contains the changes of the blocks
+   */
+  public PacketBlockDelta(String data) {
+    super(PacketTypes.BLOCK_DELTA);
+    setData(data);
+    if (data == null) {
+      addError("No data received.");
+      return;
+    }
+    dataArray = data.split("║");
+    validate(); // Validate and assign in one step
+  }
+
+  /** Validate if every change has the right size and contains properly formatted numbers. */
+  @Override
+  public void validate() {
+    changes = new ArrayList<>();
+    int i = 0;
+    try {
+      while (i < dataArray.length) {
+        if (dataArray[i].equals("D") && i + 4 < dataArray.length) {
+          changes.add(
+              new Change(
+                  Integer.parseInt(dataArray[i + 1]),
+                  Integer.parseInt(dataArray[i + 2]),
+                  Integer.parseInt(dataArray[i + 3]),
+                  Float.parseFloat(dataArray[i + 4])));
+          i += 5;
+        } else if (dataArray[i].equals("F") && i + 3 < dataArray.length) {
+          changes.add(
+              new Change(
+                  Integer.parseInt(dataArray[i + 1]),
+                  Integer.parseInt(dataArray[i + 2]),
+                  Integer.parseInt(dataArray[i + 3])));
+          i += 4;
+        } else {
+          addError("Invalid block change at " + i + ".");
+          return;
+        }
+      }
+    } catch (NumberFormatException e) {
+      addError("Invalid number in block change at " + i + ".");
+    }
+  }
+
+  /**
+   * Apply all changes to the map of the client at once. Changes of blocks that lie outside of the
+   * map are skipped.
+   */
+  @Override
+  public void processData() {
+    ClientMap map = Game.getMap();
+    if (map == null) {
+      addError("No map found on the client side.");
+    }
+    if (hasErrors()) {
+      logger.error("Errors while processing Block Delta Packet. " + createErrorMessage());
+      return;
+    }
+    synchronized (map) {
+      for (Change change : changes) {
+        if (change.x < 0 || change.x >= map.getWidth() || change.y < 0) {
+          continue;
+        }
+        if (change.fall && change.toY < map.getHeight()) {
+          map.moveBlock(change.x, change.y, change.toY);
+        } else if (!change.fall && change.y < map.getHeight()) {
+          map.damageBlock(change.clientId, change.x, change.y, change.damage);
+        }
+      }
+    }
+  }
+
+  public int getChangeCount() {
+    return changes == null ? 0 : changes.size();
+  }
+
+  /** Damage of one block or the fall of one block. */
+  private static class Change {
+
+    private final boolean fall;
+    private final int clientId;
+    private final int x;
+    private final int y;
+    private final int toY;
+    private final float damage;
+
+    private Change(int clientId, int x, int y, float damage) {
+      this.fall = false;
+      this.clientId = clientId;
+      this.x = x;
+      this.y = y;
+      this.toY = y;
+      this.damage = damage;
+    }
+
+    private Change(int x, int fromY, int toY) {
+      this.fall = true;
+      this.clientId = 0;
+      this.x = x;
+      this.y = fromY;
+      this.toY = toY;
+      this.damage = 0;
+    }
+  }
+}
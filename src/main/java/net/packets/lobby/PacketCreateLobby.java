@@ -1,6 +1,7 @@
 package net.packets.lobby;
 
 import game.History;
+import game.map.GameMap;
 import game.stages.LobbyCreation;
 import net.ServerLogic;
 import net.lobbyhandling.Lobby;
@@ -75,7 +76,7 @@ public class PacketCreateLobby extends Packet {
       addError("No mapsize found.");
       return;
     }
-    if (!info[1].equals("s") && !info[1].equals("m") && !info[1].equals("l")) {
+    if (!GameMap.isValidMapSize(info[1])) {
       addError("Illegal mapsize.");
       return;
     }
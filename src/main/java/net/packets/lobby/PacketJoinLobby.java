@@ -1,9 +1,7 @@
 package net.packets.lobby;
 
-import game.map.ServerMap;
 import net.ServerLogic;
 import net.packets.Packet;
-import net.packets.map.PacketBroadcastMap;
 import net.playerhandling.ServerPlayer;
 
 /**
@@ -99,9 +97,8 @@ public class PacketJoinLobby extends Packet {
       PacketLobbyOverview packetLobbyOverview = new PacketLobbyOverview(getClientId(), info);
       packetLobbyOverview.sendToClientsNotInALobby();
 
-      // Broadcast Map
-      ServerMap map = ServerLogic.getLobbyList().getLobby(lobbyId).getMap();
-      new PacketBroadcastMap(map).sendToClient(getClientId());
+      // Broadcast Map, after the player is in the lobby so no chunk gets lost in between
+      ServerLogic.getLobbyList().getLobby(lobbyId).getMap().sendMap(getClientId());
     }
   }
 }
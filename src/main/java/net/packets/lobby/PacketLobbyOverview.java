@@ -2,6 +2,7 @@ package net.packets.lobby;
 
 import game.Game;
 import game.LobbyEntry;
+import game.map.GameMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import net.packets.Packet;
 
@@ -88,7 +89,7 @@ public class PacketLobbyOverview extends Packet {
               return;
             }
             if (isExtendedAscii(in[i + 2])) {
-              if (!in[i + 2].equals("s") && !in[i + 2].equals("m") && !in[i + 2].equals("l")) {
+              if (!GameMap.isValidMapSize(in[i + 2])) {
                 addError("Illegal mapsize.");
               }
             }
@@ -11,16 +11,22 @@ import net.packets.Packet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Packet to send the full map from server to client. */
+/**
+ * Packet to send the map from server to client. The map contains all rows the server generated so
+ * far, the rest follows with {@link PacketMapChunk}. Packet-Code: MAPBC
+ */
 public class PacketBroadcastMap extends Packet {
 
   private static final Logger logger = LoggerFactory.getLogger(PacketBroadcastMap.class);
   private long seed;
+  private int generatedRows;
+  private int mapHeight;
   private String mapString;
   private String[] mapArray;
 
   /**
-   * The server prepares to send a serverMap to the client.
+   * The server prepares to send a serverMap to the client. Use {@link ServerMap#sendMap(int)} to
+   * send it, so no chunk gets sent before the map.
    *
    * @param serverMap map to send
    */
@@ -28,13 +34,16 @@ public class PacketBroadcastMap extends Packet {
     super(PacketTypes.FULL_MAP_BROADCAST);
     mapString = serverMap.toPacketString();
     seed = serverMap.getSeed();
-    setData(seed + "║" + mapString);
+    generatedRows = serverMap.getGeneratedRows();
+    mapHeight = serverMap.getHeight();
+    setData(seed + "║" + generatedRows + "║" + mapHeight + "║" + mapString);
   }
 
   /**
-   * The client receives the full map from the server and prepares to process it.
+   * The client receives the map from the server and prepares to process it.
    *
-   * @param data id for every block on the map
+   * @param data seed, number of generated rows, height of the full map and the id for every block
+   *     of the generated rows
    */
   public PacketBroadcastMap(String data) {
     super(PacketTypes.FULL_MAP_BROADCAST);
@@ -51,18 +60,29 @@ public class PacketBroadcastMap extends Packet {
   @Override
   public void validate() {
 
-    if (mapArray.length < 2) {
+    if (mapArray.length < 4) {
       addError("Map data is incomplete.");
       return;
     }
 
-    // Store seed and remove it from the map array
+    // Store seed and size and remove them from the map array
     try {
       seed = Integer.parseInt(mapArray[0]);
     } catch (NumberFormatException e) {
       addError("Invalid map seed.");
     }
-    mapArray = Arrays.copyOfRange(mapArray, 1, mapArray.length);
+    try {
+      generatedRows = Integer.parseInt(mapArray[1]);
+      mapHeight = Integer.parseInt(mapArray[2]);
+    } catch (NumberFormatException e) {
+      addError("Invalid map size.");
+      return;
+    }
+    mapArray = Arrays.copyOfRange(mapArray, 3, mapArray.length);
+    if (generatedRows != mapArray.length || generatedRows > mapHeight) {
+      addError("Invalid map size.");
+      return;
+    }
 
     int len = mapArray[0].length();
     for (String s : mapArray) {
@@ -97,10 +117,10 @@ public class PacketBroadcastMap extends Packet {
     }
     if (!hasErrors()) {
       if (!GameOver.isActiv()) {
-        map.setLobbyMap(mapArray);
+        map.setLobbyMap(mapArray, mapHeight);
         map.setSeed(seed);
       } else {
-        Game.setCachedMap(mapArray);
+        Game.setCachedMap(mapArray, mapHeight);
       }
     } else {
       logger.error(
@@ -0,0 +1,127 @@
+package net.packets.map;
+
+import entities.blocks.BlockMaster;
+import game.Game;
+import game.map.ClientMap;
+import game.map.ServerMap;
+import game.stages.GameOver;
+import java.util.Arrays;
+import net.packets.Packet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Packet to send newly generated rows of the map from server to client. The server generates the
+ * map in chunks while the players dig deeper and sends every new chunk to the whole lobby.
+ * Packet-Code: MAPCH
+ */
+public class PacketMapChunk extends Packet {
+
+  private static final Logger logger = LoggerFactory.getLogger(PacketMapChunk.class);
+  private int fromRow;
+  private int mapHeight;
+  private String[] mapArray;
+
+  /**
+   * The server prepares to send some rows of the map to the client.
+   *
+   * @param serverMap map to send the rows of
+   * @param fromRow first row to send (inclusive)
+   * @param toRow last row to send (exclusive)
+   */
+  public PacketMapChunk(ServerMap serverMap, int fromRow, int toRow) {
+    super(PacketTypes.MAP_CHUNK);
+    this.fromRow = fromRow;
+    this.mapHeight = serverMap.getHeight();
+    setData(fromRow + "║" + mapHeight + "║" + serverMap.toPacketString(fromRow, toRow));
+  }
+
+  /**
+   * The client receives the rows of the map and prepares to process them.
+   *
+   * @param data first row, total height of the map and the id of every block in the rows
+   */
+  public PacketMapChunk(String data) {
+    super(PacketTypes.MAP_CHUNK);
+    setData(data);
+    if (data == null) {
+      addError("No data received.");
+      return;
+    }
+    mapArray = data.split("║");
+    validate();
+  }
+
+  @Override
+  public void validate() {
+    if (mapArray.length < 3) {
+      addError("Map data is incomplete.");
+      return;
+    }
+    try {
+      fromRow = Integer.parseInt(mapArray[0]);
+      mapHeight = Integer.parseInt(mapArray[1]);
+    } catch (NumberFormatException e) {
+      addError("Invalid chunk position.");
+      return;
+    }
+    mapArray = Arrays.copyOfRange(mapArray, 2, mapArray.length);
+    if (fromRow < 0 || fromRow + mapArray.length > mapHeight) {
+      addError("Chunk lies outside of the map.");
+      return;
+    }
+
+    int len = mapArray[0].length();
+    for (String s : mapArray) {
+      if (s.length() != len) {
+        addError("Invalid map data received: " + s);
+        return;
+      }
+      // Each line can only contain numbers
+      for (int i = 0; i < s.length(); i++) {
+        int val = Character.getNumericValue(s.charAt(i));
+        if (val < 0 || val > BlockMaster.BlockTypes.values().length - 1) {
+          addError("Wrong map format: " + val);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * The client adds the rows to its map. Logic is in {@link ClientMap}. While the game over screen
+   * is shown, the rows belong to the cached map of the next lobby.
+   *
+   * @see ClientMap#addRows(int, int, String[])
+   */
+  @Override
+  public void processData() {
+    ClientMap map = Game.getMap();
+    if (map == null) {
+      addError("No map found on the client side.");
+    }
+    if (!hasErrors() && GameOver.isActiv()) {
+      String[] cachedMap = Game.getCachedMap();
+      if (cachedMap != null) {
+        String[] extended = ClientMap.appendRows(cachedMap, fromRow, mapArray);
+        if (extended == null) {
+          ClientMap.requestRows(cachedMap.length, fromRow);
+        } else {
+          Game.setCachedMap(extended, mapHeight);
+        }
+      }
+    } else if (!hasErrors()) {
+      map.addRows(fromRow, mapHeight, mapArray);
+    } else {
+      logger.error("Error trying to add map rows: " + createErrorMessage());
+    }
+  }
+
+  public int getFromRow() {
+    return fromRow;
+  }
+
+  public String[] getRows() {
+    return mapArray;
+  }
+}
@@ -0,0 +1,100 @@
+package net.packets.map;
+
+import game.map.ServerMap;
+import net.ServerLogic;
+import net.lobbyhandling.Lobby;
+import net.packets.Packet;
+
+/**
+ * Packet to request rows of the map that the client missed. The client sends it if a chunk does not
+ * connect to the bottom of its map, the server answers with all generated rows from the requested
+ * row on. The client also requests the rows it unloaded when the player gets close to them again,
+ * then only the rows up to an end row are sent. Packet-Code: MAPRQ
+ */
+public class PacketMapRequest extends Packet {
+
+  private int fromRow;
+  private int toRow = Integer.MAX_VALUE;
+
+  /**
+   * The client requests the rows of the map from a row on.
+   *
+   * @param fromRow first row that is missing on the client
+   */
+  public PacketMapRequest(int fromRow) {
+    super(PacketTypes.MAP_REQUEST);
+    this.fromRow = fromRow;
+    setData(String.valueOf(fromRow));
+  }
+
+  /**
+   * The client requests some rows of the map.
+   *
+   * @param fromRow first row (inclusive)
+   * @param toRow last row (exclusive)
+   */
+  public PacketMapRequest(int fromRow, int toRow) {
+    super(PacketTypes.MAP_REQUEST);
+    this.fromRow = fromRow;
+    this.toRow = toRow;
+    setData(fromRow + "║" + toRow);
+  }
+
+  /**
+   * The server receives the request of a client.
+   *
+   * @param clientId client that sent the request
+   * @param data first row that is missing on the client, optionally followed by the end row
+   */
+  public PacketMapRequest(int clientId, String data) {
+    super(PacketTypes.MAP_REQUEST);
+    setClientId(clientId);
+    setData(data);
+    validate();
+  }
+
+  @Override
+  public void validate() {
+    String[] rows = String.valueOf(getData()).split("║");
+    if (rows.length > 2) {
+      addError("Invalid row.");
+      return;
+    }
+    for (String row : rows) {
+      if (!isInt(row)) {
+        return;
+      }
+    }
+    fromRow = Integer.parseInt(rows[0]);
+    if (rows.length == 2) {
+      toRow = Integer.parseInt(rows[1]);
+    }
+    if (fromRow < 0 || toRow <= fromRow) {
+      addError("Invalid row.");
+    }
+  }
+
+  /**
+   * The server sends the missing rows to the client. Logic is in {@link ServerMap}.
+   *
+   * @see ServerMap#sendRows(int, int, int)
+   */
+  @Override
+  public void processData() {
+    if (hasErrors() || !isLoggedIn() || !isInALobby()) {
+      return;
+    }
+    Lobby lobby = ServerLogic.getLobbyForClient(getClientId());
+    if (lobby != null) {
+      lobby.getMap().sendRows(getClientId(), fromRow, toRow);
+    }
+  }
+
+  public int getFromRow() {
+    return fromRow;
+  }
+
+  public int getToRow() {
+    return toRow;
+  }
+}
@@ -2,6 +2,7 @@ package net.packets.playerprop;
 
 import game.NetPlayerMaster;
 import net.ServerLogic;
+import net.lobbyhandling.Lobby;
 import net.packets.Packet;
 import net.playerhandling.ServerPlayer;
 import org.joml.Vector2f;
@@ -93,6 +94,11 @@ public class PacketPos extends Packet {
         player.setPos2d(new Vector2f(posX, posY));
         player.setRotY(rotY);
         sendToLobby(player.getCurLobbyId());
+        // Generate and send the map below the player before they get there
+        Lobby lobby = player.getLobby();
+        if (lobby != null) {
+          lobby.getMap().explore(player.getPos2d(), lobby.getLobbyId());
+        }
       } else {
         // Client
         NetPlayerMaster.updatePosition(playerId, posX, posY, rotY);
@@ -0,0 +1,96 @@
+package net.playerhandling;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines like {@link java.io.BufferedReader#readLine()}, but never keeps more than a maximum
+ * number of characters of a line in memory. Lines that are longer are skipped completely and
+ * counted, so a client can't make the server allocate huge strings by never sending a line break.
+ */
+public class BoundedLineReader {
+
+  private final Reader input;
+  private final int maxLineLength;
+  private final char[] buffer = new char[8192];
+  private final StringBuilder line;
+  private int position;
+  private int limit;
+  private boolean skipLineFeed;
+  private long droppedLines;
+
+  /**
+   * Create a reader.
+   *
+   * @param input stream to read from, does not need to be buffered
+   * @param maxLineLength maximum number of characters of a line without the line break
+   */
+  public BoundedLineReader(Reader input, int maxLineLength) {
+    this.input = input;
+    this.maxLineLength = maxLineLength;
+    this.line = new StringBuilder(Math.min(maxLineLength, 256));
+  }
+
+  /**
+   * Read the next line that is not too long. A line is terminated by "\n", "\r" or "\r\n".
+   *
+   * @return the line without the line break or null if the end of the stream is reached
+   * @throws IOException if reading from the stream fails
+   */
+  public String readLine() throws IOException {
+    line.setLength(0);
+    boolean tooLong = false;
+    while (true) {
+      if (position == limit) {
+        limit = input.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+          limit = 0;
+          // Like BufferedReader, the last line doesn't need a line break
+          return line.length() > 0 && !tooLong ? line.toString() : null;
+        }
+      }
+      char c = buffer[position++];
+      if (skipLineFeed) {
+        skipLineFeed = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      if (c == '\n' || c == '\r') {
+        skipLineFeed = c == '\r';
+        if (!tooLong) {
+          return line.toString();
+        }
+        droppedLines++;
+        tooLong = false;
+        line.setLength(0);
+      } else if (!tooLong) {
+        if (line.length() < maxLineLength) {
+          line.append(c);
+        } else {
+          tooLong = true;
+          line.setLength(0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the number of lines that were skipped because they were too long.
+   *
+   * @return number of skipped lines
+   */
+  public long getDroppedLines() {
+    return droppedLines;
+  }
+
+  /**
+   * Close the underlying stream.
+   *
+   * @throws IOException if closing fails
+   */
+  public void close() throws IOException {
+    input.close();
+  }
+}
@@ -0,0 +1,169 @@
+package net.playerhandling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import net.packets.Packet.PacketTypes;
+
+/**
+ * Token bucket rate limits for the messages of one client. Every packet type belongs to a {@link
+ * Category} with its own bucket, so a client that floods the chat can still move and dig. Messages
+ * that exceed the limit are dropped by the <code>ClientThread</code> before they are processed.
+ *
+ * <p>The limits are far above what the game client sends, they only stop clients that send
+ * messages in a loop. Pings, pongs and disconnects are never limited.
+ *
+ * <p>One limiter is only used by the thread of its client. The drop counters of all clients are
+ * also summed up server wide, see {@link #getTotalDropped(Category)}.
+ */
+public class ClientRateLimiter {
+
+  private static final AtomicLongArray totalDropped =
+      new AtomicLongArray(Category.values().length);
+
+  private final float[] tokens = new float[Category.values().length];
+  private final long[] lastRefill = new long[Category.values().length];
+  private final long[] dropped = new long[Category.values().length];
+
+  /** Create a limiter with full buckets. */
+  public ClientRateLimiter() {
+    long now = System.nanoTime();
+    for (Category category : Category.values()) {
+      tokens[category.ordinal()] = category.capacity;
+      lastRefill[category.ordinal()] = now;
+    }
+  }
+
+  /**
+   * Get the category of a packet type.
+   *
+   * @param type type of the received packet
+   * @return the rate limit category
+   */
+  public static Category getCategory(PacketTypes type) {
+    switch (type) {
+      case PING:
+      case PONG:
+      case DISCONNECT:
+        return Category.UNLIMITED;
+      case POSITION_UPDATE:
+      case PLAYER_VELOCITY:
+        return Category.MOVEMENT;
+      case BLOCK_DAMAGE:
+        return Category.BLOCK;
+      case CHAT_MESSAGE_TO_SERVER:
+        return Category.CHAT;
+      case SPAWN_ITEM:
+      case ITEM_USED:
+      case LIFE_STATUS:
+        return Category.ITEM;
+      case LOGIN:
+      case SET_NAME:
+      case GET_LOBBIES:
+      case CREATE_LOBBY:
+      case CREATE_LOBBY_STATUS:
+      case JOIN_LOBBY:
+      case JOIN_LOBBY_STATUS:
+      case LEAVE_LOBBY:
+      case READY:
+      case PLAYERLIST:
+      case HIGHSCORE:
+      case GET_HISTORY:
+        return Category.LOBBY;
+      default:
+        return Category.OTHER;
+    }
+  }
+
+  /**
+   * Take a token for a received message.
+   *
+   * @param type type of the received packet
+   * @return true if the message may be processed, false if it has to be dropped
+   */
+  public boolean tryAcquire(PacketTypes type) {
+    return tryAcquire(getCategory(type), System.nanoTime());
+  }
+
+  /**
+   * Take a token from the bucket of a category.
+   *
+   * @param category category of the received message
+   * @param now current time in nanoseconds, as returned by {@link System#nanoTime()}
+   * @return true if the message may be processed, false if it has to be dropped
+   */
+  boolean tryAcquire(Category category, long now) {
+    if (category == Category.UNLIMITED) {
+      return true;
+    }
+    int i = category.ordinal();
+    float refilled = tokens[i] + (now - lastRefill[i]) / 1e9f * category.perSecond;
+    tokens[i] = Math.min(category.capacity, refilled);
+    lastRefill[i] = now;
+    if (tokens[i] >= 1) {
+      tokens[i]--;
+      return true;
+    }
+    dropped[i]++;
+    totalDropped.incrementAndGet(i);
+    return false;
+  }
+
+  /**
+   * Get the number of dropped messages of this client.
+   *
+   * @param category category of the messages
+   * @return number of dropped messages
+   */
+  public long getDropped(Category category) {
+    return dropped[category.ordinal()];
+  }
+
+  /**
+   * Get the number of dropped messages of all clients since the server started.
+   *
+   * @param category category of the messages
+   * @return number of dropped messages
+   */
+  public static long getTotalDropped(Category category) {
+    return totalDropped.get(category.ordinal());
+  }
+
+  /**
+   * Summary of the dropped messages of this client, for the log.
+   *
+   * @return dropped messages per category
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Category category : Category.values()) {
+      if (dropped[category.ordinal()] > 0) {
+        sb.append(category).append('=').append(dropped[category.ordinal()]).append(' ');
+      }
+    }
+    return sb.toString().trim();
+  }
+
+  /**
+   * Rate limit categories with the size of the bucket (allowed burst) and the refill rate (allowed
+   * messages per second on average).
+   */
+  public enum Category {
+    UNLIMITED(0, 0),
+    // Velocity is sent on every change of direction, position up to 20 times per second
+    MOVEMENT(80, 40),
+    // The player digs every 0.2s, explosions are computed by the server
+    BLOCK(30, 15),
+    CHAT(5, 1),
+    ITEM(20, 5),
+    LOBBY(20, 4),
+    OTHER(10, 5);
+
+    private final int capacity;
+    private final float perSecond;
+
+    Category(int capacity, float perSecond) {
+      this.capacity = capacity;
+      this.perSecond = perSecond;
+    }
+  }
+}
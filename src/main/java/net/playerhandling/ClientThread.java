@@ -1,12 +1,13 @@
 package net.playerhandling;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import net.ServerLogic;
 import net.packets.Packet;
 import net.packets.block.PacketBlockDamage;
@@ -25,6 +26,7 @@ import net.packets.lobby.PacketJoinLobbyStatus;
 import net.packets.lobby.PacketLeaveLobby;
 import net.packets.loginlogout.PacketDisconnect;
 import net.packets.loginlogout.PacketLogin;
+import net.packets.map.PacketMapRequest;
 import net.packets.name.PacketSetName;
 import net.packets.pingpong.PacketPing;
 import net.packets.pingpong.PacketPong;
@@ -36,8 +38,8 @@ import org.slf4j.LoggerFactory;
 /**
  * One thread for each client. This thread contains and manages the input and output streams to
  * communicate with the client. Will receive messages from their client and process them. Can send
- * messages to their client. It also activates the <code>PingManager</code> to send pings to the
- * client in a certain frequency.
+ * messages to their client, they are written by an extra writer thread. It also activates the
+ * <code>PingManager</code> to send pings to the client in a certain frequency.
  */
 // Client and Server code can be similar, but we don't want shared classes
 @SuppressWarnings("Duplicates")
@@ -45,15 +47,28 @@ public class ClientThread implements Runnable {
 
   public static final Logger logger = LoggerFactory.getLogger(ClientThread.class);
 
+  // No client message comes close to this, the longest are chat messages with 100 characters
+  private static final int MAX_LINE_LENGTH = 512;
+  private static final long DROP_LOG_INTERVAL = 10000;
+  // A client that is this far behind is disconnected instead of queuing more and more messages
+  private static final int MAX_QUEUED_MESSAGES = 4096;
+
   private final int clientId;
   private final Socket socket;
   private final PingManager pingManager;
-  private BufferedReader input;
+  private final ClientRateLimiter rateLimiter = new ClientRateLimiter();
+  // Messages to the client in the order they were sent, written by the writer thread
+  private final BlockingQueue<String> outbound = new LinkedBlockingQueue<>(MAX_QUEUED_MESSAGES);
+  private final Thread writer;
+  private BoundedLineReader input;
   private PrintWriter output;
+  private long lastDropLog;
+  private long loggedTooLongLines;
 
   /**
    * Create input and output streams to communicate with the client over the specified socket. Also
-   * start the ping manager to survey the connection.
+   * start the ping manager to survey the connection. If the streams can't be set up, the connection
+   * is closed and the client gets removed by {@link #run()}.
    *
    * @param clientSocket TCP connection socket to the server
    * @param clientId unique identifier of the client
@@ -64,14 +79,23 @@ public class ClientThread implements Runnable {
     logger.info("Client details: " + clientSocket.toString());
     try {
       input =
-          new BufferedReader(
-              new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+          new BoundedLineReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+              MAX_LINE_LENGTH);
       output =
           new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
 
     } catch (IOException e) {
       System.err.println("Streams not set up for Client.");
     }
+    writer = new Thread(this::writeToClient);
+    writer.setName("Client Writer " + clientId);
+    writer.setDaemon(true);
+    if (output != null) {
+      writer.start();
+    } else {
+      closeSocket();
+    }
     pingManager = new PingManager(clientId);
     new Thread(pingManager).start();
   }
@@ -99,6 +123,11 @@ public class ClientThread implements Runnable {
           break;
         }
 
+        if (input.getDroppedLines() > loggedTooLongLines) {
+          loggedTooLongLines = input.getDroppedLines();
+          logDroppedMessages();
+        }
+
         // Message too short
         if (in.length() < 5) {
           // logger.info(in + " is not a valid message from the client.");
@@ -114,8 +143,13 @@ public class ClientThread implements Runnable {
         } else {
           data = in.substring(6);
         }
+        Packet.PacketTypes type = Packet.lookupPacket(code);
+        if (!rateLimiter.tryAcquire(type)) {
+          logDroppedMessages();
+          continue;
+        }
         Packet p = null;
-        switch (Packet.lookupPacket(code)) {
+        switch (type) {
           case LOGIN:
             PacketLogin login = new PacketLogin(clientId, data);
             login.processData();
@@ -189,6 +223,9 @@ public class ClientThread implements Runnable {
           case LIFE_STATUS:
             p = new PacketLifeStatus(clientId, data);
             break;
+          case MAP_REQUEST:
+            p = new PacketMapRequest(clientId, data);
+            break;
           default:
         }
         if (p != null) {
@@ -215,6 +252,7 @@ public class ClientThread implements Runnable {
     }
     // If the thread dies or a fatal exception occurs, disconnect the player and close the socket
     ServerLogic.removePlayer(clientId);
+    writer.interrupt();
     try {
       socket.close();
     } catch (IOException e1) {
@@ -222,14 +260,52 @@ public class ClientThread implements Runnable {
     }
   }
 
+  /** Writer thread, writes the queued messages and flushes whenever the queue is empty. */
+  private void writeToClient() {
+    try {
+      while (!socket.isClosed()) {
+        output.println(outbound.take());
+        if (outbound.isEmpty()) {
+          output.flush();
+        }
+      }
+    } catch (InterruptedException e) {
+      // The connection was closed
+    }
+  }
+
+  /**
+   * Log the dropped messages of this client, at most once per interval so a flooding client can't
+   * flood the log as well.
+   */
+  private void logDroppedMessages() {
+    long now = System.currentTimeMillis();
+    if (now - lastDropLog < DROP_LOG_INTERVAL) {
+      return;
+    }
+    lastDropLog = now;
+    logger.warn(
+        "Client "
+            + ServerLogic.getPlayerList().getUsername(clientId)
+            + "("
+            + clientId
+            + ") exceeds rate limits. Dropped: "
+            + rateLimiter
+            + (input.getDroppedLines() > 0 ? " TOO_LONG=" + input.getDroppedLines() : ""));
+  }
+
   /**
-   * The packet generates the final message string and sends it to the stream.
+   * The packet generates the final message string and queues it for the writer thread. A slow
+   * connection only delays the messages of this client, never the thread that sends, e.g. the
+   * block tick of a lobby. Messages are sent in the order they were queued.
    *
    * @param packet packet to send to the client
    */
   public void sendToClient(Packet packet) {
-    output.println(packet.toString());
-    output.flush();
+    if (!outbound.offer(packet.toString()) && !socket.isClosed()) {
+      logger.warn("Client " + clientId + " can't keep up with its messages, disconnecting.");
+      closeSocket();
+    }
   }
 
   public int getClientId() {
@@ -240,8 +316,13 @@ public class ClientThread implements Runnable {
     return pingManager;
   }
 
+  public ClientRateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
   /** Close the connection to the client. */
   public void closeSocket() {
+    writer.interrupt();
     try {
       socket.close();
     } catch (IOException e) {
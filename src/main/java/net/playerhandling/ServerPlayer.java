@@ -4,6 +4,8 @@ import entities.NetPlayer;
 import entities.Player;
 import entities.items.Star;
 import entities.items.Steroids;
+import java.util.Collections;
+import java.util.List;
 import net.ServerLogic;
 import net.lobbyhandling.Lobby;
 import net.packets.chat.PacketChatMessageToClient;
@@ -18,6 +20,8 @@ import util.Util;
 public class ServerPlayer {
 
   public static final Logger logger = LoggerFactory.getLogger(ServerPlayer.class);
+  // Blocks beside, below and above the player
+  private static final int maxDigBlocks = 4;
 
   private String username;
   private int clientId;
@@ -298,41 +302,78 @@ public class ServerPlayer {
    * @return true if the block damage packet doesn't violate any constraints
    */
   public boolean validateBlockDamage(int posX, int posY, float damage) {
+    return validateBlockDamage(Collections.singletonList(new Vector3f(posX, posY, damage)));
+  }
 
-    // If player has an active dynamite, we don't check stuff for now
-    if (!getLobby().getServerItemState().hasDynamiteOwnedBy(clientId)) {
+  /**
+   * Validate a batch of block damage that the client collected during one dig interval. The
+   * player can dig up to four different blocks at the same time, but the whole batch counts as one
+   * dig: the damage of all blocks together is at most the damage of one dig interval.
+   *
+   * <p>If there are any violations, they will be logged and added to the player's count.
+   *
+   * @param cells damaged blocks with the grid position as x and y and the damage as z
+   * @return true if the batch doesn't violate any constraints
+   */
+  public boolean validateBlockDamage(List<Vector3f> cells) {
+    float maxDmg = Player.getDigInterval() * digDamage;
+    float allowedRunSpeed = NetPlayer.getRunSpeed();
 
-      float maxDmg = Player.getDigInterval() * digDamage;
-      float allowedRunSpeed = NetPlayer.getRunSpeed();
+    if (amped) {
+      maxDmg *= Steroids.getDigDamageMultiplier();
+      allowedRunSpeed *= Steroids.getMovementMultiplier();
+      if ((System.currentTimeMillis() - ampedAt) / 1000 > Steroids.getSteroidsTime() + 1) {
+        amped = false;
+      }
+    } else if (frozen) {
+      maxDmg *= getFreezeFactor();
+    }
 
-      if (amped) {
-        maxDmg *= Steroids.getDigDamageMultiplier();
-        allowedRunSpeed *= Steroids.getMovementMultiplier();
-        if ((System.currentTimeMillis() - ampedAt) / 1000 > Steroids.getSteroidsTime() + 1) {
-          amped = false;
+    // A player touches the blocks beside and below him, not more
+    if (cells.size() > maxDigBlocks) {
+      logger.warn(getUsername() + ": Digging " + cells.size() + " blocks at once. 1 violation.");
+      addDamageViolations(1);
+      return false;
+    }
+    // Every block only once, otherwise the same block would get the damage of several digs
+    for (int i = 0; i < cells.size(); i++) {
+      for (int j = i + 1; j < cells.size(); j++) {
+        if (cells.get(i).x == cells.get(j).x && cells.get(i).y == cells.get(j).y) {
+          logger.warn(getUsername() + ": Digging the same block twice at once. 1 violation.");
+          addDamageViolations(1);
+          return false;
         }
-      } else if (frozen) {
-        maxDmg *= getFreezeFactor();
       }
-
-      // Check if damage is too high (with tolerance)
-      if (damage > maxDmg * 1.2f) {
-        logger.warn("Too much dig damage for one packet. 1 violation.");
-        logger.debug(
-            "allowed: " + maxDmg + " factor: " + getFreezeFactor() + " current: " + damage);
+    }
+    // Check if the damage of all blocks together is too high (with tolerance)
+    float totalDamage = 0;
+    for (Vector3f cell : cells) {
+      // Also rejects NaN, negative damage would lower the total
+      if (!(cell.z >= 0)) {
+        logger.warn(getUsername() + ": Invalid dig damage " + cell.z + ". 1 violation.");
         addDamageViolations(1);
         return false;
       }
-      // Check if packets are sent too fast
-      if (System.currentTimeMillis() - lastDig < 900 * Player.getDigInterval()) {
-        // We dont give violations for digging too fast since this can happen out of the player's
-        // control. However, we do ignore any dig attempts that violate the dig interval.
-        logger.warn("Player digging too fast.");
-        return false;
-      }
-      // Check if player is too far away from block. This is fairly generous since we only update
-      // positions once per second
-      Vector3f blockPos = getLobby().getMap().gridToWorld(new Vector2i(posX, posY));
+      totalDamage += cell.z;
+    }
+    if (!(totalDamage <= maxDmg * 1.2f)) {
+      logger.warn("Too much dig damage for one packet. 1 violation.");
+      logger.debug(
+          "allowed: " + maxDmg + " factor: " + getFreezeFactor() + " current: " + totalDamage);
+      addDamageViolations(1);
+      return false;
+    }
+    // Check if packets are sent too fast
+    if (System.currentTimeMillis() - lastDig < 900 * Player.getDigInterval()) {
+      // We dont give violations for digging too fast since this can happen out of the player's
+      // control. However, we do ignore any dig attempts that violate the dig interval.
+      logger.warn("Player digging too fast.");
+      return false;
+    }
+    // Check if player is too far away from block. This is fairly generous since we only update
+    // positions once per second
+    for (Vector3f cell : cells) {
+      Vector3f blockPos = getLobby().getMap().gridToWorld(new Vector2i((int) cell.x, (int) cell.y));
       if (new Vector2f(blockPos.x, blockPos.y).distance(getPos2d()) > allowedRunSpeed * 2) {
         logger.warn(getUsername() + ": Trying to dig a block too far away. 1 violation.");
         addDamageViolations(1);
@@ -365,6 +406,10 @@ public class ServerPlayer {
     return movementViolations;
   }
 
+  public int getDamageViolations() {
+    return damageViolations;
+  }
+
   /**
    * Add a number of violations and enforce actions when too many violations are accumulated.
    *
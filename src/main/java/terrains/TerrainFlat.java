@@ -4,8 +4,11 @@ import engine.models.RawModel;
 import engine.render.Loader;
 import engine.textures.TerrainTexture;
 import engine.textures.TerrainTexturePack;
+import entities.collision.BoundingBox;
 import game.map.GameMap;
+import org.joml.Matrix4f;
 import org.joml.Vector3f;
+import util.Maths;
 
 /** Flat Terrain with blend map. */
 @SuppressWarnings("Duplicates")
@@ -20,6 +23,7 @@ public class TerrainFlat {
   private TerrainTexture blendMap;
 
   private Vector3f rotation = new Vector3f(0f, 0f, 180f); // in degrees
+  private BoundingBox boundingBox;
 
   /**
    * Create a flat terrain tile.
@@ -124,11 +128,44 @@ public class TerrainFlat {
     return blendMap;
   }
 
+  /**
+   * Get the box around the terrain in world coordinates, the same transformation as in the terrain
+   * renderer is applied to the corners of the tile.
+   *
+   * @return box around the terrain
+   */
+  public BoundingBox getBoundingBox() {
+    if (boundingBox == null) {
+      Matrix4f transformation =
+          Maths.createTransformationMatrix(
+              new Vector3f(coordX, coordZ, 0),
+              rotation.x,
+              rotation.y,
+              rotation.z,
+              new Vector3f(1, 1, 1));
+      Vector3f first = transformation.transformPosition(new Vector3f(0, 0, 0));
+      Vector3f second = transformation.transformPosition(new Vector3f(SIZE, SIZE, 0));
+      boundingBox =
+          new BoundingBox(
+              new float[] {
+                Math.min(first.x, second.x),
+                Math.max(first.x, second.x),
+                Math.min(first.y, second.y),
+                Math.max(first.y, second.y),
+                Math.min(first.z, second.z),
+                Math.max(first.z, second.z)
+              });
+      boundingBox.moveTo(new Vector3f());
+    }
+    return boundingBox;
+  }
+
   public Vector3f getRotation() {
     return rotation;
   }
 
   public void setRotation(Vector3f rotation) {
     this.rotation = rotation;
+    boundingBox = null;
   }
 }
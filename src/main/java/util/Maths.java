@@ -23,12 +23,29 @@ public class Maths {
    */
   public static Matrix4f createTransformationMatrix(
       Vector3f translation, float rx, float ry, float rz, Vector3f scale) {
-    Matrix4f matrix = new Matrix4f();
-    matrix.setTranslation(translation);
-    matrix.rotateZYX(
+    return createTransformationMatrix(translation, rx, ry, rz, scale, new Matrix4f());
+  }
+
+  /**
+   * Same as {@link #createTransformationMatrix(Vector3f, float, float, float, Vector3f)}, but
+   * overwrites an existing matrix. Used to fill the instance data of many entities per frame.
+   *
+   * @param translation movement along the axis
+   * @param rx Rotation around X axis
+   * @param ry Rotation around Y axis
+   * @param rz Rotation around Z axis
+   * @param scale Scaling factor
+   * @param dest will contain the transformation matrix
+   * @return dest
+   */
+  public static Matrix4f createTransformationMatrix(
+      Vector3f translation, float rx, float ry, float rz, Vector3f scale, Matrix4f dest) {
+    dest.identity();
+    dest.setTranslation(translation);
+    dest.rotateZYX(
         (float) Math.toRadians(rx), (float) Math.toRadians(ry), (float) Math.toRadians(rz));
-    matrix.scale(scale.x, scale.y, scale.z);
-    return matrix;
+    dest.scale(scale.x, scale.y, scale.z);
+    return dest;
   }
 
   /**
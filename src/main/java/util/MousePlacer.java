@@ -6,30 +6,31 @@ import engine.io.InputHandler;
 import entities.Camera;
 import entities.Entity;
 import entities.blocks.Block;
-import entities.blocks.BlockMaster;
+import entities.collision.BroadPhase;
 import entities.items.Dynamite;
 import entities.items.Item;
 import entities.items.ItemMaster;
 import entities.items.Torch;
 import game.Game;
-import java.util.HashMap;
-import java.util.Map;
+import game.map.RaycastHit;
+import java.util.ArrayList;
+import java.util.List;
 import net.packets.items.PacketSpawnItem;
-import org.joml.AABBf;
 import org.joml.Intersectionf;
-import org.joml.Rayf;
-import org.joml.Vector2f;
 import org.joml.Vector3f;
 
 /**
  * Uses Ray Casting in {@link InputHandler} to place an entity with the mouse cursor. Checks if the
- * item collides with a block to make sure the item is placed in an empty space.
+ * item collides with a block to make sure the item is placed in an empty space. In block mode the
+ * mouse ray is cast through the map grid to find the block under the cursor.
  */
 public class MousePlacer {
 
   private static Entity entity;
   private static int mode;
   private static Block intersectionBlock;
+  private static final List<Block> closeBlocks = new ArrayList<>();
+  private static final RaycastHit hit = new RaycastHit();
 
   /**
    * Run every frame while placer Modes is on. Updates position of the entity to be placed and
@@ -57,71 +58,20 @@ public class MousePlacer {
         MousePlacer.entity = null;
       }
     } else if (mode == Modes.BLOCK.getMode()) {
-      Map<Block, Vector3f> intersections = new HashMap<>();
-      for (Block block : BlockMaster.getBlocks()) {
-        AABBf aabb = block.getBbox().getAabbf();
-        Rayf ray = new Rayf(camera.getPosition(), InputHandler.getMouseRay());
-        Vector2f result = new Vector2f();
-        boolean intersectRayAab = Intersectionf.intersectRayAab(ray, aabb, result);
-        if (intersectRayAab) {
-          Vector3f intersection =
-              new Vector3f(InputHandler.getMouseRay())
-                  .mul(result.x)
-                  .add(camera.getPosition().x, camera.getPosition().y, camera.getPosition().z);
-          intersections.put(block, new Vector3f(intersection.x, intersection.y, intersection.z));
-        }
-      }
-
-      Vector3f intersection = null;
-      float distanceSq = Float.POSITIVE_INFINITY;
       intersectionBlock = null;
-      if (intersections.size() == 0) {
+      if (Game.getMap() != null
+          && Game.getMap().raycast(camera.getPosition(), InputHandler.getMouseRay(), hit)) {
+        intersectionBlock = hit.getBlock();
+        // Ensure some distance from the intersecting block, push the entity away from the face
+        float offset = .35f;
+        entity.setPosition(new Vector3f(hit.getNormal()).mul(offset).add(hit.getPoint()));
+      } else {
         /*When no block intersection was found, use normal wall intersection,
          but we place it closer to the wall.
         */
         Vector3f wallIntersection = getZ3Intersection(camera);
         entity.setPosition(
             new Vector3f(wallIntersection.x, wallIntersection.y, wallIntersection.z - 2));
-      } else if (intersections.size() == 1) {
-        // If exactly one intersection was found, we just use that
-        for (Block block : intersections.keySet()) {
-          intersection = intersections.get(block);
-          intersectionBlock = block;
-        }
-      } else {
-        // More than 1 candidate for intersection, find the closest to the camera
-        for (Block block : intersections.keySet()) {
-          Vector3f inters = intersections.get(block);
-          if (intersection == null) {
-            intersection = inters;
-            intersectionBlock = block;
-            distanceSq = inters.distanceSquared(camera.getPosition());
-          } else if (inters.distanceSquared(camera.getPosition()) < distanceSq) {
-            intersection = inters;
-            intersectionBlock = block;
-            distanceSq = inters.distanceSquared(camera.getPosition());
-          }
-        }
-      }
-      if (intersection != null && intersectionBlock != null) {
-        // Ensure some distance from the intersecting block.
-
-        // Add an offset as a percentage of the distance from the center of the block to the object
-        float offset = .35f;
-
-        /*Take the vector that goes from the center of the block to the entity
-         scale that Vector by the offset factor, then add it to the intersection point.
-         This "pushes the entity away" from the block.
-        */
-        Vector3f scaledDistance =
-            new Vector3f(intersection)
-                .sub(intersectionBlock.getBbox().getCenter())
-                .normalize()
-                .mul(offset);
-
-        intersection.add(scaledDistance);
-
-        entity.setPosition(intersection);
       }
 
       if (InputHandler.isMousePressed(GLFW_MOUSE_BUTTON_1) && !doesCollide(3)) {
@@ -172,7 +122,7 @@ public class MousePlacer {
    * <p>Returns true if the entity is not in an empty space
    */
   private static boolean doesCollide(int dim) {
-    for (Block block : BlockMaster.getBlocks()) {
+    for (Block block : BroadPhase.getBlocksInBox(entity.getBbox(), closeBlocks)) {
       if (block.collidesWith(entity, dim)) {
         return true;
       }
@@ -0,0 +1,95 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread. The elements
+ * are kept in a ring buffer, the producer only writes the tail and the consumer only writes the
+ * head. Both cache the index of the other thread, so they only read the shared counter when the
+ * queue looks full or empty.
+ *
+ * @param <E> type of the elements
+ */
+public class SpscQueue<E> {
+
+  private final Object[] buffer;
+  private final int mask;
+  // Next index to read, only written by the consumer
+  private final AtomicLong head = new AtomicLong();
+  // Next index to write, only written by the producer
+  private final AtomicLong tail = new AtomicLong();
+  private long cachedHead;
+  private long cachedTail;
+
+  /**
+   * Create an empty queue.
+   *
+   * @param capacity maximum number of elements, rounded up to the next power of two
+   */
+  public SpscQueue(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    buffer = new Object[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Add an element at the end of the queue. Must only be called by the producer thread.
+   *
+   * @param element element to add, not null
+   * @return false if the queue is full
+   */
+  public boolean offer(E element) {
+    long t = tail.get();
+    if (t - cachedHead >= buffer.length) {
+      cachedHead = head.get();
+      if (t - cachedHead >= buffer.length) {
+        return false;
+      }
+    }
+    buffer[(int) t & mask] = element;
+    // Publishes the element to the consumer
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /**
+   * Take the element at the head of the queue. Must only be called by the consumer thread.
+   *
+   * @return the oldest element or null if the queue is empty
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    long h = head.get();
+    if (h >= cachedTail) {
+      cachedTail = tail.get();
+      if (h >= cachedTail) {
+        return null;
+      }
+    }
+    int index = (int) h & mask;
+    E element = (E) buffer[index];
+    buffer[index] = null;
+    // Frees the slot for the producer
+    head.lazySet(h + 1);
+    return element;
+  }
+
+  /**
+   * Get the number of elements in the queue. The value can be outdated as soon as it is returned.
+   *
+   * @return number of elements
+   */
+  public int size() {
+    return (int) (tail.get() - head.get());
+  }
+
+  public int capacity() {
+    return buffer.length;
+  }
+}
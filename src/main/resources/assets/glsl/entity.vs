@@ -3,6 +3,9 @@
 in vec3 position;
 in vec2 textureCoordinates;
 in vec3 normal;
+// Per instance
+in mat4 transformationMatrix;
+in vec2 offset;
 
 out vec2 pass_textureCoordinates;
 out vec3 surfaceNormal;
@@ -10,7 +13,6 @@ out vec3 toLightVector[8];
 out vec3 toCameraVector;
 out float visibility;
 
-uniform mat4 transformationMatrix;
 uniform mat4 projectionMatrix;
 uniform mat4 viewMatrix;
 uniform vec3 lightPosition[8];
@@ -18,7 +20,6 @@ uniform vec3 lightPosition[8];
 uniform float useFakeLighting;
 
 uniform float numberOfRows;
-uniform vec2 offset;
 
 const float density = 0.01;
 const float gradient = 5;
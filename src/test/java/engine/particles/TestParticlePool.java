@@ -0,0 +1,112 @@
+package engine.particles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestParticlePool {
+
+  @Test
+  public void checkMovementAndExpiry() {
+    ParticlePool pool = new ParticlePool(new ParticleTexture(0, 1, false));
+    pool.add(0, 0, 0, 10, 0, 0, 0, 1.5f, 0, 1);
+    pool.add(0, 0, 0, 0, 0, 10, 0, .5f, 0, 1);
+    pool.update(1, 0, 0, 0);
+    Assert.assertEquals(1, pool.size());
+    Assert.assertEquals(1, pool.getOrderedCount());
+    Assert.assertEquals(10, pool.getPositions()[pool.getOrder()[0] * 3], 0.001);
+    pool.update(1, 0, 0, 0);
+    Assert.assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void checkOrderIsFarToNear() {
+    ParticlePool pool = new ParticlePool(new ParticleTexture(0, 1, false));
+    for (int i = 0; i < 1000; i++) {
+      // Lives longer the further away it is
+      pool.add(0, 0, i % 37, 0, 0, 0, 0, 1 + i % 37, 0, 1);
+    }
+    pool.update(.5f, 0, 0, 0);
+    assertOrdered(pool);
+    pool.add(0, 0, 100, 0, 0, 0, 0, 10, 0, 1);
+    pool.update(1, 0, 0, 0);
+    // Particles at z = 0 expired
+    Assert.assertEquals(1000 - 28 + 1, pool.size());
+    assertOrdered(pool);
+    Assert.assertEquals(100, pool.getPositions()[pool.getOrder()[0] * 3 + 2], 0.001);
+  }
+
+  @Test
+  public void checkAdditiveIsNotSorted() {
+    ParticlePool pool = new ParticlePool(new ParticleTexture(0, 1, true));
+    for (int i = 0; i < 300; i++) {
+      pool.add(0, 0, i % 7, 0, 0, 0, 0, 10, 0, 1);
+    }
+    pool.update(1, 0, 0, 0);
+    Assert.assertEquals(300, pool.getOrderedCount());
+    for (int k = 0; k < pool.getOrderedCount(); k++) {
+      Assert.assertEquals(k, pool.getOrder()[k]);
+    }
+  }
+
+  @Test
+  public void checkRangesAndStagedParticles() {
+    ParticlePool pool = new ParticlePool(new ParticleTexture(0, 1, false));
+    ParticlePool staged = new ParticlePool(pool.getTexture());
+    for (int i = 0; i < 500; i++) {
+      pool.add(i, 0, 0, 0, 0, 1, 0, 10, 0, 1);
+      staged.add(-i, 0, 0, 0, 0, 0, 0, 10, 0, 1);
+    }
+    pool.simulate(0, 200, 1, 0, 0, 0);
+    pool.simulate(200, 500, 1, 0, 0, 0);
+    pool.finishUpdate();
+    pool.addAll(staged);
+    Assert.assertEquals(0, staged.size());
+    Assert.assertEquals(1000, pool.size());
+    // The staged particles are rendered after the next update
+    Assert.assertEquals(500, pool.getOrderedCount());
+    float[] positions = pool.getPositions();
+    for (int i = 0; i < 500; i++) {
+      Assert.assertEquals(1, positions[i * 3 + 2], 0.001);
+      Assert.assertEquals(-i, positions[(500 + i) * 3], 0.001);
+    }
+    assertOrderedByDistance(pool);
+    pool.update(0, 0, 0, 0);
+    Assert.assertEquals(1000, pool.getOrderedCount());
+    assertOrderedByDistance(pool);
+  }
+
+  @Test
+  public void checkAtlasStages() {
+    ParticlePool pool = new ParticlePool(new ParticleTexture(0, 2, true));
+    pool.add(0, 0, 0, 0, 0, 0, 0, 4, 0, 1);
+    pool.update(1, 0, 0, 0);
+    pool.update(1.5f, 0, 0, 0);
+    // Elapsed time 1 of 4 seconds, 4 stages: blend from stage 1 (1, 0) to stage 2 (0, .5)
+    int i = pool.getOrder()[0];
+    Assert.assertEquals(.5f, pool.getTexOffsets()[i * 4], 0.001);
+    Assert.assertEquals(0, pool.getTexOffsets()[i * 4 + 1], 0.001);
+    Assert.assertEquals(0, pool.getTexOffsets()[i * 4 + 2], 0.001);
+    Assert.assertEquals(.5f, pool.getTexOffsets()[i * 4 + 3], 0.001);
+    Assert.assertEquals(0, pool.getBlends()[i], 0.001);
+  }
+
+  private static void assertOrderedByDistance(ParticlePool pool) {
+    float[] positions = pool.getPositions();
+    int[] order = pool.getOrder();
+    float last = Float.POSITIVE_INFINITY;
+    for (int k = 0; k < pool.getOrderedCount(); k++) {
+      int i = order[k];
+      float distance = (float) Math.hypot(positions[i * 3], positions[i * 3 + 2]);
+      Assert.assertTrue(distance <= last + 0.01f);
+      last = distance;
+    }
+  }
+
+  private static void assertOrdered(ParticlePool pool) {
+    float[] positions = pool.getPositions();
+    int[] order = pool.getOrder();
+    for (int k = 1; k < pool.getOrderedCount(); k++) {
+      Assert.assertTrue(positions[order[k - 1] * 3 + 2] >= positions[order[k] * 3 + 2]);
+    }
+  }
+}
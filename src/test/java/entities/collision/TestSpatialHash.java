@@ -0,0 +1,53 @@
+package entities.collision;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSpatialHash {
+
+  @Test
+  public void checkBoxQuery() {
+    SpatialHash<String> hash = new SpatialHash<>(10);
+    hash.insert("small", 1, 1, 2, 2);
+    hash.insert("large", -40, -5, 40, 5);
+    hash.insert("far", 100, 100, 101, 101);
+    List<String> result = hash.query(30, 0, 31, 1, new ArrayList<>());
+    // The large box is stored far away from the query, but must be found exactly once
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals("large", result.get(0));
+    hash.query(0, 0, 3, 3, result);
+    Assert.assertEquals(2, result.size());
+    Assert.assertTrue(result.contains("small"));
+    Assert.assertTrue(result.contains("large"));
+  }
+
+  @Test
+  public void checkRangeQuery() {
+    SpatialHash<String> hash = new SpatialHash<>(10);
+    hash.insert("corner", 10, 10, 12, 12);
+    hash.insert("side", 0, 9, 1, 10);
+    List<String> result = hash.queryRange(0, 0, 10, new ArrayList<>());
+    // The closest point of the corner box is sqrt(200) away, outside of the range
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals("side", result.get(0));
+    hash.queryRange(-5, -5, 21.3f, result);
+    Assert.assertEquals(2, result.size());
+  }
+
+  @Test
+  public void checkGrowAndClear() {
+    SpatialHash<Integer> hash = new SpatialHash<>(6);
+    for (int i = 0; i < 1000; i++) {
+      hash.insert(i, i * 3, -i * 3, i * 3 + 1, -i * 3 + 1);
+    }
+    Assert.assertEquals(1000, hash.size());
+    List<Integer> result = hash.query(1500, -1500, 1501, -1499, new ArrayList<>());
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals(500, (int) result.get(0));
+    hash.clear();
+    Assert.assertEquals(0, hash.size());
+    Assert.assertTrue(hash.query(-10000, -10000, 10000, 10000, result).isEmpty());
+  }
+}
@@ -0,0 +1,51 @@
+package game;
+
+import org.joml.Vector2f;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSnapshotBuffer {
+
+  @Test
+  public void checkInterpolation() {
+    SnapshotBuffer buffer = new SnapshotBuffer();
+    buffer.add(1000, 0, 0);
+    buffer.add(2000, 10, 20);
+    Vector2f position = new Vector2f();
+    Assert.assertTrue(buffer.sample(1500, 0, position));
+    Assert.assertEquals(5, position.x, 0.001);
+    Assert.assertEquals(10, position.y, 0.001);
+    // Before the oldest snapshot the oldest position is used
+    Assert.assertTrue(buffer.sample(500, 0, position));
+    Assert.assertEquals(0, position.x, 0.001);
+  }
+
+  @Test
+  public void checkExtrapolationIsBounded() {
+    SnapshotBuffer buffer = new SnapshotBuffer();
+    Vector2f position = new Vector2f();
+    Assert.assertFalse(buffer.sample(0, 250, position));
+    buffer.add(1000, 10, 0);
+    buffer.setVelocity(20, -10);
+    Assert.assertTrue(buffer.sample(1200, 250, position));
+    Assert.assertEquals(14, position.x, 0.001);
+    Assert.assertEquals(-2, position.y, 0.001);
+    Assert.assertFalse(buffer.sample(1300, 250, position));
+  }
+
+  @Test
+  public void checkOldSnapshotsAreDropped() {
+    SnapshotBuffer buffer = new SnapshotBuffer();
+    for (int i = 0; i < 100; i++) {
+      buffer.add(i * 100, i, 0);
+    }
+    // Out of order snapshot is ignored
+    buffer.add(0, 1000, 0);
+    Assert.assertEquals(9900, buffer.getNewestTime());
+    Vector2f position = new Vector2f();
+    Assert.assertTrue(buffer.sample(9850, 0, position));
+    Assert.assertEquals(98.5, position.x, 0.001);
+    Assert.assertTrue(buffer.sample(0, 0, position));
+    Assert.assertTrue(position.x > 80);
+  }
+}
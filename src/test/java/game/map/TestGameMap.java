@@ -0,0 +1,205 @@
+package game.map;
+
+import entities.blocks.Block;
+import entities.blocks.BlockMaster;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.joml.Vector2f;
+import org.joml.Vector2i;
+import org.joml.Vector3f;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGameMap {
+
+  @After
+  public void resetThreads() {
+    GameMap.setGenerationThreads(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Test
+  public void checkMapSizes() {
+    ServerMap xl = new ServerMap("xl", 1);
+    Assert.assertEquals(96, xl.getWidth());
+    Assert.assertEquals(128, xl.getHeight());
+    ServerMap xxl = new ServerMap("xxl", 1);
+    Assert.assertEquals(128, xxl.getWidth());
+    Assert.assertEquals(256, xxl.getHeight());
+  }
+
+  @Test
+  public void checkValidMapSizes() {
+    Assert.assertTrue(GameMap.isValidMapSize("s"));
+    Assert.assertTrue(GameMap.isValidMapSize("xxl"));
+    Assert.assertFalse(GameMap.isValidMapSize("small"));
+  }
+
+  @Test
+  public void checkParallelNoiseIsIdentical() {
+    GameMap.setGenerationThreads(1);
+    ServerMap serial = new ServerMap("xxl", 424242);
+    serial.generateRows(serial.getHeight() - 1);
+    float[][] serialNoise = serial.generateNoiseMap();
+    GameMap.setGenerationThreads(4);
+    ServerMap parallel = new ServerMap("xxl", 424242);
+    parallel.generateRows(parallel.getHeight() - 1);
+    float[][] parallelNoise = parallel.generateNoiseMap();
+    // Float.equals compares the bits
+    Assert.assertTrue(Arrays.deepEquals(serialNoise, parallelNoise));
+    Assert.assertEquals(serial.toPacketString(), parallel.toPacketString());
+  }
+
+  @Test
+  public void checkResizeWhileGenerating() throws InterruptedException {
+    GameMap.setGenerationThreads(1);
+    ServerMap serial = new ServerMap("xxl", 31337);
+    serial.generateRows(serial.getHeight() - 1);
+    String expected = serial.toPacketString();
+    GameMap.setGenerationThreads(4);
+    List<Throwable> errors = new CopyOnWriteArrayList<>();
+    List<String> maps = new CopyOnWriteArrayList<>();
+    Thread generator =
+        new Thread(
+            () -> {
+              try {
+                for (int i = 0; i < 20; i++) {
+                  ServerMap map = new ServerMap("xxl", 31337);
+                  map.generateRows(map.getHeight() - 1);
+                  maps.add(map.toPacketString());
+                }
+              } catch (Throwable e) {
+                errors.add(e);
+              }
+            });
+    generator.start();
+    // Replace the pool over and over while the maps are generated in it
+    for (int threads = 2; generator.isAlive(); threads = threads % 4 + 2) {
+      GameMap.setGenerationThreads(threads);
+    }
+    generator.join();
+    Assert.assertEquals(Collections.emptyList(), errors);
+    Assert.assertEquals(20, maps.size());
+    for (String map : maps) {
+      Assert.assertEquals(expected, map);
+    }
+  }
+
+  @Test
+  public void checkMapIsGeneratedInChunks() {
+    ServerMap map = new ServerMap("l", 7);
+    Assert.assertEquals(2 * GameMap.getChunkSize(), map.getGeneratedRows());
+    // Blocks are only allocated for the generated rows
+    Assert.assertEquals(map.getGeneratedRows(), map.blocks[0].length);
+    Assert.assertFalse(map.generateRows(10));
+    Assert.assertTrue(map.generateRows(2 * GameMap.getChunkSize()));
+    Assert.assertEquals(3 * GameMap.getChunkSize(), map.getGeneratedRows());
+    map.generateRows(map.getHeight() + 100);
+    Assert.assertEquals(map.getHeight(), map.getGeneratedRows());
+    Assert.assertEquals(map.getHeight(), map.blocks[0].length);
+  }
+
+  @Test
+  public void checkStreamedRowsAreAppended() {
+    String[] rows = {"11", "22"};
+    // Rows in order are appended, rows the map already has are skipped
+    Assert.assertArrayEquals(
+        new String[] {"11", "22", "33"},
+        ClientMap.appendRows(rows, 1, new String[] {"22", "33"}));
+    Assert.assertSame(rows, ClientMap.appendRows(rows, 0, new String[] {"11"}));
+    // A gap must be requested from the server
+    Assert.assertNull(ClientMap.appendRows(rows, 3, new String[] {"44"}));
+  }
+
+  @Test
+  public void checkRowsOutsideWindowAreUnloaded() {
+    ServerMap serverMap = new ServerMap("s", 3);
+    serverMap.generateRows(serverMap.getHeight() - 1);
+    String[] rows = serverMap.toPacketString().split("║");
+    ClientMap map = new ClientMap("s", 3);
+    map.setLobbyMap(rows, rows.length);
+    map.reloadMap();
+    // Only the chunks close to the spawn have blocks
+    int window = 3 * GameMap.getChunkSize();
+    Assert.assertNotNull(map.blocks[1][window - 1]);
+    Assert.assertNull(map.blocks[1][window]);
+    Block top = map.blocks[1][0];
+
+    // Dig down to the bottom, the rows at the top are released
+    map.updateWindow(map.gridToWorld(new Vector2i(1, rows.length - 2)).y);
+    Assert.assertNull(map.blocks[1][0]);
+    Assert.assertTrue(top.isDestroyed());
+    Assert.assertFalse(BlockMaster.getBlocks().contains(top));
+    // The server answers the request for the rows below
+    map.addRows(window, rows.length, Arrays.copyOfRange(rows, window, rows.length));
+    Assert.assertNotNull(map.blocks[1][rows.length - 1]);
+
+    // Back at the top, the rows at the bottom are released and the top is loaded again
+    map.updateWindow(map.gridToWorld(new Vector2i(1, 0)).y);
+    Assert.assertNull(map.blocks[1][rows.length - 1]);
+    map.addRows(0, rows.length, Arrays.copyOfRange(rows, 0, GameMap.getChunkSize()));
+    Assert.assertNotNull(map.blocks[1][0]);
+    Assert.assertEquals(
+        BlockMaster.BlockTypes.getBlockTypeById(Character.getNumericValue(rows[0].charAt(1))),
+        map.blocks[1][0].getType());
+    BlockMaster.clear();
+  }
+
+  @Test
+  public void checkGeneratedRowsDontChange() {
+    ServerMap map = new ServerMap("xl", 99);
+    String firstRows = map.toPacketString();
+    map.generateRows(map.getHeight() - 1);
+    Assert.assertEquals(firstRows, map.toPacketString(0, 2 * GameMap.getChunkSize()));
+  }
+
+  @Test
+  public void checkDropToGround() {
+    ServerMap map = new ServerMap("s", 5);
+    for (int y = 0; y < 5; y++) {
+      map.blocks[1][y] = new ServerBlock(BlockMaster.BlockTypes.AIR, 1, y);
+    }
+    map.blocks[1][5] = new ServerBlock(BlockMaster.BlockTypes.DIRT, 1, 5);
+    Vector2f ground = map.dropToGround(map.gridToWorld(new Vector2i(1, 0)));
+    Assert.assertEquals(map.gridToWorld(new Vector2i(1, 0)).x, ground.x, 0);
+    // On top of the dirt block in row 5
+    Assert.assertEquals(-5 * GameMap.getDim(), ground.y, 0);
+  }
+
+  @Test
+  public void checkFallsAreRecorded() {
+    ServerMap map = new ServerMap("s", 5);
+    Assert.assertFalse(map.hasBlockChanges());
+    map.blocks[1][0] = new ServerBlock(BlockMaster.BlockTypes.STONE, 1, 0);
+    map.blocks[1][1] = new ServerBlock(BlockMaster.BlockTypes.STONE, 1, 1);
+    for (int y = 2; y < 5; y++) {
+      map.blocks[1][y] = new ServerBlock(BlockMaster.BlockTypes.AIR, 1, y);
+    }
+    map.blocks[1][5] = new ServerBlock(BlockMaster.BlockTypes.DIRT, 1, 5);
+    map.checkFallingBlocks();
+    // The lower stone falls first, each fall is sent once with its whole distance
+    Assert.assertEquals("F║1║1║4║F║1║0║3", map.takeBlockChanges());
+    Assert.assertFalse(map.hasBlockChanges());
+  }
+
+  @Test
+  public void checkExplosionIsRecorded() {
+    ServerMap map = new ServerMap("s", 5);
+    map.takeBlockChanges();
+    for (int x = 0; x < 3; x++) {
+      for (int y = 4; y < 7; y++) {
+        map.blocks[x][y] = new ServerBlock(BlockMaster.BlockTypes.DIRT, x, y);
+      }
+    }
+    Vector3f center = map.gridToWorld(new Vector2i(1, 5));
+    // Only the center and the four direct neighbours are in range, the damage destroys nothing
+    Assert.assertEquals(5, map.explode(3, new Vector2f(center.x, center.y), 7, .5f));
+    String changes = map.takeBlockChanges();
+    Assert.assertTrue(changes.startsWith("D║3║1║4║"));
+    Assert.assertTrue(changes.contains("D║3║1║5║0.5"));
+    Assert.assertEquals(5 * 5, changes.split("║").length);
+    Assert.assertFalse(map.hasBlockChanges());
+  }
+}
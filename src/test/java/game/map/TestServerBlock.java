@@ -0,0 +1,33 @@
+package game.map;
+
+import entities.blocks.BlockMaster;
+import entities.items.ItemMaster;
+import net.ServerLogic;
+import net.lobbyhandling.Lobby;
+import net.playerhandling.ServerPlayer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestServerBlock {
+
+  @Test
+  public void checkQmarkDynamiteExplodes() {
+    ServerLogic serverLogic = Mockito.spy(ServerLogic.class);
+    Lobby lobby = new Lobby("QmarkLobby", 1, "s");
+    ServerLogic.getLobbyList().addLobby(lobby);
+    ServerPlayer player = new ServerPlayer("Digger", 1);
+    ServerLogic.getPlayerList().addPlayer(player);
+    lobby.addPlayer(player);
+    player.setCurLobbyId(lobby.getLobbyId());
+
+    // Every question mark block drops a random item, a quarter of them are dynamite
+    for (int i = 0; i < 200; i++) {
+      new ServerBlock(BlockMaster.BlockTypes.QMARK, 1, 1).damageBlock(1, 1000);
+    }
+    int dynamite = lobby.getServerItemState().getActiveCount(ItemMaster.ItemTypes.DYNAMITE);
+    Assert.assertTrue(dynamite > 0);
+    Assert.assertEquals(dynamite, lobby.getPendingExplosions());
+    lobby.setStatus("finished");
+  }
+}
@@ -0,0 +1,36 @@
+package game.map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestServerMapPool {
+
+  @Test
+  public void checkTakeReturnsMapOfSize() {
+    ServerMap map = ServerMapPool.take("s");
+    Assert.assertEquals(16, map.getWidth());
+    Assert.assertEquals(72, map.getHeight());
+  }
+
+  @Test
+  public void checkMapsAreNotShared() {
+    Assert.assertNotSame(ServerMapPool.take("m"), ServerMapPool.take("m"));
+  }
+
+  @Test
+  public void checkPoolGetsRefilled() throws InterruptedException {
+    ServerMapPool.prefill("l");
+    waitForPool("l");
+    Assert.assertEquals(2, ServerMapPool.getAvailable("l"));
+    ServerMapPool.take("l");
+    waitForPool("l");
+    Assert.assertEquals(2, ServerMapPool.getAvailable("l"));
+  }
+
+  private void waitForPool(String mapSize) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (ServerMapPool.getAvailable(mapSize) < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package net.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestImpairedConnection {
+
+  private ServerSocket listener;
+  private Socket clientApp;
+  private Socket serverApp;
+  private ImpairedConnection connection;
+
+  @Before
+  public void setUp() throws IOException {
+    listener = new ServerSocket(0);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    if (connection != null) {
+      connection.close();
+    }
+    clientApp.close();
+    serverApp.close();
+    listener.close();
+  }
+
+  /** Connect a client and a server through a proxy connection with the given profile. */
+  private void connect(ImpairmentProfile profile) throws IOException {
+    clientApp = new Socket("localhost", listener.getLocalPort());
+    Socket proxyClientSide = listener.accept();
+    Socket proxyServerSide = new Socket("localhost", listener.getLocalPort());
+    serverApp = listener.accept();
+    // Fixed connection id, the random decisions of the proxy are the same in every run
+    connection = new ImpairedConnection(1, proxyClientSide, proxyServerSide, profile);
+    connection.start();
+  }
+
+  private Writer clientOutput() throws IOException {
+    return new OutputStreamWriter(clientApp.getOutputStream(), StandardCharsets.UTF_8);
+  }
+
+  private BufferedReader serverInput() throws IOException {
+    return new BufferedReader(
+        new InputStreamReader(serverApp.getInputStream(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void checkMessageDelayed() throws IOException {
+    connect(new ImpairmentProfile("test", 100, 0, 0, 0, 0));
+    Writer output = clientOutput();
+    BufferedReader input = serverInput();
+    long start = System.nanoTime();
+    output.write("PINGS\n");
+    output.flush();
+    Assert.assertEquals("PINGS", input.readLine());
+    Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  public void checkAllMessagesDropped() throws IOException {
+    connect(new ImpairmentProfile("test", 0, 0, 0, 1, 0));
+    Writer output = clientOutput();
+    for (int i = 0; i < 10; i++) {
+      output.write("PINGS\n");
+    }
+    output.flush();
+    clientApp.shutdownOutput();
+    // The proxy closes the connection after the end of the stream without forwarding anything
+    Assert.assertNull(serverInput().readLine());
+    Assert.assertEquals(10, connection.getUpstream().getDropped());
+    Assert.assertEquals(0, connection.getUpstream().getForwarded());
+  }
+
+  @Test
+  public void checkBytesCountedInUtf8() throws IOException {
+    connect(new ImpairmentProfile("test", 0, 0, 0, 0, 0));
+    Writer output = clientOutput();
+    BufferedReader input = serverInput();
+    output.write("a║b\n");
+    output.write("xy\n");
+    output.flush();
+    Assert.assertEquals("a║b", input.readLine());
+    Assert.assertEquals("xy", input.readLine());
+    // The separator takes three bytes, each line ends with one more for the line break
+    Assert.assertEquals(2, connection.getUpstream().getForwarded());
+    Assert.assertEquals(6 + 3, connection.getUpstream().getBytes());
+  }
+}
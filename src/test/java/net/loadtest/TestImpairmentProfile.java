@@ -0,0 +1,79 @@
+package net.loadtest;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestImpairmentProfile {
+
+  @Test
+  public void checkDelayInsideJitter() {
+    ImpairmentProfile profile = new ImpairmentProfile("test", 100, 20, 0, 0, 0);
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      long delay = profile.nextDelay(random);
+      Assert.assertTrue(delay >= 80 && delay <= 120);
+    }
+  }
+
+  @Test
+  public void checkDelayNeverNegative() {
+    ImpairmentProfile profile = new ImpairmentProfile("test", 5, 50, 0, 0, 0);
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertTrue(profile.nextDelay(random) >= 0);
+    }
+  }
+
+  @Test
+  public void checkSameSeedSameDecisions() {
+    ImpairmentProfile profile = new ImpairmentProfile("test", 100, 20, 0, 0.3, 0.1);
+    Random first = new Random(7);
+    Random second = new Random(7);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(profile.nextDelay(first), profile.nextDelay(second));
+      Assert.assertEquals(profile.isLost(first), profile.isLost(second));
+      Assert.assertEquals(profile.isReordered(first), profile.isReordered(second));
+    }
+  }
+
+  @Test
+  public void checkLossRate() {
+    Random random = new Random(42);
+    ImpairmentProfile never = new ImpairmentProfile("test", 0, 0, 0, 0, 0);
+    ImpairmentProfile always = new ImpairmentProfile("test", 0, 0, 0, 1, 0);
+    ImpairmentProfile half = new ImpairmentProfile("test", 0, 0, 0, 0.5, 0);
+    int lost = 0;
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertFalse(never.isLost(random));
+      Assert.assertTrue(always.isLost(random));
+      if (half.isLost(random)) {
+        lost++;
+      }
+    }
+    Assert.assertTrue(lost > 400 && lost < 600);
+  }
+
+  @Test
+  public void checkTransmissionTime() {
+    ImpairmentProfile capped = new ImpairmentProfile("test", 0, 0, 1000, 0, 0);
+    ImpairmentProfile uncapped = new ImpairmentProfile("test", 0, 0, 0, 0, 0);
+    // 125 bytes are 1000 bit, one millisecond at 1000 kbit/s
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1), capped.transmissionNanos(125));
+    Assert.assertEquals(0, uncapped.transmissionNanos(125));
+  }
+
+  @Test
+  public void checkParsePresetAndCustom() {
+    Assert.assertEquals("lan", ImpairmentProfile.parse("lan").toString());
+    ImpairmentProfile custom = ImpairmentProfile.parse("100:0:1000:0:0");
+    Assert.assertEquals(100, custom.nextDelay(new Random(42)));
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1), custom.transmissionNanos(125));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void checkParseInvalid() {
+    ImpairmentProfile.parse("100:20");
+  }
+}
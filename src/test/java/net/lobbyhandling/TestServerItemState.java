@@ -69,4 +69,36 @@ public class TestServerItemState {
     itemState.removeItemByItemId(testItem1.getItemId());
     Assert.assertEquals(itemState.getServerItemsList(),(serverItemsList));
   }
+
+  @Test
+  public void checkDynamiteCountedPerOwner() {
+    ServerItemState itemState = new ServerItemState();
+    ServerItem dynamite = new ServerItem(1, ItemMaster.ItemTypes.DYNAMITE, new Vector3f());
+    itemState.addItem(new ServerItem(2, ItemMaster.ItemTypes.TORCH, new Vector3f()));
+    itemState.addItem(dynamite);
+    itemState.addItem(dynamite);
+    Assert.assertTrue(itemState.hasDynamiteOwnedBy(1));
+    Assert.assertFalse(itemState.hasDynamiteOwnedBy(2));
+    Assert.assertEquals(1, itemState.getActiveCount(ItemMaster.ItemTypes.DYNAMITE));
+    itemState.removeItemByItemId(dynamite.getItemId());
+    itemState.removeItemByItemId(dynamite.getItemId());
+    Assert.assertFalse(itemState.hasDynamiteOwnedBy(1));
+    Assert.assertEquals(0, itemState.getActiveCount(ItemMaster.ItemTypes.DYNAMITE));
+  }
+
+  @Test
+  public void checkItemsExpire() {
+    ServerItemState itemState = new ServerItemState();
+    ServerItem dynamite = new ServerItem(1, ItemMaster.ItemTypes.DYNAMITE, new Vector3f());
+    ServerItem torch = new ServerItem(1, ItemMaster.ItemTypes.TORCH, new Vector3f());
+    itemState.addItem(dynamite);
+    itemState.addItem(torch);
+    itemState.expireItems(dynamite.getExpiresAt() - 1);
+    Assert.assertTrue(itemState.hasDynamiteOwnedBy(1));
+    itemState.expireItems(dynamite.getExpiresAt());
+    Assert.assertFalse(itemState.hasDynamiteOwnedBy(1));
+    Assert.assertNull(itemState.getItem(dynamite.getItemId()));
+    // Torches stay until they are destroyed
+    Assert.assertEquals(torch, itemState.getItem(torch.getItemId()));
+  }
 }
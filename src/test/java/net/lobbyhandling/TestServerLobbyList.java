@@ -35,6 +35,14 @@ public class TestServerLobbyList {
     Assert.assertEquals(lobbies, (lobbyList.getLobbies()));
   }
 
+  @Test
+  public void checkIsNameTaken() {
+    ServerLobbyList lobbyList = new ServerLobbyList();
+    lobbyList.addLobby(new Lobby("test1", 1, "mid"));
+    Assert.assertTrue(lobbyList.isNameTaken("test1"));
+    Assert.assertFalse(lobbyList.isNameTaken("test2"));
+  }
+
   @Test
   public void checkNotAddLobby() {
     ServerLobbyList lobbyList = new ServerLobbyList();
@@ -1,5 +1,8 @@
 package net.packets.block;
 
+import java.util.Arrays;
+import java.util.List;
+import org.joml.Vector3f;
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -75,4 +78,23 @@ public class TestBlockDamage {
     p.processData();
     Assert.assertEquals("1║1║2║1.0", p.getData());
   }
+
+  @Test
+  public void checkBatchRoundTrip() {
+    List<Vector3f> cells = Arrays.asList(new Vector3f(2, 3, 0.2f), new Vector3f(3, 4, 0.1f));
+    PacketBlockDamage toServer = new PacketBlockDamage(cells);
+    Assert.assertEquals("2║3║0.2║3║4║0.1", toServer.getData());
+    PacketBlockDamage server = new PacketBlockDamage(1, toServer.getData());
+    Assert.assertFalse(server.hasErrors());
+    Assert.assertEquals(cells, server.getCells());
+    PacketBlockDamage toClient = new PacketBlockDamage(1, server.getCells());
+    Assert.assertEquals("1║2║3║0.2║3║4║0.1", toClient.getData());
+    Assert.assertEquals(cells, new PacketBlockDamage(toClient.getData()).getCells());
+  }
+
+  @Test
+  public void incompleteBatchServer() {
+    PacketBlockDamage p = new PacketBlockDamage(1, "2║3║0.2║3║4");
+    Assert.assertTrue(p.hasErrors());
+  }
 }
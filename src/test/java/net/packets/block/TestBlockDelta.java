@@ -0,0 +1,33 @@
+package net.packets.block;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBlockDelta {
+
+  @Test
+  public void correctPacketClient() {
+    PacketBlockDelta p = new PacketBlockDelta("D║1║3║3║0.5║F║3║2║5║D║2║4║4║12.5");
+    Assert.assertFalse(p.hasErrors());
+    Assert.assertEquals(3, p.getChangeCount());
+  }
+
+  @Test
+  public void incompleteChange() {
+    PacketBlockDelta p = new PacketBlockDelta("D║1║3║3║0.5║F║3║2");
+    Assert.assertTrue(p.hasErrors());
+  }
+
+  @Test
+  public void unknownChange() {
+    PacketBlockDelta p = new PacketBlockDelta("X║1║3║3");
+    Assert.assertTrue(p.hasErrors());
+  }
+
+  @Test
+  public void incorrectNumber() {
+    Assert.assertTrue(new PacketBlockDelta("D║1║a║3║0.5").hasErrors());
+    Assert.assertTrue(new PacketBlockDelta("D║1║3║3║test").hasErrors());
+    Assert.assertTrue(new PacketBlockDelta("F║1║3║test").hasErrors());
+  }
+}
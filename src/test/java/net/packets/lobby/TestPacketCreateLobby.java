@@ -29,6 +29,12 @@ public class TestPacketCreateLobby {
     Assert.assertEquals("ERRORS: Illegal mapsize.", p.createErrorMessage());
   }
 
+  @Test
+  public void checkExtraLargeMapsizeAttached() {
+    PacketCreateLobby p = new PacketCreateLobby(1, "TestString║xxl");
+    Assert.assertFalse(p.hasErrors());
+  }
+
   @Test
   public void checkTooLongLobbynameAttached() {
     PacketCreateLobby p =
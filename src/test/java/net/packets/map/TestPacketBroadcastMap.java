@@ -17,16 +17,32 @@ public class TestPacketBroadcastMap {
 
   @Test
   public void checkSeedNotInt() {
-    PacketBroadcastMap p = new PacketBroadcastMap("testInt║test");
+    PacketBroadcastMap p = new PacketBroadcastMap("testInt║1║1║test");
     Assert.assertEquals(
         "ERRORS: Invalid map seed. Wrong map format: 29 test", p.createErrorMessage());
   }
 
+  @Test
+  public void checkGeneratedRowsDontMatch() {
+    PacketBroadcastMap p = new PacketBroadcastMap("1║2║48║123");
+    Assert.assertEquals("ERRORS: Invalid map size.", p.createErrorMessage());
+  }
+
+  @Test
+  public void checkGeneratedRowsAreSent() {
+    ServerMap serverMap = new ServerMap("l", 1);
+    PacketBroadcastMap p = new PacketBroadcastMap(new PacketBroadcastMap(serverMap).getData());
+    Assert.assertFalse(p.hasErrors());
+    Assert.assertTrue(
+        p.getData()
+            .startsWith("1║" + serverMap.getGeneratedRows() + "║" + serverMap.getHeight() + "║"));
+  }
+
   @Test
   public void checkCorrectMapNotExisting() {
     Game game = Mockito.spy(Game.class);
     ServerMap serverMap = new ServerMap("l", 1);
-    PacketBroadcastMap p = new PacketBroadcastMap("1║" + serverMap.toPacketString());
+    PacketBroadcastMap p = new PacketBroadcastMap(new PacketBroadcastMap(serverMap).getData());
     p.processData();
     Assert.assertEquals(new ClientMap("l", 1).toString(), Game.getMap().toString());
   }
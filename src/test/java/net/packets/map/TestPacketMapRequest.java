@@ -0,0 +1,33 @@
+package net.packets.map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPacketMapRequest {
+
+  @Test
+  public void checkRequestToEnd() {
+    PacketMapRequest p = new PacketMapRequest(1, "32");
+    Assert.assertFalse(p.hasErrors());
+    Assert.assertEquals(32, p.getFromRow());
+    Assert.assertEquals(Integer.MAX_VALUE, p.getToRow());
+  }
+
+  @Test
+  public void checkRequestRange() {
+    PacketMapRequest p = new PacketMapRequest(1, new PacketMapRequest(16, 48).getData());
+    Assert.assertFalse(p.hasErrors());
+    Assert.assertEquals(16, p.getFromRow());
+    Assert.assertEquals(48, p.getToRow());
+  }
+
+  @Test
+  public void checkInvalidRange() {
+    Assert.assertEquals(
+        "ERRORS: Invalid row.", new PacketMapRequest(1, "48║16").createErrorMessage());
+    Assert.assertEquals(
+        "ERRORS: Invalid row.", new PacketMapRequest(1, "1║2║3").createErrorMessage());
+    Assert.assertEquals(
+        "ERRORS: Not an Integer.", new PacketMapRequest(1, "1║x").createErrorMessage());
+  }
+}
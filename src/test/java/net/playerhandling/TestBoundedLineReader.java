@@ -0,0 +1,46 @@
+package net.playerhandling;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBoundedLineReader {
+
+  @Test
+  public void checkReadLines() throws IOException {
+    BoundedLineReader reader =
+        new BoundedLineReader(new StringReader("PING1\r\nPOSXY 1\nlast"), 10);
+    Assert.assertEquals("PING1", reader.readLine());
+    Assert.assertEquals("POSXY 1", reader.readLine());
+    Assert.assertEquals("last", reader.readLine());
+    Assert.assertNull(reader.readLine());
+  }
+
+  @Test
+  public void checkEmptyLine() throws IOException {
+    BoundedLineReader reader = new BoundedLineReader(new StringReader("\nCHATM x\n"), 10);
+    Assert.assertEquals("", reader.readLine());
+    Assert.assertEquals("CHATM x", reader.readLine());
+  }
+
+  @Test
+  public void checkTooLongLineIsSkipped() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      sb.append('x');
+    }
+    BoundedLineReader reader =
+        new BoundedLineReader(new StringReader("PING1\n" + sb + "\nPONGU 2\n"), 10);
+    Assert.assertEquals("PING1", reader.readLine());
+    Assert.assertEquals("PONGU 2", reader.readLine());
+    Assert.assertEquals(1, reader.getDroppedLines());
+  }
+
+  @Test
+  public void checkMaxLengthIsAllowed() throws IOException {
+    BoundedLineReader reader = new BoundedLineReader(new StringReader("0123456789\n"), 10);
+    Assert.assertEquals("0123456789", reader.readLine());
+    Assert.assertEquals(0, reader.getDroppedLines());
+  }
+}
@@ -0,0 +1,53 @@
+package net.playerhandling;
+
+import net.packets.Packet.PacketTypes;
+import net.playerhandling.ClientRateLimiter.Category;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestClientRateLimiter {
+
+  @Test
+  public void checkBurstIsLimited() {
+    ClientRateLimiter limiter = new ClientRateLimiter();
+    long now = System.nanoTime();
+    int accepted = 0;
+    for (int i = 0; i < 20; i++) {
+      if (limiter.tryAcquire(Category.CHAT, now)) {
+        accepted++;
+      }
+    }
+    Assert.assertEquals(5, accepted);
+    Assert.assertEquals(15, limiter.getDropped(Category.CHAT));
+  }
+
+  @Test
+  public void checkBucketRefills() {
+    ClientRateLimiter limiter = new ClientRateLimiter();
+    long now = System.nanoTime();
+    while (limiter.tryAcquire(Category.CHAT, now)) {
+      // Empty the bucket
+    }
+    Assert.assertFalse(limiter.tryAcquire(Category.CHAT, now));
+    Assert.assertTrue(limiter.tryAcquire(Category.CHAT, now + 1000000000L));
+  }
+
+  @Test
+  public void checkCategoriesAreIndependent() {
+    ClientRateLimiter limiter = new ClientRateLimiter();
+    long now = System.nanoTime();
+    while (limiter.tryAcquire(Category.CHAT, now)) {
+      // Empty the bucket
+    }
+    Assert.assertTrue(limiter.tryAcquire(Category.MOVEMENT, now));
+    Assert.assertEquals(0, limiter.getDropped(Category.MOVEMENT));
+  }
+
+  @Test
+  public void checkPongIsNeverLimited() {
+    ClientRateLimiter limiter = new ClientRateLimiter();
+    for (int i = 0; i < 10000; i++) {
+      Assert.assertTrue(limiter.tryAcquire(PacketTypes.PONG));
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package net.playerhandling;
+
+import entities.Player;
+import entities.items.ItemMaster;
+import entities.items.ServerItem;
+import java.util.Arrays;
+import net.ServerLogic;
+import net.lobbyhandling.Lobby;
+import org.joml.Vector2f;
+import org.joml.Vector2i;
+import org.joml.Vector3f;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestServerPlayer {
+
+  private Lobby lobby;
+  private ServerPlayer player;
+
+  /** Log in a player that stands on the block in column 5 and row 5 of a new lobby. */
+  @Before
+  public void addPlayer() {
+    ServerLogic serverLogic = Mockito.spy(ServerLogic.class);
+    lobby = new Lobby("DigLobby", 1, "s");
+    ServerLogic.getLobbyList().addLobby(lobby);
+    player = new ServerPlayer("Digger", 1);
+    ServerLogic.getPlayerList().addPlayer(player);
+    lobby.addPlayer(player);
+    player.setCurLobbyId(lobby.getLobbyId());
+    Vector3f position = lobby.getMap().gridToWorld(new Vector2i(5, 5));
+    player.setPos2d(new Vector2f(position.x, position.y));
+    player.setPos2d(new Vector2f(position.x, position.y));
+  }
+
+  @After
+  public void closeLobby() {
+    lobby.setStatus("finished");
+  }
+
+  @Test
+  public void checkActiveDynamiteDoesNotSkipValidation() {
+    lobby
+        .getServerItemState()
+        .addItem(new ServerItem(1, ItemMaster.ItemTypes.DYNAMITE, new Vector3f()));
+    boolean valid =
+        player.validateBlockDamage(
+            Arrays.asList(
+                new Vector3f(4, 5, .1f),
+                new Vector3f(6, 5, .1f),
+                new Vector3f(5, 6, .1f),
+                new Vector3f(5, 4, .1f),
+                new Vector3f(4, 6, .1f)));
+    Assert.assertFalse(valid);
+    Assert.assertEquals(1, player.getDamageViolations());
+  }
+
+  @Test
+  public void checkDuplicateCellsAreRejected() {
+    boolean valid =
+        player.validateBlockDamage(
+            Arrays.asList(
+                new Vector3f(5, 6, .05f),
+                new Vector3f(5, 6, .05f),
+                new Vector3f(5, 6, .05f),
+                new Vector3f(5, 6, .05f)));
+    Assert.assertFalse(valid);
+    Assert.assertEquals(1, player.getDamageViolations());
+  }
+
+  @Test
+  public void checkBatchOverBudgetIsRejected() {
+    // Every block alone is within one dig interval, all of them together are not
+    boolean valid =
+        player.validateBlockDamage(
+            Arrays.asList(
+                new Vector3f(4, 5, .1f), new Vector3f(6, 5, .1f), new Vector3f(5, 6, .1f)));
+    Assert.assertFalse(valid);
+    Assert.assertEquals(1, player.getDamageViolations());
+  }
+
+  @Test
+  public void checkNegativeDamageIsRejected() {
+    boolean valid =
+        player.validateBlockDamage(
+            Arrays.asList(new Vector3f(4, 5, .2f), new Vector3f(6, 5, -.2f)));
+    Assert.assertFalse(valid);
+    Assert.assertEquals(1, player.getDamageViolations());
+  }
+
+  @Test
+  public void checkBatchWithinBudgetIsAccepted() throws InterruptedException {
+    // Wait for the first dig interval to pass
+    Thread.sleep((long) (1000 * Player.getDigInterval()));
+    boolean valid =
+        player.validateBlockDamage(
+            Arrays.asList(new Vector3f(4, 5, .1f), new Vector3f(6, 5, .1f)));
+    Assert.assertTrue(valid);
+    Assert.assertEquals(0, player.getDamageViolations());
+  }
+}
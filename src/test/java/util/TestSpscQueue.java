@@ -0,0 +1,50 @@
+package util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSpscQueue {
+
+  @Test
+  public void checkCapacityAndOrder() {
+    SpscQueue<Integer> queue = new SpscQueue<>(3);
+    Assert.assertEquals(4, queue.capacity());
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(queue.offer(i));
+    }
+    Assert.assertFalse(queue.offer(4));
+    Assert.assertEquals(4, queue.size());
+    Assert.assertEquals(Integer.valueOf(0), queue.poll());
+    Assert.assertTrue(queue.offer(4));
+    for (int i = 1; i <= 4; i++) {
+      Assert.assertEquals(Integer.valueOf(i), queue.poll());
+    }
+    Assert.assertNull(queue.poll());
+  }
+
+  @Test
+  public void checkTwoThreads() throws InterruptedException {
+    SpscQueue<Integer> queue = new SpscQueue<>(64);
+    int count = 200000;
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) {
+                  Thread.yield();
+                }
+              }
+            });
+    producer.start();
+    int expected = 0;
+    while (expected < count) {
+      Integer value = queue.poll();
+      if (value != null) {
+        Assert.assertEquals(expected, value.intValue());
+        expected++;
+      }
+    }
+    producer.join();
+    Assert.assertNull(queue.poll());
+  }
+}